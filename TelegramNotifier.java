@@ -1,33 +0,0 @@
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
-
-public class TelegramNotifier {
-
-    private static final String BOT_TOKEN = ""; // from BotFather
-    private static final String CHAT_ID = "";    // your ID
-
-    public static void sendMessage(String message) {
-        try {
-            String urlString = "https://api.telegram.org/bot" + BOT_TOKEN + "/sendMessage";
-            String data = "chat_id=" + CHAT_ID + "&text=" + java.net.URLEncoder.encode(message, "UTF-8");
-
-            URL url = new URL(urlString);
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("POST");
-            conn.setDoOutput(true);
-            conn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-
-            try (OutputStream os = conn.getOutputStream()) {
-                os.write(data.getBytes(StandardCharsets.UTF_8));
-            }
-
-            conn.getInputStream().close();
-            conn.disconnect();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-}
-
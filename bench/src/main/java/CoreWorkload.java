@@ -0,0 +1,100 @@
+import smartreminder.bench.Workload;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Default-package side of the benchmarks (see {@link Workload}): a synthetic schedule and
+ * the core calls the benchmarks time.
+ */
+public class CoreWorkload implements Workload {
+
+    private static final String[] PARSE_INPUTS = {
+            "Wake up at 6 AM",
+            "Meeting Jon for coffee at 5 PM for 1 hour",
+            "6 PM to 7 PM games",
+            "Call mom at 3.30 pm for 45 minutes",
+            "sleep at 11 pm",
+            "buy groceries"
+    };
+
+    // what a user might have typed when the label refreshes
+    private static final String[] TYPED = {
+            "Wake up", "meeting with jon at 5 pm", "Lunch", "g", "Read a book at 9 pm for 1 hour", "Exercise"
+    };
+
+    private static final String[] ACTIVITIES = {
+            "Wake up", "Breakfast", "Bath", "Commute", "Work/Study", "Lunch", "Short walk",
+            "Tea/Coffee break", "Exercise", "Dinner", "Relax", "Plan tomorrow", "Sleep",
+            "Gym", "Team meeting", "Call mom", "Gaming", "Groceries", "Laundry", "Netflix"
+    };
+
+    private static final int PROBES = 256; // power of two
+
+    private final LocalDate firstDay = LocalDate.of(2025, 1, 6);
+    private final List<Task> tasks = new ArrayList<>();
+    private final DescriptionIndex descriptions = new DescriptionIndex();
+    private final ActivityModel activityModel = new ActivityModel();
+    private final ScheduleIndex index = new ScheduleIndex();
+    private final Task[] probes = new Task[PROBES];
+
+    @Override
+    public void setUp(int n, long seed) {
+        Random r = new Random(seed);
+        int days = Math.max(1, n / 20);
+        for (int i = 0; i < n; i++) {
+            Task t = randomTask(r, days, ACTIVITIES[r.nextInt(ACTIVITIES.length)] + " " + (i % 100));
+            tasks.add(t);
+            descriptions.add(t.getDescription());
+            activityModel.add(t);
+            index.insert(t);
+        }
+        for (int i = 0; i < PROBES; i++) probes[i] = randomTask(r, days, "New task");
+    }
+
+    private Task randomTask(Random r, int days, String description) {
+        LocalDateTime start = firstDay.plusDays(r.nextInt(days)).atTime(6, 0).plusMinutes(15L * r.nextInt(64));
+        return new Task(description, start, start.plusMinutes(15L * (1 + r.nextInt(8))));
+    }
+
+    @Override
+    public Object parse(int i) {
+        return TaskParser.parse(PARSE_INPUTS[i % PARSE_INPUTS.length], firstDay);
+    }
+
+    @Override
+    public Object suggest(int i) {
+        return SuggestionEngine.suggest(TYPED[i % TYPED.length], descriptions);
+    }
+
+    @Override
+    public int conflictsLinear(int i) {
+        Task probe = probes[i & (PROBES - 1)];
+        int conflicts = 0;
+        for (Task t : tasks) {
+            if (t.overlapsWith(probe)) conflicts++;
+        }
+        return conflicts;
+    }
+
+    @Override
+    public int conflictsIndexed(int i) {
+        return index.overlapping(probes[i & (PROBES - 1)]).size();
+    }
+
+    // what TaskApp's suggestion worker computes per (debounced) edit
+    @Override
+    public Object liveSuggestions(int i) {
+        return SuggestionEngine.liveHint(TYPED[i % TYPED.length], descriptions, activityModel);
+    }
+
+    @Override
+    public Object nextActivities(int i) {
+        Task probe = probes[i & (PROBES - 1)];
+        return activityModel.next(ACTIVITIES[i % ACTIVITIES.length] + " " + (i % 100),
+                probe.getStartTime().toLocalTime(), 3);
+    }
+}
@@ -0,0 +1,25 @@
+package smartreminder.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler on, so every result comes with its allocation rate
+ * (gc.alloc.rate.norm = bytes per operation).
+ *
+ *   java -cp bench/target/benchmarks.jar smartreminder.bench.BenchMain [regex] [tasks,...]
+ */
+public class BenchMain {
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder opts = new OptionsBuilder();
+        opts.include(args.length > 0 ? args[0] : BenchMain.class.getPackageName() + ".*Benchmark");
+        if (args.length > 1) opts.param("tasks", args[1].split(","));
+        opts.addProfiler(GCProfiler.class);
+        Options built = opts.build();
+        new Runner(built).run();
+    }
+}
@@ -0,0 +1,27 @@
+package smartreminder.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    private Workload workload;
+    private int i;
+
+    @Setup
+    public void setUp() {
+        workload = Workload.create();
+    }
+
+    @Benchmark
+    public Object parse() {
+        return workload.parse(i++);
+    }
+}
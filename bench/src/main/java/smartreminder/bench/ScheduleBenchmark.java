@@ -0,0 +1,52 @@
+package smartreminder.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Hot paths whose cost depends on how many tasks are loaded. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ScheduleBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int tasks;
+
+    private Workload workload;
+    private int i;
+
+    @Setup
+    public void setUp() {
+        workload = Workload.create();
+        workload.setUp(tasks, 42);
+    }
+
+    @Benchmark
+    public Object suggest() {
+        return workload.suggest(i++);
+    }
+
+    @Benchmark
+    public int conflictsLinear() {
+        return workload.conflictsLinear(i++);
+    }
+
+    @Benchmark
+    public int conflictsIndexed() {
+        return workload.conflictsIndexed(i++);
+    }
+
+    @Benchmark
+    public Object liveSuggestions() {
+        return workload.liveSuggestions(i++);
+    }
+
+    @Benchmark
+    public Object nextActivities() {
+        return workload.nextActivities(i++);
+    }
+}
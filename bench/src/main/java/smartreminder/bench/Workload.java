@@ -0,0 +1,41 @@
+package smartreminder.bench;
+
+/**
+ * The core operations the benchmarks time.
+ *
+ * JMH refuses benchmarks in the default package and named packages cannot see default-package
+ * classes, so the engine is reached through this interface; {@code CoreWorkload} (default package,
+ * next to the core classes) implements it and is loaded by name. The call is monomorphic and gets
+ * inlined, so it does not show up in the numbers.
+ */
+public interface Workload {
+
+    static Workload create() {
+        try {
+            return (Workload) Class.forName("CoreWorkload").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("CoreWorkload not on the classpath", e);
+        }
+    }
+
+    /** Builds {@code tasks} timed tasks (about 20 a day) and the schedule index over them. */
+    void setUp(int tasks, long seed);
+
+    /** TaskParser.parse on the i-th sample input. */
+    Object parse(int i);
+
+    /** SuggestionEngine.suggest against the description index. */
+    Object suggest(int i);
+
+    /** Conflict check for a new task as a Task.overlapsWith scan over every task. */
+    int conflictsLinear(int i);
+
+    /** The same conflict check through ScheduleIndex. */
+    int conflictsIndexed(int i);
+
+    /** The text TaskApp computes for the live suggestion label after an edit. */
+    Object liveSuggestions(int i);
+
+    /** ActivityModel top-k lookup for a known activity. */
+    Object nextActivities(int i);
+}
@@ -1,11 +1,13 @@
 import sys
-import mysql.connector
 from datetime import datetime, timedelta
 import random
 import re
 import io
+import json
+from bisect import bisect_right
 
-# Make stdout UTF-8 (helps avoid Windows cp1252 errors when printing emojis)
+# Make stdin/stdout UTF-8 (helps avoid Windows cp1252 errors with emojis; Java writes UTF-8)
+sys.stdin = io.TextIOWrapper(sys.stdin.buffer, encoding='utf-8')
 sys.stdout = io.TextIOWrapper(sys.stdout.buffer, encoding='utf-8', line_buffering=True)
 
 # Candidate free-time activities
@@ -27,18 +29,30 @@ GENERIC_ACTIVITIES = [
     "Tidy your room", "Listen to a podcast", "Journal", "Light stretching"
 ]
 
-# connect to your XAMPP MySQL
-try:
-    db = mysql.connector.connect(
-        host="localhost",
-        user="root",
-        password="",
-        database="taskmanager"
-    )
-    cursor = db.cursor(dictionary=True)
-except mysql.connector.Error as err:
-    print(f"⚠ Database connection failed: {err}", flush=True)
-    sys.exit(1)
+# connect to your XAMPP MySQL (only one-shot mode reads the DB; worker mode gets tasks from Java)
+_cursor = None
+
+def db_cursor():
+    global _cursor
+    if _cursor is None:
+        import mysql.connector
+        try:
+            db = mysql.connector.connect(
+                host="localhost",
+                user="root",
+                password="",
+                database="taskmanager"
+            )
+            _cursor = db.cursor(dictionary=True)
+        except mysql.connector.Error as err:
+            print(f"⚠ Database connection failed: {err}", flush=True)
+            sys.exit(1)
+    return _cursor
+
+def load_db_tasks():
+    cursor = db_cursor()
+    cursor.execute("SELECT * FROM tasks ORDER BY start_time")
+    return cursor.fetchall()
 
 # ----------- ARGUMENT HANDLING -----------
 args = sys.argv[1:]
@@ -47,10 +61,6 @@ if args and args[0].startswith("--"):
     special_flag = args[0]
     args = args[1:]
 
-# Join rest into user input (for chat use). Keep original case for some parsing needs:
-user_message = " ".join(args).strip()
-user_message_lower = user_message.lower()
-
 # synonym mapping (all lowercase for easier compare)
 synonyms = {
     "improve": ["improve", "organize", "optimize"],
@@ -60,7 +70,7 @@ synonyms = {
     "greet": ["heyy", "yoo", "hii", "hi", "hello", "hey"]
 }
 
-def matches(word_list):
+def matches(word_list, user_message_lower):
     """Case-insensitive substring matcher."""
     for w in word_list:
         if w.lower() in user_message_lower:
@@ -236,37 +246,23 @@ def parse_iso_datetime(s):
     # fallback: return None
     return None
 
-# ---------------- MAIN FLOW ----------------
-response = None
+def start_key(t):
+    return (t.get("start_time") is not None, t.get("start_time") or datetime.min)
 
-# ------------- special flag: conflict check from Java -------------
-if special_flag == "--conflict":
-    # Expected args: description, start_iso, end_iso
-    # Java used to call: python bot.py --conflict desc start_iso end_iso
-    desc = args[0] if len(args) >= 1 else ""
-    start_iso = args[1] if len(args) >= 2 else None
-    end_iso = args[2] if len(args) >= 3 else None
+def by_start(tasks):
+    """Same order as ORDER BY start_time (timeless rows first)."""
+    return sorted(tasks, key=start_key)
 
+def check_conflict(desc, start_iso, end_iso, db_tasks):
     new_task = {
         "description": desc,
         "start_time": parse_iso_datetime(start_iso),
         "end_time": parse_iso_datetime(end_iso)
     }
-
-    # fetch tasks from DB
-    cursor.execute("SELECT * FROM tasks ORDER BY start_time")
-    db_tasks = cursor.fetchall()
-
-    # ensure DB rows have datetime objects (they should already)
-    # check conflicts
     msg = conflict_message(new_task, db_tasks)
-    if msg:
-        print(msg, flush=True)
-    else:
-        print("OK", flush=True)
-    sys.exit(0)
+    return msg if msg else "OK"
 
-# ------------- normal chat mode -------------
+# ---------------- CHAT INTENTS ----------------
 # We will check for intent in the following order:
 # 1) improve (so "heyy can you improve..." goes to improve)
 # 2) free
@@ -274,63 +270,139 @@ if special_flag == "--conflict":
 # 4) greet
 # 5) ok
 # 6) fallback
+def answer(user_message, tasks):
+    """tasks: rows ordered by start_time, each with description/start_time/end_time."""
+    user_message_lower = user_message.strip().lower()
+    response = None
 
-if matches(synonyms["improve"]):
-    cursor.execute("SELECT * FROM tasks ORDER BY start_time")
-    db_tasks = cursor.fetchall()
-    response = improve_schedule(db_tasks)
+    if matches(synonyms["improve"], user_message_lower):
+        response = improve_schedule(tasks)
+
+    elif matches(synonyms["free"], user_message_lower):
+        if not tasks:
+            response = "✅ You have no tasks scheduled, the whole day is free!"
+        else:
+            free_slots = []
+            last_end = None
+            for task in tasks:
+                start = task["start_time"]
+                end = task["end_time"]
+                if start is None or end is None:
+                    continue
+                if last_end and start > last_end:
+                    free_slots.append(f"🕒 Free from {last_end.strftime('%I:%M %p')} to {start.strftime('%I:%M %p')}")
+                last_end = end
+            if last_end:
+                free_slots.append(f"🕒 Free after {last_end.strftime('%I:%M %p')}")
+            response = "\n".join(free_slots) if free_slots else "⚠ No free time, tasks are back-to-back!"
+
+    elif matches(synonyms["suggest"], user_message_lower):
+        if not tasks:
+            activity = random.choice(CANDIDATES)
+            activity1 = random.choice(CANDIDATES)
+            response = f"💡 How about starting with: {activity} or {activity1}?"
+        else:
+            now = datetime.now()
+            day_end = now.replace(hour=23, minute=59, second=0, microsecond=0)
+            cursor_time = now
+            for task in tasks + [{"start_time": day_end, "end_time": day_end}]:
+                start = task["start_time"]
+                if start is None:
+                    continue
+                if cursor_time < start:
+                    gap = (start - cursor_time).total_seconds() / 60
+                    if gap >= 30:
+                        slot_end = cursor_time + timedelta(minutes=30)
+                        new_activity = pick_new(tasks)
+                        new_activity1 = pick_new(tasks)
+                        response = f"💡 From {cursor_time.strftime('%I:%M %p')} to {slot_end.strftime('%I:%M %p')}: {new_activity} or {new_activity1}"
+                        break
+                if task["end_time"] and task["end_time"] > cursor_time:
+                    cursor_time = task["end_time"]
+            if not response:
+                response = "⚠ No 30-min free slot left today for new activities."
+
+    elif matches(synonyms["greet"], user_message_lower):
+        response = "Heyy ! What's today's plan ? or stuck ? No worries...I am here to help ! ;)"
+
+    elif matches(synonyms["ok"], user_message_lower):
+        response = "Sure, let me know if you want to know anything more."
 
-elif matches(synonyms["free"]):
-    cursor.execute("SELECT * FROM tasks ORDER BY start_time")
-    tasks = cursor.fetchall()
-    if not tasks:
-        response = "✅ You have no tasks scheduled, the whole day is free!"
-    else:
-        free_slots = []
-        last_end = None
-        for task in tasks:
-            start = task["start_time"]
-            end = task["end_time"]
-            if last_end and start > last_end:
-                free_slots.append(f"🕒 Free from {last_end.strftime('%I:%M %p')} to {start.strftime('%I:%M %p')}")
-            last_end = end
-        if last_end:
-            free_slots.append(f"🕒 Free after {last_end.strftime('%I:%M %p')}")
-        response = "\n".join(free_slots) if free_slots else "⚠ No free time, tasks are back-to-back!"
-
-elif matches(synonyms["suggest"]):
-    cursor.execute("SELECT * FROM tasks ORDER BY start_time")
-    tasks = cursor.fetchall()
-    if not tasks:
-        activity = random.choice(CANDIDATES)
-        activity1 = random.choice(CANDIDATES)
-        response = f"💡 How about starting with: {activity} or {activity1}?"
     else:
-        now = datetime.now()
-        day_end = now.replace(hour=23, minute=59, second=0, microsecond=0)
-        cursor_time = now
-        for task in tasks + [{"start_time": day_end, "end_time": day_end}]:
-            start = task["start_time"]
-            if cursor_time < start:
-                gap = (start - cursor_time).total_seconds() / 60
-                if gap >= 30:
-                    slot_end = cursor_time + timedelta(minutes=30)
-                    new_activity = pick_new(tasks)
-                    new_activity1 = pick_new(tasks)
-                    response = f"💡 From {cursor_time.strftime('%I:%M %p')} to {slot_end.strftime('%I:%M %p')}: {new_activity} or {new_activity1}"
-                    break
-            if task["end_time"] and task["end_time"] > cursor_time:
-                cursor_time = task["end_time"]
-        if not response:
-            response = "⚠ No 30-min free slot left today for new activities."
-
-elif matches(synonyms["greet"]):
-    response = "Heyy ! What's today's plan ? or stuck ? No worries...I am here to help ! ;)"
-
-elif matches(synonyms["ok"]):
-    response = "Sure, let me know if you want to know anything more."
-
-else:
-    response = "Hmm, I didn't get that. Try asking about free time, improvements, or suggestions."
-
-print(response, flush=True)
+        response = "Hmm, I didn't get that. Try asking about free time, improvements, or suggestions."
+
+    return response
+
+# ---------------- WORKER MODE ----------------
+# Long-lived process driven by BotWorkerPool: one JSON object per line on stdin/stdout.
+# Java pushes the task snapshot (reset/add/remove), so the DB is never touched here.
+def task_from_json(d):
+    return {
+        "description": d.get("description"),
+        "start_time": parse_iso_datetime(d.get("start_time")),
+        "end_time": parse_iso_datetime(d.get("end_time")),
+    }
+
+def same_task(a, b):
+    return (a["description"] == b["description"] and a["start_time"] == b["start_time"]
+            and a["end_time"] == b["end_time"])
+
+def reply(obj):
+    sys.stdout.write(json.dumps(obj, ensure_ascii=False) + "\n")
+    sys.stdout.flush()
+
+def run_worker():
+    tasks = []
+    keys = []  # start_key of each task, kept in step with tasks for bisect
+    for line in sys.stdin:
+        line = line.strip()
+        if not line:
+            continue
+        req_id = None
+        try:
+            msg = json.loads(line)
+            req_id = msg.get("id")
+            kind = msg.get("type")
+            if kind == "reset":
+                tasks = by_start(task_from_json(t) for t in msg.get("tasks", []))
+                keys = [start_key(t) for t in tasks]
+            elif kind == "add":
+                t = task_from_json(msg["task"])
+                i = bisect_right(keys, start_key(t))
+                keys.insert(i, start_key(t))
+                tasks.insert(i, t)
+            elif kind == "remove":
+                gone = task_from_json(msg["task"])
+                for i, t in enumerate(tasks):
+                    if same_task(t, gone):
+                        del tasks[i]
+                        del keys[i]
+                        break
+            elif kind == "ask":
+                reply({"id": req_id, "ok": True, "answer": answer(msg.get("text", ""), tasks)})
+            elif kind == "conflict":
+                t = msg["task"]
+                reply({"id": req_id, "ok": True,
+                       "answer": check_conflict(t.get("description", ""), t.get("start_time"), t.get("end_time"), tasks)})
+        except Exception as ex:
+            if req_id is not None:
+                reply({"id": req_id, "ok": False, "error": str(ex)})
+
+# ---------------- MAIN FLOW ----------------
+if special_flag == "--worker":
+    run_worker()
+    sys.exit(0)
+
+# ------------- special flag: conflict check from Java -------------
+if special_flag == "--conflict":
+    # Expected args: description, start_iso, end_iso
+    # Java used to call: python bot.py --conflict desc start_iso end_iso
+    desc = args[0] if len(args) >= 1 else ""
+    start_iso = args[1] if len(args) >= 2 else None
+    end_iso = args[2] if len(args) >= 3 else None
+    print(check_conflict(desc, start_iso, end_iso, load_db_tasks()), flush=True)
+    sys.exit(0)
+
+# ------------- normal chat mode -------------
+# Join rest into user input (for chat use)
+print(answer(" ".join(args), load_db_tasks()), flush=True)
@@ -0,0 +1,205 @@
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Learned "what comes next" table: a first-order Markov model over the user's own task history.
+ *
+ * Tasks on the same day, in start order, form a chain; every link A → B is counted under A's
+ * normalized description and the time-of-day bucket A starts in (plus an all-day row).
+ * The history is kept as a sorted timeline so add/remove only touch the new task's neighbours:
+ * inserting T between P and S replaces P → S with P → T and T → S, deleting reverses it.
+ * Each row keeps its top {@link #TOP_K} successors sorted, so {@link #next} is a lookup.
+ */
+public class ActivityModel {
+
+    public static final int TOP_K = 5;
+
+    private static final int BUCKETS = 4;        // night, morning, afternoon, evening
+    private static final int ANY = BUCKETS;      // all-day row
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /** One distinct (start minute, activity) point of the timeline. */
+    private static final class Slot implements Comparable<Slot> {
+        final long minute;
+        final String key;
+
+        Slot(long minute, String key) {
+            this.minute = minute;
+            this.key = key;
+        }
+
+        long day() {
+            return Math.floorDiv(minute, MINUTES_PER_DAY);
+        }
+
+        @Override
+        public int compareTo(Slot o) {
+            int c = Long.compare(minute, o.minute);
+            return c != 0 ? c : key.compareTo(o.key);
+        }
+    }
+
+    /** Successor counts for one (activity, bucket) plus its current top K. */
+    private static final class Row {
+        final Map<String, int[]> counts = new HashMap<>();
+        String[] top = new String[0];
+
+        final Comparator<String> byCount = (a, b) -> {
+            int c = Integer.compare(count(b), count(a));
+            return c != 0 ? c : a.compareTo(b);
+        };
+
+        int count(String to) {
+            int[] c = counts.get(to);
+            return c == null ? 0 : c[0];
+        }
+
+        void bump(String to, int delta) {
+            int[] c = counts.computeIfAbsent(to, k -> new int[1]);
+            c[0] += delta;
+            if (c[0] <= 0) counts.remove(to);
+
+            if (delta > 0) {
+                promote(to);
+            } else if (Arrays.asList(top).contains(to)) {
+                // a top entry went down: some other successor may overtake it
+                List<String> all = new ArrayList<>(counts.keySet());
+                all.sort(byCount);
+                top = all.subList(0, Math.min(TOP_K, all.size())).toArray(new String[0]);
+            }
+        }
+
+        // only the bumped successor changed rank, so the new top K is within old top + it
+        private void promote(String to) {
+            List<String> candidates = new ArrayList<>(top.length + 1);
+            Collections.addAll(candidates, top);
+            if (!candidates.contains(to)) candidates.add(to);
+            candidates.sort(byCount);
+            if (candidates.size() > TOP_K) candidates = candidates.subList(0, TOP_K);
+            top = candidates.toArray(new String[0]);
+        }
+    }
+
+    private final TreeMap<Slot, int[]> timeline = new TreeMap<>();  // value = tasks at that point
+    private final Map<String, Row[]> rows = new HashMap<>();
+    private final Map<String, String> display = new HashMap<>();    // key → last seen spelling
+    private int tasks;
+    private long links;
+
+    /** Time-of-day bucket: 0 night (0–6), 1 morning (6–12), 2 afternoon (12–18), 3 evening. */
+    public static int bucket(LocalTime t) {
+        return t.getHour() / 6;
+    }
+
+    public synchronized void add(Task t) {
+        if (!t.hasTime()) return;
+        Slot s = slot(t);
+        display.put(s.key, t.getDescription());
+        tasks++;
+        int[] n = timeline.get(s);
+        if (n != null) {
+            n[0]++; // same activity at the same minute: the chain does not change
+            return;
+        }
+        timeline.put(s, new int[]{1});
+        Slot prev = sameDay(s, timeline.lowerKey(s));
+        Slot next = sameDay(s, timeline.higherKey(s));
+        if (prev != null && next != null) link(prev, next, -1);
+        if (prev != null) link(prev, s, +1);
+        if (next != null) link(s, next, +1);
+    }
+
+    public synchronized void remove(Task t) {
+        if (!t.hasTime()) return;
+        Slot s = slot(t);
+        int[] n = timeline.get(s);
+        if (n == null) return;
+        tasks--;
+        if (--n[0] > 0) return;
+        timeline.remove(s);
+        Slot prev = sameDay(s, timeline.lowerKey(s));
+        Slot next = sameDay(s, timeline.higherKey(s));
+        if (prev != null) link(prev, s, -1);
+        if (next != null) link(s, next, -1);
+        if (prev != null && next != null) link(prev, next, +1);
+    }
+
+    /**
+     * Up to {@code k} (≤ TOP_K) activities that usually follow {@code description}, most frequent
+     * first. With a time, the bucket's row is used first and topped up from the all-day row.
+     */
+    public synchronized List<String> next(String description, LocalTime at, int k) {
+        Row[] r = rows.get(DescriptionIndex.normalize(description));
+        List<String> out = new ArrayList<>(Math.min(k, TOP_K));
+        if (r == null) return out;
+        if (at != null) addTop(out, r[bucket(at)], k);
+        addTop(out, r[ANY], k);
+        return out;
+    }
+
+    private void addTop(List<String> out, Row row, int k) {
+        if (row == null) return;
+        for (String key : row.top) {
+            if (out.size() >= k) return;
+            String name = display.getOrDefault(key, key);
+            if (!out.contains(name)) out.add(name);
+        }
+    }
+
+    /** Adds link counts kept from archived days (see {@link ArchiveSummary}). */
+    public synchronized void seed(ArchiveSummary archived) {
+        for (ArchiveSummary.Link l : archived.links()) {
+            if (l.count <= 0 || l.from.equals(l.to) || l.bucket < 0 || l.bucket >= BUCKETS) continue;
+            links += l.count;
+            Row[] r = rows.computeIfAbsent(l.from, k -> new Row[BUCKETS + 1]);
+            bump(r, l.bucket, l.to, l.count);
+            bump(r, ANY, l.to, l.count);
+        }
+    }
+
+    public interface LinkVisitor {
+        void link(String from, int bucket, String to, int count);
+    }
+
+    /** Every per-bucket link count (the all-day row is their sum, so it is not visited). */
+    public synchronized void forEachLink(LinkVisitor v) {
+        for (Map.Entry<String, Row[]> e : rows.entrySet()) {
+            for (int b = 0; b < BUCKETS; b++) {
+                Row row = e.getValue()[b];
+                if (row == null) continue;
+                for (Map.Entry<String, int[]> c : row.counts.entrySet()) v.link(e.getKey(), b, c.getKey(), c.getValue()[0]);
+            }
+        }
+    }
+
+    public synchronized String stats() {
+        return String.format("activityModel[tasks=%d activities=%d links=%d]", tasks, rows.size(), links);
+    }
+
+    // ---------------- internals ----------------
+
+    private static Slot slot(Task t) {
+        long minute = Math.floorDiv(t.getStartTime().toEpochSecond(ZoneOffset.UTC), 60);
+        return new Slot(minute, DescriptionIndex.normalize(t.getDescription()));
+    }
+
+    private static Slot sameDay(Slot s, Slot other) {
+        return other != null && other.day() == s.day() ? other : null;
+    }
+
+    // repeating the same activity is not a suggestion, so self links are not counted
+    private void link(Slot from, Slot to, int delta) {
+        if (from.key.equals(to.key)) return;
+        links += delta;
+        Row[] r = rows.computeIfAbsent(from.key, k -> new Row[BUCKETS + 1]);
+        bump(r, Math.floorMod(from.minute, MINUTES_PER_DAY) / 360, to.key, delta);
+        bump(r, ANY, to.key, delta);
+        if (r[ANY].counts.isEmpty()) rows.remove(from.key);
+    }
+
+    private static void bump(Row[] r, int i, String to, int delta) {
+        if (r[i] == null) r[i] = new Row();
+        r[i].bump(to, delta);
+    }
+}
@@ -0,0 +1,189 @@
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Read-through cache of per-day agendas (what the date picker shows).
+ *
+ * A day's agenda is every timed task overlapping it, so a task running past midnight shows on
+ * both days. Days are kept in LRU order up to a fixed count; after each lookup the day before
+ * and after are loaded in the background, since the picker is usually stepped back and forth.
+ *
+ * Call {@link #invalidate(Task)} once a save or delete has reached the store: it drops exactly
+ * the days the task touches. A load that was running while that happened is returned to its
+ * caller but not cached, so it cannot bring the old version back.
+ */
+public class AgendaCache implements AutoCloseable {
+
+    // tasks that started the day before can still run into the day asked for; none is longer
+    // (TaskImporter splits longer ones by day)
+    private static final Duration MAX_SPAN = Duration.ofDays(1);
+
+    private static volatile AgendaCache defaultCache;
+
+    private final TaskStore store;
+    private final int capacity;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "agenda-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // guarded by this
+    private final LinkedHashMap<LocalDate, List<Task>> days;
+    private final Map<LocalDate, CompletableFuture<List<Task>>> loading = new HashMap<>();
+    private long epoch;   // bumped by every invalidation
+    private long hits, misses, prefetched, evicted, invalidated;
+
+    public AgendaCache(TaskStore store, int capacity) {
+        this.store = store;
+        this.capacity = Math.max(3, capacity);
+        this.days = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LocalDate, List<Task>> eldest) {
+                if (size() <= AgendaCache.this.capacity) return false;
+                evicted++;
+                return true;
+            }
+        };
+    }
+
+    /** Cache over the default store, sized by smartreminder.agenda.days. */
+    public static AgendaCache getDefault() {
+        AgendaCache c = defaultCache;
+        if (c == null) {
+            synchronized (AgendaCache.class) {
+                c = defaultCache;
+                if (c == null) {
+                    c = new AgendaCache(TaskStore.getDefault(), Integer.getInteger("smartreminder.agenda.days", 62));
+                    defaultCache = c;
+                }
+            }
+        }
+        return c;
+    }
+
+    /** The day's agenda (unmodifiable, by start time); completes at once on a hit. */
+    public CompletableFuture<List<Task>> getAsync(LocalDate day) {
+        synchronized (this) {
+            CompletableFuture<List<Task>> result;
+            List<Task> cached = days.get(day);
+            if (cached != null) {
+                hits++;
+                result = CompletableFuture.completedFuture(cached);
+            } else {
+                misses++;
+                result = load(day);
+            }
+            prefetch(day.minusDays(1));
+            prefetch(day.plusDays(1));
+            return result;
+        }
+    }
+
+    /** Blocking form of {@link #getAsync}. */
+    public List<Task> get(LocalDate day) throws SQLException {
+        try {
+            return getAsync(day).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException) throw (SQLException) e.getCause();
+            throw e;
+        }
+    }
+
+    /** Drops the cached days {@code task} touches; returns how many were cached. */
+    public synchronized int invalidate(Task task) {
+        if (task.getStartTime() == null) return 0;
+        epoch++;
+        int dropped = 0;
+        for (Iterator<LocalDate> it = days.keySet().iterator(); it.hasNext(); ) {
+            if (touches(task, it.next())) {
+                it.remove();
+                dropped++;
+            }
+        }
+        loading.keySet().removeIf(d -> touches(task, d));   // the next lookup starts a fresh load
+        invalidated += dropped;
+        return dropped;
+    }
+
+    public synchronized void invalidateAll() {
+        epoch++;
+        invalidated += days.size();
+        days.clear();
+        loading.clear();
+    }
+
+    /** True when the task is on the day's agenda: it starts that day or runs into it. */
+    public static boolean touches(Task t, LocalDate day) {
+        LocalDateTime start = t.getStartTime();
+        if (start == null) return false;
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = from.plusDays(1);
+        if (!start.isBefore(from)) return start.isBefore(to);
+        return t.getEndTime() != null && t.getEndTime().isAfter(from);
+    }
+
+    public synchronized String stats() {
+        long lookups = hits + misses;
+        return String.format("agendaCache[days=%d/%d hits=%d misses=%d hitRate=%.0f%% prefetched=%d evicted=%d invalidated=%d]",
+                days.size(), capacity, hits, misses, lookups == 0 ? 0.0 : 100.0 * hits / lookups,
+                prefetched, evicted, invalidated);
+    }
+
+    @Override
+    public void close() {
+        loader.shutdownNow();
+    }
+
+    // ---------------- internals ----------------
+
+    // called with the lock held
+    private void prefetch(LocalDate day) {
+        if (days.containsKey(day) || loading.containsKey(day)) return;  // containsKey keeps LRU order
+        prefetched++;
+        load(day);
+    }
+
+    // called with the lock held; concurrent lookups of one day share the load
+    private CompletableFuture<List<Task>> load(LocalDate day) {
+        CompletableFuture<List<Task>> running = loading.get(day);
+        if (running != null) return running;
+        long seen = epoch;
+        CompletableFuture<List<Task>> f = CompletableFuture.supplyAsync(() -> fetch(day), loader);
+        loading.put(day, f);
+        f.whenComplete((list, ex) -> {
+            synchronized (this) {
+                loading.remove(day, f);
+                if (ex == null && epoch == seen) days.put(day, list);
+            }
+            if (ex != null) ex.printStackTrace();
+        });
+        return f;
+    }
+
+    private List<Task> fetch(LocalDate day) {
+        LocalDateTime from = day.atStartOfDay();
+        try {
+            List<Task> out = new ArrayList<>();
+            for (Task t : store.getTasksInWindow(from.minus(MAX_SPAN), from.plusDays(1))) {
+                if (touches(t, day)) out.add(t);
+            }
+            return Collections.unmodifiableList(out);
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What is kept of archived tasks: per-day counts by activity, and the "A is followed by B"
+ * links the {@link ActivityModel} learns from, so suggestions keep their history after the
+ * raw rows have moved to the archive.
+ *
+ * Built from whole days of tasks ({@link #of}); summaries of different days just add up.
+ */
+public class ArchiveSummary {
+
+    /** Tasks and planned minutes of one activity on one day. */
+    public static final class DayCount {
+        public final LocalDate day;
+        public final String activity;
+        public int tasks;
+        public long minutes;
+
+        DayCount(LocalDate day, String activity) {
+            this.day = day;
+            this.activity = activity;
+        }
+    }
+
+    /** How often {@code to} followed {@code from} in a time-of-day bucket (see ActivityModel.bucket). */
+    public static final class Link {
+        public final String from;
+        public final int bucket;
+        public final String to;
+        public int count;
+
+        Link(String from, int bucket, String to) {
+            this.from = from;
+            this.bucket = bucket;
+            this.to = to;
+        }
+    }
+
+    private final Map<String, DayCount> days = new LinkedHashMap<>();
+    private final Map<String, Link> links = new LinkedHashMap<>();
+
+    /** Summary of complete days of timed tasks (activities normalized like DescriptionIndex). */
+    public static ArchiveSummary of(List<Task> tasks) {
+        ArchiveSummary s = new ArchiveSummary();
+        ActivityModel model = new ActivityModel();
+        for (Task t : tasks) {
+            if (t.getStartTime() == null) continue;
+            long minutes = t.getEndTime() != null ? Duration.between(t.getStartTime(), t.getEndTime()).toMinutes() : 0;
+            s.addDay(t.getStartTime().toLocalDate(), DescriptionIndex.normalize(t.getDescription()), 1, minutes);
+            model.add(t);
+        }
+        model.forEachLink(s::addLink);
+        return s;
+    }
+
+    public void addDay(LocalDate day, String activity, int tasks, long minutes) {
+        DayCount d = days.computeIfAbsent(day + "\u0000" + activity, k -> new DayCount(day, activity));
+        d.tasks += tasks;
+        d.minutes += minutes;
+    }
+
+    public void addLink(String from, int bucket, String to, int count) {
+        links.computeIfAbsent(from + "\u0000" + bucket + "\u0000" + to, k -> new Link(from, bucket, to)).count += count;
+    }
+
+    public void add(ArchiveSummary other) {
+        for (DayCount d : other.days.values()) addDay(d.day, d.activity, d.tasks, d.minutes);
+        for (Link l : other.links.values()) addLink(l.from, l.bucket, l.to, l.count);
+    }
+
+    public Collection<DayCount> days() {
+        return days.values();
+    }
+
+    public Collection<Link> links() {
+        return links.values();
+    }
+
+    public boolean isEmpty() {
+        return days.isEmpty() && links.isEmpty();
+    }
+
+    // ---------------- binary form (embedded store) ----------------
+
+    /** [days][day epoch, activity, tasks, minutes]... [links][from, bucket, to, count]... */
+    public byte[] toBytes() {
+        List<byte[]> strings = new ArrayList<>();
+        int size = 8;
+        for (DayCount d : days.values()) size += 8 + 4 + 8 + add(strings, d.activity);
+        for (Link l : links.values()) size += 1 + 4 + add(strings, l.from) + add(strings, l.to);
+        ByteBuffer b = ByteBuffer.allocate(size);
+        int i = 0;
+        b.putInt(days.size());
+        for (DayCount d : days.values()) {
+            b.putLong(d.day.toEpochDay());
+            byte[] a = strings.get(i++);
+            b.putInt(a.length).put(a).putInt(d.tasks).putLong(d.minutes);
+        }
+        b.putInt(links.size());
+        for (Link l : links.values()) {
+            byte[] from = strings.get(i++);
+            byte[] to = strings.get(i++);
+            b.putInt(from.length).put(from).put((byte) l.bucket).putInt(to.length).put(to).putInt(l.count);
+        }
+        return b.array();
+    }
+
+    public static ArchiveSummary read(ByteBuffer b) {
+        ArchiveSummary s = new ArchiveSummary();
+        int dayCount = b.getInt();
+        for (int i = 0; i < dayCount; i++) {
+            LocalDate day = LocalDate.ofEpochDay(b.getLong());
+            String activity = string(b);
+            s.addDay(day, activity, b.getInt(), b.getLong());
+        }
+        int linkCount = b.getInt();
+        for (int i = 0; i < linkCount; i++) {
+            String from = string(b);
+            int bucket = b.get();
+            String to = string(b);
+            s.addLink(from, bucket, to, b.getInt());
+        }
+        return s;
+    }
+
+    private static int add(List<byte[]> strings, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        strings.add(bytes);
+        return 4 + bytes.length;
+    }
+
+    private static String string(ByteBuffer b) {
+        byte[] bytes = new byte[b.getInt()];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,375 @@
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Proposes times for timeless tasks by packing them into the free gaps between the timed ones,
+ * from now over the next days (smartreminder.autoschedule.days, default 7).
+ *
+ * A day runs from smartreminder.autoschedule.dayStart to the next day's start (07:00); tasks go
+ * between dayStart and dayEnd (22:00), except sleep, which is put as late as it fits and may
+ * run into the night. For each day the timed tasks from the shared {@link ScheduleIndex} are
+ * swept in start order into a list of free gaps, then the timeless tasks are placed first-fit:
+ *  - length: {@link TaskParser#defaultMinutes} ("for 2 hours", else 30 minutes, 7 hours for sleep)
+ *  - order: important first, then routine steps in {@link SuggestionEngine#routineRank} order,
+ *    then the rest in the order they were added
+ *  - routine steps keep their order within a day (no breakfast after lunch) unless that leaves
+ *    no room anywhere in the horizon
+ * What fits nowhere stays unplanned. The plan is a proposal only; nothing is stored.
+ *
+ * Changes are cheap: they only mark the first day they affect, and the next read re-plans from
+ * that day on (tasks planned on earlier days keep their slots, the result is the same as a full
+ * re-plan). A timeless task that sorts last is just placed into what is left.
+ */
+public class AutoScheduler {
+
+    /** A timeless task and the time proposed for it. */
+    public static final class Slot {
+        public final Task task;
+        public final LocalDateTime start;
+        public final LocalDateTime end;
+
+        Slot(Task task, LocalDateTime start, LocalDateTime end) {
+            this.task = task;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public String toString() {
+            return task.getDescription() + " " + start + "–" + end.toLocalTime();
+        }
+    }
+
+    private static final class Item {
+        final Task task;
+        final long minutes;
+        final boolean important;
+        final int rank;           // routine step, -1 if none
+        final boolean latest;     // sleep: as late as possible, into the night
+        final long seq;
+        int day = -1;             // day of the current plan, -1 if unplaced
+        long start, end;          // epoch minutes
+        boolean planned;          // went through a plan already
+
+        Item(Task task, long seq) {
+            this.task = task;
+            this.minutes = TaskParser.defaultMinutes(task.getDescription());
+            this.important = task.isImportant();
+            this.rank = SuggestionEngine.routineRank(task.getDescription());
+            this.latest = rank == SuggestionEngine.routineSteps() - 1;
+            this.seq = seq;
+        }
+    }
+
+    // free gaps of one day of the plan, sorted, and the routine steps placed on it
+    private static final class Day {
+        long open;                        // first free minute
+        final long limit, close;          // dayEnd, next dayStart
+        long[] gapStart = new long[8];
+        long[] gapEnd = new long[8];
+        int gaps;
+        final List<Item> routine = new ArrayList<>();
+        // gaps only shrink and routine bounds only tighten while planning: once a length found
+        // no room, longer ones won't either (per routine step with hints, [steps] / [steps+1] without)
+        final long[] noRoom = new long[SuggestionEngine.routineSteps() + 2];
+
+        Day(long open, long limit, long close) {
+            this.open = open;
+            this.limit = limit;
+            this.close = close;
+            Arrays.fill(noRoom, Long.MAX_VALUE);
+        }
+
+        void add(long start, long end) {
+            insert(gaps, start, end);
+        }
+
+        // day 0 as time goes by: the minutes before the new open are gone
+        void openAt(long minute) {
+            open = minute;
+            int g = 0;
+            while (g < gaps && gapEnd[g] <= minute) g++;
+            System.arraycopy(gapStart, g, gapStart, 0, gaps - g);
+            System.arraycopy(gapEnd, g, gapEnd, 0, gaps - g);
+            gaps -= g;
+            if (gaps > 0 && gapStart[0] < minute) gapStart[0] = minute;
+        }
+
+        void insert(int at, long start, long end) {
+            if (gaps == gapStart.length) {
+                gapStart = Arrays.copyOf(gapStart, gaps * 2);
+                gapEnd = Arrays.copyOf(gapEnd, gaps * 2);
+            }
+            System.arraycopy(gapStart, at, gapStart, at + 1, gaps - at);
+            System.arraycopy(gapEnd, at, gapEnd, at + 1, gaps - at);
+            gapStart[at] = start;
+            gapEnd[at] = end;
+            gaps++;
+        }
+
+        // takes [start, end) out of gap g
+        void take(int g, long start, long end) {
+            long gs = gapStart[g], ge = gapEnd[g];
+            if (gs < start && end < ge) {
+                gapEnd[g] = start;
+                insert(g + 1, end, ge);
+            } else if (gs < start) {
+                gapEnd[g] = start;
+            } else if (end < ge) {
+                gapStart[g] = end;
+            } else {
+                System.arraycopy(gapStart, g + 1, gapStart, g, gaps - g - 1);
+                System.arraycopy(gapEnd, g + 1, gapEnd, g, gaps - g - 1);
+                gaps--;
+            }
+        }
+    }
+
+    private static final Comparator<Item> ORDER = Comparator
+            .comparing((Item i) -> !i.important)
+            .thenComparingInt(i -> i.rank < 0 ? Integer.MAX_VALUE : i.rank)
+            .thenComparingLong(i -> i.seq);
+
+    private final ScheduleIndex index;
+    private final int horizon;
+    private final LocalTime dayStart;
+    private final LocalTime dayEnd;
+
+    private final TreeSet<Item> items = new TreeSet<>(ORDER);
+    private final Map<Task, Item> byTask = new IdentityHashMap<>();
+    private long nextSeq;
+
+    private Day[] days;
+    private LocalDateTime anchor;   // "now" of the plan; day 0 is its date
+    private int dirtyFrom;          // first day to re-plan, horizon if none
+    private boolean pending;        // timeless tasks added at the end, not placed yet
+
+    private long version;           // bumped when a planned task's slot moves
+    private long replans, replannedDays, lastReplanMicros;
+
+    public AutoScheduler(ScheduleIndex index) {
+        this(index, Integer.getInteger("smartreminder.autoschedule.days", 7),
+                LocalTime.parse(System.getProperty("smartreminder.autoschedule.dayStart", "07:00")),
+                LocalTime.parse(System.getProperty("smartreminder.autoschedule.dayEnd", "22:00")));
+    }
+
+    public AutoScheduler(ScheduleIndex index, int horizonDays, LocalTime dayStart, LocalTime dayEnd) {
+        if (horizonDays < 1 || !dayEnd.isAfter(dayStart)) throw new IllegalArgumentException("bad day window");
+        this.index = index;
+        this.horizon = horizonDays;
+        this.dayStart = dayStart;
+        this.dayEnd = dayEnd;
+    }
+
+    /** Call after a task joined the list (and, if timed, the index). */
+    public synchronized void taskAdded(Task task) {
+        if (task.hasTime()) {
+            timedChanged(task);
+            return;
+        }
+        if (byTask.containsKey(task)) return;
+        Item item = new Item(task, nextSeq++);
+        byTask.put(task, item);
+        items.add(item);
+        if (anchor == null) return;
+        if (items.last() == item) pending = true;   // takes what is left, nobody moves
+        else dirtyFrom = 0;
+    }
+
+    /** Call after a task left the list (and the index). */
+    public synchronized void taskRemoved(Task task) {
+        if (task.hasTime()) {
+            timedChanged(task);
+            return;
+        }
+        Item item = byTask.remove(task);
+        if (item == null) return;
+        items.remove(item);
+        if (item.day >= 0) dirtyFrom = Math.min(dirtyFrom, item.day);
+    }
+
+    public synchronized void clear() {
+        items.clear();
+        byTask.clear();
+        anchor = null;
+    }
+
+    /** Proposed slot for a timeless task, or null if it doesn't fit (or isn't known). */
+    public synchronized Slot slotFor(Task task, LocalDateTime now) {
+        ensurePlanned(now);
+        Item item = byTask.get(task);
+        return item == null || item.day < 0 ? null : slot(item);
+    }
+
+    /** Every proposed slot, in time order. */
+    public synchronized List<Slot> plan(LocalDateTime now) {
+        ensurePlanned(now);
+        List<Slot> out = new ArrayList<>();
+        for (Item i : items) if (i.day >= 0) out.add(slot(i));
+        out.sort(Comparator.comparing((Slot s) -> s.start));
+        return out;
+    }
+
+    /** Timeless tasks without room in the horizon. */
+    public synchronized List<Task> unplanned(LocalDateTime now) {
+        ensurePlanned(now);
+        List<Task> out = new ArrayList<>();
+        for (Item i : items) if (i.day < 0) out.add(i.task);
+        return out;
+    }
+
+    /**
+     * Changes whenever a re-plan moves a task that was planned before, or gives it a slot or
+     * takes its slot away; placing a newly added task doesn't count.
+     */
+    public synchronized long planVersion(LocalDateTime now) {
+        ensurePlanned(now);
+        return version;
+    }
+
+    public synchronized String stats() {
+        return String.format("autoScheduler[timeless=%d replans=%d days=%d last=%dµs]",
+                items.size(), replans, replannedDays, lastReplanMicros);
+    }
+
+    // ---------------- planning ----------------
+
+    private void timedChanged(Task task) {
+        if (anchor == null || task.getStartTime() == null || task.getEndTime() == null) return;
+        int first = dayOf(task.getStartTime());
+        if (dayOf(task.getEndTime()) < 0 || first >= horizon) return;
+        dirtyFrom = Math.min(dirtyFrom, Math.max(0, first));
+    }
+
+    // day of the plan a time falls in; the night belongs to the day before
+    private int dayOf(LocalDateTime t) {
+        long d = ChronoUnit.DAYS.between(anchor.toLocalDate(), t.minusSeconds(dayStart.toSecondOfDay()).toLocalDate());
+        return (int) Math.max(-1, Math.min(horizon, d));
+    }
+
+    private void ensurePlanned(LocalDateTime now) {
+        if (anchor == null || !now.toLocalDate().equals(anchor.toLocalDate())) {
+            anchor = now;
+            days = new Day[horizon];
+            dirtyFrom = 0;
+        } else if (minute(now) > minute(anchor)) {
+            // day 0 starts at now: re-plan it if something planned there has already begun,
+            // else the same plan just loses the minutes that have passed
+            anchor = now;
+            long open = minute(now.plusSeconds(59));
+            boolean begun = false;
+            for (Item i : items) begun |= i.day == 0 && i.start < open;
+            if (begun) dirtyFrom = 0;
+            else days[0].openAt(Math.max(days[0].open, open));
+        }
+        if (dirtyFrom < horizon || pending) replan(dirtyFrom);
+    }
+
+    // rebuilds the gaps of days >= from, then (re)places every task not fixed on an earlier day
+    private void replan(int from) {
+        long t0 = System.nanoTime();
+        for (int d = from; d < horizon; d++) days[d] = freeGaps(d);
+        for (Item i : items) {
+            if (i.day >= 0 && i.day < from) continue;
+            boolean was = i.day >= 0;
+            long oldStart = i.start;
+            i.day = -1;
+            place(i);
+            if (i.planned && (was != i.day >= 0 || was && i.start != oldStart)) version++;
+            i.planned = true;
+        }
+        replans++;
+        replannedDays += horizon - from;
+        lastReplanMicros = (System.nanoTime() - t0) / 1000;
+        dirtyFrom = horizon;
+        pending = false;
+    }
+
+    // sweep over the day's timed tasks (sorted by start): whatever lies between them is free
+    private Day freeGaps(int d) {
+        LocalDateTime from = anchor.toLocalDate().plusDays(d).atTime(dayStart);
+        LocalDateTime to = from.plusDays(1);
+        long open = minute(from);
+        if (d == 0) open = Math.max(open, minute(anchor.plusSeconds(59)));
+        Day day = new Day(open, minute(from.toLocalDate().atTime(dayEnd)), minute(to));
+        long cur = open;
+        for (Task t : index.overlapping(minuteToTime(open), to)) {
+            long s = minute(t.getStartTime());
+            if (s > cur) day.add(cur, s);
+            cur = Math.max(cur, minute(t.getEndTime().plusSeconds(59)));
+        }
+        if (cur < day.close) day.add(cur, day.close);
+        return day;
+    }
+
+    private void place(Item item) {
+        for (int pass = 0; pass < 2; pass++) {
+            boolean hints = pass == 0;
+            if (!hints && item.rank < 0) return;   // nothing to relax
+            for (int d = 0; d < horizon; d++) {
+                if (fit(item, days[d], d, hints)) return;
+            }
+        }
+    }
+
+    private boolean fit(Item item, Day day, int d, boolean hints) {
+        long lo = day.open;
+        long hi = item.latest ? day.close : day.limit;
+        if (hints && item.rank >= 0) {
+            for (Item r : day.routine) {
+                if (r.rank < item.rank) lo = Math.max(lo, r.end);
+                else if (r.rank > item.rank) hi = Math.min(hi, r.start);
+            }
+        }
+        if (hi - lo < item.minutes) return false;
+        int memo = hints && item.rank >= 0 ? item.rank : day.noRoom.length - (item.latest ? 1 : 2);
+        if (item.minutes >= day.noRoom[memo]) return false;
+        if (item.latest) {
+            for (int g = day.gaps - 1; g >= 0 && day.gapEnd[g] > lo; g--) {
+                long end = Math.min(day.gapEnd[g], hi);
+                if (end - item.minutes >= Math.max(day.gapStart[g], lo)) {
+                    return placeAt(item, day, d, g, end - item.minutes);
+                }
+            }
+        } else {
+            for (int g = 0; g < day.gaps && day.gapStart[g] < hi; g++) {
+                long start = Math.max(day.gapStart[g], lo);
+                if (start + item.minutes <= Math.min(day.gapEnd[g], hi)) {
+                    return placeAt(item, day, d, g, start);
+                }
+            }
+        }
+        day.noRoom[memo] = Math.min(day.noRoom[memo], item.minutes);
+        return false;
+    }
+
+    private static boolean placeAt(Item item, Day day, int d, int g, long start) {
+        day.take(g, start, start + item.minutes);
+        item.day = d;
+        item.start = start;
+        item.end = start + item.minutes;
+        if (item.rank >= 0) day.routine.add(item);
+        return true;
+    }
+
+    private static Slot slot(Item i) {
+        return new Slot(i.task, minuteToTime(i.start), minuteToTime(i.end));
+    }
+
+    private static long minute(LocalDateTime t) {
+        return Math.floorDiv(t.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime minuteToTime(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,17 @@
+
+import java.util.concurrent.ExecutionException;
+
+public class BotIntegration {
+
+    /** Asks the bot through the shared worker pool (no Python start-up per call). */
+    public static String runBot(String input) {
+        try {
+            return BotWorkerPool.getDefault().ask(input).get().trim();
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "";
+    }
+}
@@ -0,0 +1,315 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pool of long-lived {@code bot.py --worker} processes.
+ *
+ * Instead of starting a Python interpreter per question, each worker stays up and speaks
+ * newline-delimited JSON over stdin/stdout:
+ *   → {"id":1,"type":"ask","text":"am i free at 4 pm"}      ← {"id":1,"ok":true,"answer":"..."}
+ *   → {"type":"reset","tasks":[...]} / {"type":"add","task":{...}} / {"type":"remove","task":{...}}
+ *
+ * Java owns the task snapshot and pushes changes to every worker, so the bot never re-reads the
+ * tasks table. Requests time out; a worker that dies or times out is replaced and gets a full
+ * snapshot replayed on start.
+ *
+ * Starting workers and every write to their pipes happen on the pool's own thread, in call order,
+ * so callers (the FX thread) never wait on a process start or a full pipe.
+ */
+public class BotWorkerPool implements AutoCloseable {
+
+    private static final String PYTHON_EXE = System.getProperty("smartreminder.bot.python",
+            "C:\\Users\\DEVAM\\IdeaProjects\\AI Task Manager\\.venv\\Scripts\\python.exe");
+    private static final String BOT_SCRIPT = System.getProperty("smartreminder.bot.script",
+            "C:\\Users\\DEVAM\\IdeaProjects\\AI Task Manager\\src\\bot.py");
+    private static final String WORK_DIR = System.getProperty("smartreminder.bot.dir",
+            "C:\\Users\\DEVAM\\IdeaProjects\\AI Task Manager");
+
+    private static volatile BotWorkerPool defaultPool;
+    private static final Metrics.Timer ROUND_TRIP = Metrics.timer("bot_round_trip");
+
+    private final List<String> command;
+    private final File workDir;
+    private final long timeoutMs;
+    private final Worker[] workers;
+    private final List<Task> snapshot = new ArrayList<>();   // io thread only
+    private final ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "bot-io");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicLong roundRobin = new AtomicLong();
+    private volatile boolean closed;
+
+    public BotWorkerPool(List<String> command, File workDir, int size, long timeoutMs) {
+        this.command = new ArrayList<>(command);
+        this.workDir = workDir;
+        this.timeoutMs = timeoutMs;
+        this.workers = new Worker[Math.max(1, size)];
+        for (int i = 0; i < workers.length; i++) workers[i] = new Worker(i);
+    }
+
+    /** Shared pool using the configured Python interpreter and bot.py; workers start on first use. */
+    public static BotWorkerPool getDefault() {
+        BotWorkerPool p = defaultPool;
+        if (p == null) {
+            synchronized (BotWorkerPool.class) {
+                p = defaultPool;
+                if (p == null) {
+                    List<String> cmd = new ArrayList<>();
+                    cmd.add(PYTHON_EXE);
+                    cmd.add(BOT_SCRIPT);
+                    cmd.add("--worker");
+                    p = new BotWorkerPool(cmd, new File(WORK_DIR),
+                            Integer.getInteger("smartreminder.bot.workers", 1),
+                            Long.getLong("smartreminder.bot.timeoutMs", 10_000L));
+                    defaultPool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    /** Sends a chat question to the least busy worker. */
+    public CompletableFuture<String> ask(String question) {
+        if (closed) {
+            CompletableFuture<String> f = new CompletableFuture<>();
+            f.completeExceptionally(new IllegalStateException("Bot pool is closed"));
+            return f;
+        }
+        Worker w = pick();
+        long id = nextId.incrementAndGet();
+        Metrics.Sample sample = ROUND_TRIP.start();
+        CompletableFuture<String> answer =
+                w.request(id, "{\"id\":" + id + ",\"type\":\"ask\",\"text\":" + Json.quote(question) + "}");
+        answer.whenComplete((a, ex) -> {
+            if (ex != null) sample.fail();
+            else sample.stop();
+        });
+        return answer;
+    }
+
+    // ---------------- snapshot ----------------
+
+    public void reset(Collection<Task> tasks) {
+        List<Task> copy = new ArrayList<>(tasks);
+        onIo(() -> {
+            snapshot.clear();
+            snapshot.addAll(copy);
+            broadcast(resetMessage());
+        });
+    }
+
+    public void taskAdded(Task t) {
+        onIo(() -> {
+            snapshot.add(t);
+            broadcast("{\"type\":\"add\",\"task\":" + toJson(t) + "}");
+        });
+    }
+
+    public void taskRemoved(Task t) {
+        onIo(() -> {
+            if (snapshot.remove(t)) broadcast("{\"type\":\"remove\",\"task\":" + toJson(t) + "}");
+        });
+    }
+
+    private void onIo(Runnable r) {
+        try {
+            io.execute(r);
+        } catch (RejectedExecutionException closedAlready) {
+            // pool is closed, workers are gone
+        }
+    }
+
+    private String resetMessage() {
+        StringBuilder sb = new StringBuilder("{\"type\":\"reset\",\"tasks\":[");
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(toJson(snapshot.get(i)));
+        }
+        return sb.append("]}").toString();
+    }
+
+    private void broadcast(String line) {
+        for (Worker w : workers) w.sendIfRunning(line);
+    }
+
+    static String toJson(Task t) {
+        return "{\"description\":" + Json.quote(t.getDescription())
+                + ",\"start_time\":" + Json.quote(iso(t.getStartTime()))
+                + ",\"end_time\":" + Json.quote(iso(t.getEndTime())) + "}";
+    }
+
+    private static String iso(LocalDateTime t) {
+        return t == null ? null : t.toString();
+    }
+
+    private Worker pick() {
+        Worker best = null;
+        int start = (int) (roundRobin.getAndIncrement() % workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            Worker w = workers[(start + i) % workers.length];
+            if (best == null || w.pending.size() < best.pending.size()) best = w;
+        }
+        return best;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        onIo(() -> {
+            for (Worker w : workers) w.stop();
+        });
+        io.shutdown();
+        try {
+            io.awaitTermination(3, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---------------- one Python process ----------------
+
+    private final class Worker {
+        final int index;
+        final ConcurrentHashMap<Long, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+        final AtomicReference<Process> process = new AtomicReference<>();
+        BufferedWriter stdin;   // io thread only, like starting the process
+        int restarts;
+
+        Worker(int index) {
+            this.index = index;
+        }
+
+        CompletableFuture<String> request(long id, String line) {
+            CompletableFuture<String> f = new CompletableFuture<>();
+            pending.put(id, f);
+            try {
+                io.execute(() -> {
+                    if (f.isDone()) return;   // timed out while queued
+                    try {
+                        ensureStarted();
+                        write(line);
+                    } catch (IOException e) {
+                        pending.remove(id);
+                        f.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                pending.remove(id);
+                f.completeExceptionally(new IllegalStateException("Bot pool is closed"));
+                return f;
+            }
+            return f.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).whenComplete((v, ex) -> {
+                pending.remove(id);
+                if (ex instanceof TimeoutException) {
+                    System.out.println("⚠ Bot worker " + index + " timed out; restarting it");
+                    kill();
+                }
+            });
+        }
+
+        // io thread
+        void sendIfRunning(String line) {
+            Process p = process.get();
+            if (p == null || !p.isAlive()) return; // gets the full snapshot when it starts
+            try {
+                write(line);
+            } catch (IOException e) {
+                kill();
+            }
+        }
+
+        // io thread
+        private void ensureStarted() throws IOException {
+            Process running = process.get();
+            if (running != null && running.isAlive()) return;
+            if (closed) throw new IOException("Bot pool is closed");
+
+            ProcessBuilder pb = new ProcessBuilder(command);
+            if (workDir.isDirectory()) pb.directory(workDir);
+            pb.environment().put("PYTHONIOENCODING", "utf-8"); // the pipes carry UTF-8 JSON
+            Process p = pb.start();
+            process.set(p);
+            stdin = new BufferedWriter(new OutputStreamWriter(p.getOutputStream(), StandardCharsets.UTF_8));
+            if (restarts++ > 0) System.out.println("🔁 Bot worker " + index + " restarted");
+
+            Thread out = new Thread(() -> readLoop(p), "bot-worker-" + index);
+            out.setDaemon(true);
+            out.start();
+            Thread err = new Thread(() -> drain(p.getErrorStream()), "bot-worker-" + index + "-err");
+            err.setDaemon(true);
+            err.start();
+
+            write(resetMessage());
+        }
+
+        // a write blocked on a full pipe fails once kill() destroys the process
+        private void write(String line) throws IOException {
+            stdin.write(line);
+            stdin.write('\n');
+            stdin.flush();
+        }
+
+        private void readLoop(Process p) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    try {
+                        Map<String, Object> msg = Json.parseObject(line);
+                        Object id = msg.get("id");
+                        CompletableFuture<String> f = id instanceof Long ? pending.remove(id) : null;
+                        if (f == null) continue;
+                        if (Boolean.TRUE.equals(msg.get("ok"))) f.complete(String.valueOf(msg.get("answer")));
+                        else f.completeExceptionally(new IOException("Bot error: " + msg.get("error")));
+                    } catch (IllegalArgumentException notJson) {
+                        System.out.println("[bot " + index + "] " + line);
+                    }
+                }
+            } catch (IOException ignored) {
+                // process went away; handled below
+            }
+            process.compareAndSet(p, null);
+            IOException died = new IOException("Bot worker exited");
+            pending.values().forEach(f -> f.completeExceptionally(died));
+            pending.clear();
+        }
+
+        private void drain(InputStream err) {
+            try (BufferedReader r = new BufferedReader(new InputStreamReader(err, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = r.readLine()) != null) System.err.println("[bot " + index + "] " + line);
+            } catch (IOException ignored) {
+            }
+        }
+
+        // any thread; not under a lock, so it can break a write stuck on a full pipe
+        void kill() {
+            Process p = process.getAndSet(null);
+            if (p != null) p.destroyForcibly();
+        }
+
+        // io thread
+        void stop() {
+            Process p = process.getAndSet(null);
+            if (p == null) return;
+            try {
+                stdin.close(); // worker exits on EOF
+                if (!p.waitFor(2, TimeUnit.SECONDS)) p.destroyForcibly();
+            } catch (IOException | InterruptedException e) {
+                p.destroyForcibly();
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small bounded JDBC connection pool.
+ *  - At most maxSize physical connections; callers wait up to acquireTimeoutMs for one
+ *  - Connections that sat idle longer than validateAfterMs are checked with isValid() before reuse
+ *  - Every pooled connection keeps its own LRU cache of PreparedStatements
+ *  - Wait time and active/idle counts are tracked for {@link #stats()}
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private final String url;
+    private final String user;
+    private final String pass;
+    private final int maxSize;
+    private final long acquireTimeoutMs;
+    private final long validateAfterMs;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger open = new AtomicInteger();
+
+    private final LongAdder acquires = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String user, String pass, int maxSize) {
+        this(url, user, pass, maxSize, 5_000, 30_000, 32);
+    }
+
+    public ConnectionPool(String url, String user, String pass, int maxSize,
+                          long acquireTimeoutMs, long validateAfterMs, int statementCacheSize) {
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be >= 1");
+        this.url = url;
+        this.user = user;
+        this.pass = pass;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.validateAfterMs = validateAfterMs;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /** Borrow a connection. Always use in try-with-resources so it goes back to the pool. */
+    public PooledConnection acquire() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+
+        long t0 = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException(
+                        "Timed out after " + acquireTimeoutMs + " ms waiting for a DB connection (" + maxSize + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a DB connection", e);
+        }
+        recordWait(System.nanoTime() - t0);
+
+        try {
+            PooledConnection pc;
+            while ((pc = idle.pollFirst()) != null) {
+                if (pc.isHealthy(validateAfterMs)) break;
+                evictions.increment();
+                pc.closePhysical();
+                open.decrementAndGet();
+            }
+            if (pc == null) {
+                Connection raw = DriverManager.getConnection(url, user, pass);
+                open.incrementAndGet();
+                pc = new PooledConnection(this, raw, statementCacheSize);
+            }
+            active.incrementAndGet();
+            return pc;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    void release(PooledConnection pc, boolean broken) {
+        active.decrementAndGet();
+        if (broken || closed) {
+            if (broken) evictions.increment();
+            pc.closePhysical();
+            open.decrementAndGet();
+        } else {
+            pc.touch();
+            idle.offerFirst(pc); // LIFO: keep the most recently used connections warm
+        }
+        permits.release();
+    }
+
+    private void recordWait(long nanos) {
+        acquires.increment();
+        waitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public Stats stats() {
+        long n = acquires.sum();
+        return new Stats(maxSize, active.get(), idle.size(), open.get(), n,
+                n == 0 ? 0 : waitNanos.sum() / n, maxWaitNanos.get(), timeouts.sum(), evictions.sum());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            pc.closePhysical();
+            open.decrementAndGet();
+        }
+    }
+
+    /** Snapshot of pool counters. */
+    public static final class Stats {
+        public final int maxSize;
+        public final int active;
+        public final int idle;
+        public final int open;
+        public final long acquires;
+        public final long avgWaitNanos;
+        public final long maxWaitNanos;
+        public final long timeouts;
+        public final long evictions;
+
+        Stats(int maxSize, int active, int idle, int open, long acquires,
+              long avgWaitNanos, long maxWaitNanos, long timeouts, long evictions) {
+            this.maxSize = maxSize;
+            this.active = active;
+            this.idle = idle;
+            this.open = open;
+            this.acquires = acquires;
+            this.avgWaitNanos = avgWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.timeouts = timeouts;
+            this.evictions = evictions;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("pool[active=%d idle=%d open=%d/%d acquires=%d avgWait=%.3fms maxWait=%.3fms timeouts=%d evictions=%d]",
+                    active, idle, open, maxSize, acquires, avgWaitNanos / 1e6, maxWaitNanos / 1e6, timeouts, evictions);
+        }
+    }
+
+    /**
+     * A borrowed connection. close() hands it back to the pool instead of closing the socket.
+     * Statements returned by {@link #prepare(String)} are owned by the cache: do not close them.
+     */
+    public static final class PooledConnection implements AutoCloseable {
+        private final ConnectionPool pool;
+        private final Connection conn;
+        private final Map<String, PreparedStatement> statements;
+        private long lastUsed = System.currentTimeMillis();
+        private boolean broken;
+
+        PooledConnection(ConnectionPool pool, Connection conn, int cacheSize) {
+            this.pool = pool;
+            this.conn = conn;
+            this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() <= cacheSize) return false;
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+            };
+        }
+
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement ps = statements.get(sql);
+            if (ps == null || ps.isClosed()) {
+                ps = conn.prepareStatement(sql);
+                statements.put(sql, ps);
+            } else {
+                ps.clearParameters();
+            }
+            return ps;
+        }
+
+        /** Raw connection, for transactions. Autocommit is restored when the connection is released. */
+        public Connection connection() {
+            return conn;
+        }
+
+        /** Drop this connection instead of returning it when the error means the link is dead. */
+        public void markBrokenIf(SQLException e) {
+            String state = e.getSQLState();
+            if (state != null && state.startsWith("08")) broken = true;
+        }
+
+        boolean isHealthy(long validateAfterMs) {
+            try {
+                if (conn.isClosed()) return false;
+                if (System.currentTimeMillis() - lastUsed < validateAfterMs) return true;
+                return conn.isValid(2);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void touch() {
+            lastUsed = System.currentTimeMillis();
+        }
+
+        void closePhysical() {
+            for (PreparedStatement ps : statements.values()) closeQuietly(ps);
+            statements.clear();
+            try {
+                conn.close();
+            } catch (SQLException ignored) {
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (!broken && !conn.getAutoCommit()) {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                broken = true;
+            }
+            pool.release(this, broken);
+        }
+
+        private static void closeQuietly(PreparedStatement ps) {
+            try {
+                ps.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DBHelper {
+
+    public static void saveTask(Task task) {
+        try {
+            TaskStore.getDefault().saveTask(task);
+            AgendaCache.getDefault().invalidate(task);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Tasks starting on the date, served from the agenda cache. */
+    public static List<Task> getTasksByDate(LocalDate date) {
+        try {
+            List<Task> out = new ArrayList<>();
+            for (Task t : AgendaCache.getDefault().get(date)) {
+                if (t.getStartTime().toLocalDate().equals(date)) out.add(t);
+            }
+            return out;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /** Tasks starting in [from, to). */
+    public static List<Task> getTasksInWindow(LocalDateTime from, LocalDateTime to) {
+        try {
+            return TaskStore.getDefault().getTasksInWindow(from, to);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    public static void deleteTask(Task task) {
+        try {
+            TaskStore.getDefault().deleteTask(task);
+            AgendaCache.getDefault().invalidate(task);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
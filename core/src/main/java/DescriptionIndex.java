@@ -0,0 +1,106 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Normalized (trimmed, lower-case) task descriptions, kept in sync with the task list.
+ *
+ * A counted hash set answers "is this activity already planned" in O(1); a prefix trie over the
+ * same strings answers "which planned tasks start with what is being typed". Duplicates are
+ * counted, so removing one of two identical tasks keeps the description.
+ * Thread-safe: written from the FX thread, read by the suggestion worker.
+ */
+public class DescriptionIndex {
+
+    private static final class Node {
+        final TreeMap<Character, Node> children = new TreeMap<>();
+        String word;   // set while count > 0
+        int count;
+    }
+
+    private final Map<String, Integer> counts = new HashMap<>();
+    private final Node root = new Node();
+
+    public static String normalize(String description) {
+        return description == null ? "" : description.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Index over already lower-cased descriptions (the old List<String> suggestion API). */
+    public static DescriptionIndex of(Collection<String> descriptions) {
+        DescriptionIndex index = new DescriptionIndex();
+        for (String d : descriptions) {
+            if (d != null) index.add(d);
+        }
+        return index;
+    }
+
+    public synchronized void add(String description) {
+        String key = normalize(description);
+        counts.merge(key, 1, Integer::sum);
+        Node n = root;
+        for (int i = 0; i < key.length(); i++) {
+            n = n.children.computeIfAbsent(key.charAt(i), c -> new Node());
+        }
+        n.word = key;
+        n.count++;
+    }
+
+    public synchronized void remove(String description) {
+        String key = normalize(description);
+        Integer c = counts.get(key);
+        if (c == null) return;
+        if (c == 1) counts.remove(key);
+        else counts.put(key, c - 1);
+        remove(root, key, 0);
+    }
+
+    // returns true when the child can be pruned
+    private boolean remove(Node n, String key, int depth) {
+        if (depth == key.length()) {
+            if (--n.count == 0) n.word = null;
+        } else {
+            Node child = n.children.get(key.charAt(depth));
+            if (child != null && remove(child, key, depth + 1)) n.children.remove(key.charAt(depth));
+        }
+        return n.count == 0 && n.children.isEmpty();
+    }
+
+    public synchronized boolean contains(String description) {
+        return counts.containsKey(normalize(description));
+    }
+
+    /** Up to {@code limit} distinct planned descriptions starting with the prefix, alphabetical. */
+    public synchronized List<String> withPrefix(String prefix, int limit) {
+        List<String> out = new ArrayList<>();
+        String key = normalize(prefix);
+        Node n = root;
+        for (int i = 0; i < key.length() && n != null; i++) n = n.children.get(key.charAt(i));
+        if (n != null) collect(n, out, limit);
+        return out;
+    }
+
+    private static void collect(Node n, List<String> out, int limit) {
+        if (out.size() >= limit) return;
+        if (n.count > 0) out.add(n.word);
+        for (Node child : n.children.values()) {
+            if (out.size() >= limit) return;
+            collect(child, out, limit);
+        }
+    }
+
+    /** Number of distinct descriptions. */
+    public synchronized int size() {
+        return counts.size();
+    }
+
+    public synchronized void clear() {
+        counts.clear();
+        root.children.clear();
+        root.word = null;
+        root.count = 0;
+    }
+}
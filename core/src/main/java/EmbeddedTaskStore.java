@@ -0,0 +1,874 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * {@link TaskStore} in a local directory, for single-user installs without a MySQL server.
+ *
+ * All tasks live in memory in a {@link TaskColumns} table; every change is appended
+ * to a memory-mapped log and forced to disk before the call returns. When the log grows past
+ * smartreminder.store.compactBytes the whole state is written to a snapshot and the log starts
+ * over, so opening means reading one snapshot and replaying a short log.
+ *
+ * Files:
+ *  - tasks.snapshot: magic, version, covered log generation, entries, archive summary, recurring
+ *    series, CRC32 of all of it. Written to a temp file, fsynced and atomically renamed, so it is
+ *    always complete.
+ *  - tasks.log: magic, version, generation, then records [len][crc][type][payload]. The CRC
+ *    covers the generation, so records left over from before the last compaction never replay.
+ *    Replay stops at the first empty or damaged record; a torn tail from a crash is wiped.
+ *  - tasks.archive: rows moved out by {@link #archive}, as [len][crc][row][archived at]. Only
+ *    appended, never read back here; a crash before the matching log record can repeat rows
+ *    (same id) on the next run.
+ *
+ * Rows keep what the tasks table keeps (id, description, start, end, reminder lead, reminded and
+ * completed time), so both stores give callers the same tasks back. Recurring series are kept
+ * whole (rule, exceptions, reminder mark) in a {@link RecurrenceIndex}. Version 1 files (no ids)
+ * are read with fresh ids; older files are rewritten in the current version on open.
+ */
+public class EmbeddedTaskStore implements TaskStore {
+
+    private static final int LOG_MAGIC = 0x53524C47;       // "SRLG"
+    private static final int SNAPSHOT_MAGIC = 0x5352534E;  // "SRSN"
+    private static final int VERSION = 4;                  // 3: archive summary, 4: recurring series
+    private static final int LOG_HEADER = 16;              // magic, version, generation
+    private static final int RECORD_HEADER = 8;            // len, crc (len counts type + payload)
+    private static final int MIN_LOG_CAPACITY = 1 << 20;
+
+    private static final byte WRITE = 1;                   // deletes (ids), inserts, skipped occurrences (v4)
+    private static final byte REMINDED = 2;                // id, time
+    private static final byte UPDATE = 3;                  // row
+    private static final byte COMPLETED = 4;               // time, ids
+    private static final byte ARCHIVE = 5;                 // ids, summary
+    private static final byte SERIES = 6;                  // series (insert or replace)
+    private static final byte SERIES_DELETE = 7;           // series id
+    private static final byte SERIES_REMINDED = 8;         // series id, occurrence start
+
+    private static final int HAS_START = 1, HAS_END = 2, HAS_LEAD = 4, HAS_REMINDED = 8, HAS_COMPLETED = 16;
+    private static final long NOT_SET = Long.MIN_VALUE;
+    private static final int HISTORY_CHUNK = 4096;
+    private static final LocalDateTime FAR = LocalDateTime.of(3000, 1, 1, 0, 0);   // within TaskColumns' minute range
+
+    /** One decoded row. */
+    private static final class Entry {
+        final Task task;
+        final Integer lead;
+        final LocalDateTime remindedAt;
+        final LocalDateTime completedAt;
+
+        Entry(Task task, Integer lead, LocalDateTime remindedAt, LocalDateTime completedAt) {
+            this.task = task;
+            this.lead = lead;
+            this.remindedAt = remindedAt;
+            this.completedAt = completedAt;
+        }
+    }
+
+    private final Path dir;
+    private final Path logPath;
+    private final Path snapshotPath;
+    private final Path archivePath;
+    private final long compactBytes;
+    private final int minLogCapacity;
+
+    private final TaskColumns rows = new TaskColumns();
+    private final Map<Integer, Integer> leads = new HashMap<>();   // row → lead, only when set
+    private long[] remindedAt = new long[16];                      // row → epoch second or NOT_SET
+    private long[] completedAt = new long[16];                     // row → epoch second or NOT_SET
+    private final ArchiveSummary archived = new ArchiveSummary();
+    private final RecurrenceIndex series = new RecurrenceIndex();
+
+    private FileChannel channel;
+    private MappedByteBuffer log;
+    private long generation;
+    private int position;        // end of the last good record
+    private boolean outdated;    // read a version 1 file: rewrite it once open
+    private int compactions;   // this session
+
+    private EmbeddedTaskStore(Path dir, long compactBytes, int minLogCapacity) {
+        this.dir = dir;
+        this.logPath = dir.resolve("tasks.log");
+        this.snapshotPath = dir.resolve("tasks.snapshot");
+        this.archivePath = dir.resolve("tasks.archive");
+        this.compactBytes = compactBytes;
+        this.minLogCapacity = minLogCapacity;
+    }
+
+    /** Opens (or creates) the store in {@code dir}, recovering from an interrupted last run. */
+    public static EmbeddedTaskStore open(Path dir) {
+        return open(dir, MIN_LOG_CAPACITY, true);
+    }
+
+    /**
+     * As {@link #open(Path)}, for many small stores (one per user): the log is mapped at
+     * {@code minLogCapacity} bytes to start with and grows as needed, and {@code announce}
+     * false skips the log line.
+     */
+    public static EmbeddedTaskStore open(Path dir, int minLogCapacity, boolean announce) {
+        long compactBytes = Long.getLong("smartreminder.store.compactBytes", 8L << 20);
+        EmbeddedTaskStore s = new EmbeddedTaskStore(dir, compactBytes, minLogCapacity);
+        try {
+            long t0 = System.nanoTime();
+            Files.createDirectories(dir);
+            long covered = s.loadSnapshot();
+            int replayed = s.openLog(covered);
+            if (s.outdated) s.compact();
+            if (announce) {
+                System.out.printf("📂 Opened embedded store %s: %d tasks, %d log records replayed in %d ms%n",
+                        dir, s.rows.size(), replayed, (System.nanoTime() - t0) / 1_000_000);
+            }
+            return s;
+        } catch (IOException e) {
+            s.close();
+            throw new UncheckedIOException("Cannot open task store in " + dir, e);
+        }
+    }
+
+    // ---------------- TaskStore ----------------
+
+    @Override
+    public void saveTask(Task task) throws SQLException {
+        applyBatch(List.of(task), List.of());
+    }
+
+    @Override
+    public void deleteTask(Task task) throws SQLException {
+        applyBatch(List.of(), List.of(task));
+    }
+
+    @Override
+    public synchronized void updateTask(Task task) throws SQLException {
+        checkOpen();
+        if (RecurringTask.isOccurrenceId(task.getId())) return;   // occurrences follow their series
+        int row = rows.rowOf(task.getId());
+        if (row < 0) return;
+        append(UPDATE, putRow(newPayload(64), task, null, null, null));
+        replace(row, row(task));
+        maybeCompact();
+    }
+
+    /** One log record for the whole batch, so a crash keeps all of it or none. */
+    @Override
+    public synchronized void applyBatch(List<Task> inserts, List<Task> deletes) throws SQLException {
+        if (inserts.isEmpty() && deletes.isEmpty()) return;
+        checkOpen();
+        Set<Long> deleted = new HashSet<>();
+        List<RecurringTask.Occurrence> skipped = new ArrayList<>();
+        for (Task t : deletes) {
+            if (RecurringTask.isOccurrenceId(t.getId())) addOccurrence(skipped, t.getId());
+            else deleted.add(t.getId());
+        }
+        Set<Long> inserted = new HashSet<>();
+        for (Task t : inserts) {
+            boolean stays = rows.rowOf(t.getId()) >= 0 && !deleted.contains(t.getId());
+            if (stays || !inserted.add(t.getId())) throw new SQLException("Duplicate task id " + t.getId());
+        }
+        write(deleted, inserts, skipped);
+    }
+
+    @Override
+    public synchronized int deleteTasks(Collection<Long> ids) throws SQLException {
+        checkOpen();
+        Set<Long> existing = new HashSet<>();
+        List<RecurringTask.Occurrence> skipped = new ArrayList<>();
+        for (long id : ids) {
+            if (RecurringTask.isOccurrenceId(id)) addOccurrence(skipped, id);
+            else if (rows.rowOf(id) >= 0) existing.add(id);
+        }
+        if (!existing.isEmpty() || !skipped.isEmpty()) write(existing, List.of(), skipped);
+        return existing.size() + skipped.size();
+    }
+
+    /** Completing an occurrence takes it out of its series, like deleting it. */
+    @Override
+    public synchronized int completeTasks(Collection<Long> ids, LocalDateTime at) throws SQLException {
+        checkOpen();
+        Set<Long> existing = new HashSet<>();
+        List<RecurringTask.Occurrence> skipped = new ArrayList<>();
+        for (long id : ids) {
+            if (RecurringTask.isOccurrenceId(id)) addOccurrence(skipped, id);
+            else if (rows.rowOf(id) >= 0) existing.add(id);
+        }
+        if (!skipped.isEmpty()) write(Set.of(), List.of(), skipped);
+        if (existing.isEmpty()) return skipped.size();
+        ByteBuffer payload = newPayload(16 + 8 * existing.size());
+        putTime(payload, at);
+        payload.putInt(existing.size());
+        for (long id : existing) payload.putLong(id);
+        append(COMPLETED, payload);
+        for (long id : existing) completedAt[rows.rowOf(id)] = at.toEpochSecond(ZoneOffset.UTC);
+        maybeCompact();
+        return existing.size() + skipped.size();
+    }
+
+    private void write(Set<Long> deletes, List<Task> inserts, List<RecurringTask.Occurrence> skipped) throws SQLException {
+        ByteBuffer payload = newPayload(16 + 8 * deletes.size() + 64 * inserts.size() + 20 * skipped.size());
+        payload.putInt(deletes.size());
+        for (long id : deletes) payload.putLong(id);
+        payload.putInt(inserts.size());
+        for (Task t : inserts) payload = putRow(payload, t, null, null, null);
+        payload = ensure(payload, 4 + 20 * skipped.size());
+        payload.putInt(skipped.size());
+        for (RecurringTask.Occurrence o : skipped) putTime(payload.putLong(o.getSeriesId()), o.getStartTime());
+        append(WRITE, payload);
+        for (long id : deletes) remove(id);
+        for (Task t : inserts) insert(row(t), null, null, null);
+        for (RecurringTask.Occurrence o : skipped) series.update(o.getSeriesId(), s -> s.withSkipped(o.getStartTime()));
+        maybeCompact();
+    }
+
+    // the occurrence for this id, if its series is here
+    private void addOccurrence(List<RecurringTask.Occurrence> out, long occurrenceId) {
+        RecurringTask.Occurrence o = series.occurrence(occurrenceId);
+        if (o != null) out.add(o);
+    }
+
+    @Override
+    public synchronized List<Task> getTasksInWindow(LocalDateTime from, LocalDateTime to) throws SQLException {
+        checkOpen();
+        List<Task> out = new ArrayList<>();
+        if (!from.isBefore(to)) return out;
+        for (int row : rows.startingIn(from, to)) out.add(rows.get(row));
+        return RecurrenceIndex.merge(out, series.startingIn(from, to), Task::getStartTime);
+    }
+
+    /** Ordered like the MySQL query: timeless first (NULL sorts first), then by start; plus each series' next occurrence. */
+    @Override
+    public synchronized List<Task> getLiveTasks(LocalDateTime now) throws SQLException {
+        checkOpen();
+        List<Task> out = new ArrayList<>();
+        // WHERE (end_time >= ? OR end_time IS NULL) AND completed_at IS NULL
+        for (int row : rows.untimed()) {
+            if (!rows.endsBefore(row, now) && completedAt[row] == NOT_SET) out.add(rows.get(row));
+        }
+        for (int row : rows.timedByStart()) {
+            if (!rows.endsBefore(row, now) && completedAt[row] == NOT_SET) out.add(rows.get(row));
+        }
+        return RecurrenceIndex.merge(out, series.live(now), Task::getStartTime);
+    }
+
+    @Override
+    public synchronized List<PendingReminder> getPendingReminders(LocalDateTime from, LocalDateTime to) throws SQLException {
+        checkOpen();
+        List<PendingReminder> out = new ArrayList<>();
+        if (!from.isBefore(to)) return out;
+        for (int row : rows.startingIn(from, to)) {
+            if (remindedAt[row] == NOT_SET && completedAt[row] == NOT_SET) {
+                out.add(new PendingReminder(rows.get(row), leads.get(row)));
+            }
+        }
+        return RecurrenceIndex.merge(out, series.pending(from, to), r -> r.task.getStartTime());
+    }
+
+    @Override
+    public synchronized LocalDateTime firstPendingStart(LocalDateTime from) throws SQLException {
+        checkOpen();
+        LocalDateTime first = null;
+        if (from.isBefore(FAR)) {
+            for (int row : rows.startingIn(from, FAR)) {
+                if (remindedAt[row] == NOT_SET && completedAt[row] == NOT_SET) {
+                    first = rows.get(row).getStartTime();
+                    break;
+                }
+            }
+        }
+        return RecurrenceIndex.earlier(first, series.firstPendingStart(from));
+    }
+
+    /** For an occurrence: the series' reminders are done up to that occurrence. */
+    @Override
+    public synchronized void markReminded(Task task, LocalDateTime firedAt) throws SQLException {
+        checkOpen();
+        if (RecurringTask.isOccurrenceId(task.getId())) {
+            RecurringTask.Occurrence o = series.occurrence(task.getId());
+            if (o == null) return;
+            append(SERIES_REMINDED, putTime(newPayload(32).putLong(o.getSeriesId()), o.getStartTime()));
+            series.update(o.getSeriesId(), s -> s.withRemindedThrough(o.getStartTime()));
+            maybeCompact();
+            return;
+        }
+        int row = rows.rowOf(task.getId());
+        if (row < 0) return;
+        ByteBuffer payload = newPayload(32).putLong(task.getId());
+        putTime(payload, firedAt);
+        append(REMINDED, payload);
+        remindedAt[row] = firedAt.toEpochSecond(ZoneOffset.UTC);
+        maybeCompact();
+    }
+
+    @Override
+    public synchronized List<Task> getAllTasks() throws SQLException {
+        checkOpen();
+        List<Task> out = new ArrayList<>(rows.size());
+        for (int row : rows.untimed()) out.add(rows.get(row));
+        for (int row : rows.timedByStart()) out.add(rows.get(row));
+        return out;
+    }
+
+    /**
+     * Builds the tasks a chunk at a time and calls the consumer outside the lock, so the whole
+     * history is never materialized and writers are not held up. Rows deleted during the walk
+     * are skipped.
+     */
+    @Override
+    public void forEachTimedTask(Consumer<Task> consumer) throws SQLException {
+        int[] order;
+        synchronized (this) {
+            checkOpen();
+            order = rows.timedByStart();
+        }
+        walk(order, consumer);
+    }
+
+    /** Timeless rows, then timed ones by start; chunked the same way as forEachTimedTask. */
+    @Override
+    public void forEachTask(Consumer<Task> consumer) throws SQLException {
+        int[] untimed, timed;
+        synchronized (this) {
+            checkOpen();
+            untimed = rows.untimed();
+            timed = rows.timedByStart();
+        }
+        walk(untimed, consumer);
+        walk(timed, consumer);
+    }
+
+    private void walk(int[] order, Consumer<Task> consumer) {
+        List<Task> chunk = new ArrayList<>(HISTORY_CHUNK);
+        for (int i = 0; i < order.length; i += HISTORY_CHUNK) {
+            chunk.clear();
+            synchronized (this) {
+                for (int j = i; j < Math.min(order.length, i + HISTORY_CHUNK); j++) {
+                    if (rows.isLive(order[j])) chunk.add(rows.get(order[j]));
+                }
+            }
+            chunk.forEach(consumer);
+        }
+    }
+
+    @Override
+    public synchronized List<Task> getTasksStartingBefore(LocalDateTime before, int limit) throws SQLException {
+        checkOpen();
+        List<Task> out = new ArrayList<>();
+        for (int row : rows.startingBefore(before, limit)) out.add(rows.get(row));
+        return out;
+    }
+
+    @Override
+    public synchronized List<Task> getCompletedTimelessTasks(LocalDateTime completedBefore, int limit) throws SQLException {
+        checkOpen();
+        long before = seconds(completedBefore);
+        List<Integer> matches = new ArrayList<>();
+        for (int row : rows.untimed()) {
+            if (completedAt[row] != NOT_SET && completedAt[row] < before) matches.add(row);
+        }
+        matches.sort((a, b) -> Long.compare(completedAt[a], completedAt[b]));
+        List<Task> out = new ArrayList<>();
+        for (int row : matches.subList(0, Math.min(limit, matches.size()))) out.add(rows.get(row));
+        return out;
+    }
+
+    /** Rows go to tasks.archive first (forced), then one log record drops them and adds the summary. */
+    @Override
+    public synchronized int archive(Collection<Long> ids, ArchiveSummary summary, LocalDateTime archivedAt) throws SQLException {
+        checkOpen();
+        Set<Long> existing = new HashSet<>();
+        for (long id : ids) {
+            if (rows.rowOf(id) >= 0) existing.add(id);
+        }
+        if (existing.isEmpty()) return 0;
+
+        ByteBuffer records = newPayload(96 * existing.size());
+        for (long id : existing) {
+            int row = rows.rowOf(id);
+            ByteBuffer r = ensure(putSnapshotRow(newPayload(64), row), 12);
+            putTime(r, archivedAt);
+            r.flip();
+            records = ensure(records, RECORD_HEADER + r.remaining());
+            records.putInt(r.remaining()).putInt(crc(0, r)).put(r);
+        }
+        records.flip();
+        try (FileChannel ch = FileChannel.open(archivePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            while (records.hasRemaining()) ch.write(records);
+            ch.force(false);
+        } catch (IOException e) {
+            throw new SQLException("Task archive write failed in " + dir, e);
+        }
+
+        byte[] summaryBytes = summary.toBytes();
+        ByteBuffer payload = newPayload(8 + 8 * existing.size() + summaryBytes.length);
+        payload.putInt(existing.size());
+        for (long id : existing) payload.putLong(id);
+        payload.put(summaryBytes);
+        append(ARCHIVE, payload);
+        for (long id : existing) remove(id);
+        archived.add(summary);
+        maybeCompact();
+        return existing.size();
+    }
+
+    @Override
+    public synchronized ArchiveSummary getArchiveSummary() throws SQLException {
+        checkOpen();
+        ArchiveSummary copy = new ArchiveSummary();
+        copy.add(archived);
+        return copy;
+    }
+
+    // ---------------- recurring tasks ----------------
+
+    @Override
+    public synchronized void saveSeries(RecurringTask s) throws SQLException {
+        checkOpen();
+        append(SERIES, putSeries(newPayload(128), s));
+        series.put(s);
+        maybeCompact();
+    }
+
+    @Override
+    public synchronized void deleteSeries(long seriesId) throws SQLException {
+        checkOpen();
+        if (series.get(seriesId) == null) return;
+        append(SERIES_DELETE, newPayload(8).putLong(seriesId));
+        series.remove(seriesId);
+        maybeCompact();
+    }
+
+    @Override
+    public synchronized List<RecurringTask> getSeries() throws SQLException {
+        checkOpen();
+        return series.all();
+    }
+
+    @Override
+    public synchronized String stats() {
+        return String.format("embedded[dir=%s tasks=%d series=%d heap=~%dKB log=%dKB generation=%d compactions=%d]",
+                dir, rows.size(), series.size(), (rows.memoryBytes() + 16L * remindedAt.length) / 1024, position / 1024,
+                generation, compactions);
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (log != null) log.force();
+            if (channel != null) channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        log = null;
+        channel = null;
+    }
+
+    // ---------------- in-memory index ----------------
+
+    // the columns the tasks table keeps, read back the way MySqlTaskStore reads them
+    private static Task row(Task t) {
+        LocalDateTime start = t.getStartTime(), end = t.getEndTime();
+        return new Task(t.getId(), t.getDescription(), start, end, false, start != null && end != null);
+    }
+
+    private void insert(Task t, Integer lead, LocalDateTime reminded, LocalDateTime completed) {
+        int row = rows.add(t);
+        if (row >= remindedAt.length) {
+            int from = remindedAt.length;
+            int capacity = Math.max(row + 1, from * 2);
+            remindedAt = Arrays.copyOf(remindedAt, capacity);
+            completedAt = Arrays.copyOf(completedAt, capacity);
+            Arrays.fill(remindedAt, from, capacity, NOT_SET);
+            Arrays.fill(completedAt, from, capacity, NOT_SET);
+        }
+        remindedAt[row] = seconds(reminded);
+        completedAt[row] = seconds(completed);
+        if (lead != null) leads.put(row, lead);
+        else leads.remove(row);
+    }
+
+    private void remove(long id) {
+        int row = rows.rowOf(id);
+        if (row >= 0) rows.remove(row);
+    }
+
+    // new values for a stored row; reminder and completion state stay as they were
+    private void replace(int row, Task t) {
+        Integer lead = leads.get(row);
+        LocalDateTime reminded = time(remindedAt[row]);
+        LocalDateTime completed = time(completedAt[row]);
+        rows.remove(row);
+        insert(t, lead, reminded, completed);
+    }
+
+    // version 1 records named rows by value
+    private void removeByValue(Task t) {
+        for (int row : rows.find(t.getDescription(), t.getStartTime(), t.getEndTime())) rows.remove(row);
+    }
+
+    private static long seconds(LocalDateTime t) {
+        return t == null ? NOT_SET : t.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime time(long seconds) {
+        return seconds == NOT_SET ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    // ---------------- log ----------------
+
+    private int openLog(long covered) throws IOException {
+        channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean created = channel.size() == 0;
+        map((int) Math.max(minLogCapacity, channel.size()));
+        position = LOG_HEADER;
+        int magic = log.getInt(0);
+        if (magic == 0) {   // new, or the header never made it to disk
+            generation = covered + 1;
+            writeLogHeader();
+            if (!created) wipeTail();   // a new file is all zeros; no need to read it back
+            return 0;
+        }
+        if (magic != LOG_MAGIC) throw new IOException("Not a task log: " + logPath);
+        int version = log.getInt(4);
+        if (version < 1 || version > VERSION) throw new IOException("Unsupported task log version " + version);
+        generation = log.getLong(8);
+
+        int replayed = 0;
+        while (position + RECORD_HEADER <= log.capacity()) {
+            int len = log.getInt(position);
+            if (len <= 0 || len > log.capacity() - position - RECORD_HEADER) break;
+            ByteBuffer body = log.slice(position + RECORD_HEADER, len);
+            if (crc(generation, body) != log.getInt(position + 4)) break;
+            // a log older than the snapshot was already folded into it
+            if (generation > covered) replay(body, version);
+            replayed++;
+            position += RECORD_HEADER + len;
+        }
+        if (generation <= covered) {
+            // the crash came after the snapshot but before the log was reset: finish that reset
+            resetLog(covered + 1);
+            replayed = 0;
+        } else if (version < VERSION) {
+            outdated = true;
+        }
+        wipeTail();
+        return replayed;
+    }
+
+    private void replay(ByteBuffer body, int version) throws IOException {
+        byte type = body.get();
+        if (type == WRITE) {
+            int deletes = body.getInt();
+            for (int i = 0; i < deletes; i++) {
+                if (version == 1) removeByValue(readRow(body, version).task);
+                else remove(body.getLong());
+            }
+            int inserts = body.getInt();
+            for (int i = 0; i < inserts; i++) {
+                Entry e = readRow(body, version);
+                insert(e.task, e.lead, e.remindedAt, e.completedAt);
+            }
+            int skipped = version >= 4 ? body.getInt() : 0;
+            for (int i = 0; i < skipped; i++) {
+                long id = body.getLong();
+                LocalDateTime start = getTime(body);
+                series.update(id, s -> s.withSkipped(start));
+            }
+        } else if (type == REMINDED) {
+            if (version == 1) {
+                Entry e = readRow(body, version);
+                for (int row : rows.find(e.task.getDescription(), e.task.getStartTime(), e.task.getEndTime())) {
+                    remindedAt[row] = seconds(e.remindedAt);
+                }
+            } else {
+                int row = rows.rowOf(body.getLong());
+                LocalDateTime at = getTime(body);
+                if (row >= 0) remindedAt[row] = seconds(at);
+            }
+        } else if (type == UPDATE) {
+            Task t = readRow(body, version).task;
+            int row = rows.rowOf(t.getId());
+            if (row >= 0) replace(row, t);
+        } else if (type == COMPLETED) {
+            long at = seconds(getTime(body));
+            int n = body.getInt();
+            for (int i = 0; i < n; i++) {
+                int row = rows.rowOf(body.getLong());
+                if (row >= 0) completedAt[row] = at;
+            }
+        } else if (type == ARCHIVE) {
+            int n = body.getInt();
+            for (int i = 0; i < n; i++) remove(body.getLong());
+            archived.add(ArchiveSummary.read(body));
+        } else if (type == SERIES) {
+            series.put(readSeries(body));
+        } else if (type == SERIES_DELETE) {
+            series.remove(body.getLong());
+        } else if (type == SERIES_REMINDED) {
+            long id = body.getLong();
+            LocalDateTime through = getTime(body);
+            series.update(id, s -> s.withRemindedThrough(through));
+        } else {
+            throw new IOException("Unknown task log record type " + type);
+        }
+    }
+
+    private void append(byte type, ByteBuffer payload) throws SQLException {
+        checkOpen();
+        payload.flip();
+        int len = 1 + payload.remaining();
+        try {
+            if (position + RECORD_HEADER + len + 4 > log.capacity()) {
+                map(Math.max(log.capacity() * 2, position + RECORD_HEADER + len + 4));
+            }
+            ByteBuffer body = ByteBuffer.allocate(len).put(type).put(payload).flip();
+            log.putInt(position + 4, crc(generation, body));
+            log.put(position + RECORD_HEADER, body, 0, len);
+            log.putInt(position, len);   // written last: a record without its length is not there
+            log.force(position, RECORD_HEADER + len);
+            position += RECORD_HEADER + len;
+        } catch (IOException | RuntimeException e) {
+            throw new SQLException("Task log write failed in " + dir, e);
+        }
+    }
+
+    // grows the file and maps it again; the old mapping is released when it is collected
+    private void map(int capacity) throws IOException {
+        if (log != null) log.force();
+        log = channel.map(FileChannel.MapMode.READ_WRITE, 0, (capacity + 4095) & ~4095);
+    }
+
+    private void writeLogHeader() {
+        log.putInt(0, LOG_MAGIC);
+        log.putInt(4, VERSION);
+        log.putLong(8, generation);
+        log.force(0, LOG_HEADER);
+    }
+
+    // zero whatever a torn write left behind, so a later record can never run into it
+    private void wipeTail() {
+        int dirtyEnd = position;
+        for (int i = log.capacity() - 8; i >= position; i -= 8) {   // capacity is page aligned
+            if (log.getLong(i) != 0) {
+                dirtyEnd = i + 8;
+                break;
+            }
+        }
+        for (int i = position; i < Math.min(log.capacity(), (position + 7) & ~7); i++) {
+            if (log.get(i) != 0) dirtyEnd = Math.max(dirtyEnd, i + 1);
+        }
+        if (dirtyEnd == position) return;
+        for (int i = position; i < dirtyEnd; i++) log.put(i, (byte) 0);
+        log.force(position, dirtyEnd - position);
+        System.out.println("⚠ Discarded " + (dirtyEnd - position) + " bytes of incomplete task log");
+    }
+
+    private static int crc(long generation, ByteBuffer body) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(8).putLong(0, generation));
+        crc.update(body.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private void checkOpen() throws SQLException {
+        if (log == null) throw new SQLException("Task store is closed: " + dir);
+    }
+
+    // ---------------- snapshot and compaction ----------------
+
+    private long loadSnapshot() throws IOException {
+        if (!Files.exists(snapshotPath)) return 0;
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(snapshotPath));
+        if (in.remaining() < 24 || in.getInt(0) != SNAPSHOT_MAGIC) throw new IOException("Not a task snapshot: " + snapshotPath);
+        int version = in.getInt(4);
+        if (version < 1 || version > VERSION) throw new IOException("Unsupported task snapshot version " + version);
+        if (version < VERSION) outdated = true;
+        CRC32 crc = new CRC32();
+        crc.update(in.array(), 0, in.limit() - 4);
+        if ((int) crc.getValue() != in.getInt(in.limit() - 4)) throw new IOException("Task snapshot is damaged: " + snapshotPath);
+
+        in.position(8);
+        long covered = in.getLong();
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            Entry e = readRow(in, version);
+            insert(e.task, e.lead, e.remindedAt, e.completedAt);
+        }
+        if (version >= 3) archived.add(ArchiveSummary.read(in));
+        int seriesCount = version >= 4 ? in.getInt() : 0;
+        for (int i = 0; i < seriesCount; i++) series.put(readSeries(in));
+        return covered;
+    }
+
+    private void maybeCompact() throws SQLException {
+        if (position < compactBytes) return;
+        try {
+            compact();
+        } catch (IOException e) {
+            throw new SQLException("Task store compaction failed in " + dir, e);
+        }
+    }
+
+    /**
+     * Writes the current state as the snapshot covering this log generation, then restarts the
+     * log in place (a mapped file cannot be replaced on Windows). A crash in between is fine:
+     * the old log's generation is covered by the new snapshot, so it is ignored on open.
+     */
+    private void compact() throws IOException {
+        long t0 = System.nanoTime();
+        ByteBuffer out = newPayload(64 + 64 * rows.size());
+        out.putInt(SNAPSHOT_MAGIC).putInt(VERSION).putLong(generation).putInt(rows.size());
+        for (int row : rows.untimed()) out = putSnapshotRow(out, row);
+        for (int row : rows.timedByStart()) out = putSnapshotRow(out, row);
+        byte[] summary = archived.toBytes();
+        out = ensure(out, summary.length + 4).put(summary);
+        List<RecurringTask> all = series.all();
+        out = ensure(out, 4).putInt(all.size());
+        for (RecurringTask s : all) out = putSeries(out, s);
+        CRC32 crc = new CRC32();
+        crc.update(out.array(), 0, out.position());
+        out = ensure(out, 4).putInt((int) crc.getValue()).flip();
+
+        Path tmp = dir.resolve("tasks.snapshot.tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) ch.write(out);
+            ch.force(true);
+        }
+        Files.move(tmp, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+        compactions++;
+        outdated = false;
+
+        int logBytes = position;
+        resetLog(generation + 1);
+        System.out.printf("🗜 Compacted task log: %d tasks, %d KB log folded in %d ms%n",
+                rows.size(), logBytes / 1024, (System.nanoTime() - t0) / 1_000_000);
+    }
+
+    private ByteBuffer putSnapshotRow(ByteBuffer out, int row) {
+        return putRow(out, rows.get(row), leads.get(row), time(remindedAt[row]), time(completedAt[row]));
+    }
+
+    private void resetLog(long nextGeneration) {
+        int end = position;
+        generation = nextGeneration;
+        writeLogHeader();     // from here the old records fail their CRC
+        for (int i = LOG_HEADER; i < end; i++) log.put(i, (byte) 0);
+        log.force(LOG_HEADER, Math.max(0, end - LOG_HEADER));
+        position = LOG_HEADER;
+    }
+
+    // makes the rename durable; not supported on every platform, where the rename is still atomic
+    private void syncDirectory() {
+        try (FileChannel d = FileChannel.open(dir, StandardOpenOption.READ)) {
+            d.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
+    // ---------------- row encoding ----------------
+
+    private static ByteBuffer newPayload(int capacity) {
+        return ByteBuffer.allocate(Math.max(64, capacity));
+    }
+
+    private static ByteBuffer ensure(ByteBuffer b, int more) {
+        if (b.remaining() >= more) return b;
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(b.capacity() * 2, b.position() + more));
+        return bigger.put(b.flip());
+    }
+
+    // [id][flags][desc len][desc utf-8][start][end][lead][reminded][completed], times as sec + nano
+    private static ByteBuffer putRow(ByteBuffer b, Task t, Integer lead, LocalDateTime remindedAt,
+                                     LocalDateTime completedAt) {
+        byte[] desc = t.getDescription().getBytes(StandardCharsets.UTF_8);
+        b = ensure(b, 13 + desc.length + 4 * 12 + 4 + 4);   // + 4 for whatever the caller puts next
+        int flags = (t.getStartTime() != null ? HAS_START : 0) | (t.getEndTime() != null ? HAS_END : 0)
+                | (lead != null ? HAS_LEAD : 0) | (remindedAt != null ? HAS_REMINDED : 0)
+                | (completedAt != null ? HAS_COMPLETED : 0);
+        b.putLong(t.getId()).put((byte) flags).putInt(desc.length).put(desc);
+        if (t.getStartTime() != null) putTime(b, t.getStartTime());
+        if (t.getEndTime() != null) putTime(b, t.getEndTime());
+        if (lead != null) b.putInt(lead);
+        if (remindedAt != null) putTime(b, remindedAt);
+        if (completedAt != null) putTime(b, completedAt);
+        return b;
+    }
+
+    private static Entry readRow(ByteBuffer b, int version) {
+        long id = version >= 2 ? b.getLong() : TaskIds.next();
+        int flags = b.get();
+        byte[] desc = new byte[b.getInt()];
+        b.get(desc);
+        LocalDateTime start = (flags & HAS_START) != 0 ? getTime(b) : null;
+        LocalDateTime end = (flags & HAS_END) != 0 ? getTime(b) : null;
+        Integer lead = (flags & HAS_LEAD) != 0 ? b.getInt() : null;
+        LocalDateTime reminded = (flags & HAS_REMINDED) != 0 ? getTime(b) : null;
+        LocalDateTime completed = (flags & HAS_COMPLETED) != 0 ? getTime(b) : null;
+        TaskIds.observe(id);
+        Task task = new Task(id, new String(desc, StandardCharsets.UTF_8), start, end, false, start != null && end != null);
+        return new Entry(task, lead, reminded, completed);
+    }
+
+    // [id][desc len][desc][start][length sec + nano][rule len][rule][has reminded][reminded][skips][skip starts]
+    private static ByteBuffer putSeries(ByteBuffer b, RecurringTask s) {
+        byte[] desc = s.getDescription().getBytes(StandardCharsets.UTF_8);
+        byte[] rule = s.getRule().toString().getBytes(StandardCharsets.UTF_8);
+        b = ensure(b, 8 + 4 + desc.length + 12 + 12 + 4 + rule.length + 1 + 12 + 4 + 12 * s.getSkipped().size());
+        b.putLong(s.getId()).putInt(desc.length).put(desc);
+        putTime(b, s.getStart());
+        b.putLong(s.getLength().getSeconds()).putInt(s.getLength().getNano());
+        b.putInt(rule.length).put(rule);
+        b.put((byte) (s.getRemindedThrough() != null ? 1 : 0));
+        if (s.getRemindedThrough() != null) putTime(b, s.getRemindedThrough());
+        b.putInt(s.getSkipped().size());
+        for (LocalDateTime start : s.getSkipped()) putTime(b, start);
+        return b;
+    }
+
+    private static RecurringTask readSeries(ByteBuffer b) {
+        long id = b.getLong();
+        byte[] desc = new byte[b.getInt()];
+        b.get(desc);
+        LocalDateTime start = getTime(b);
+        Duration length = Duration.ofSeconds(b.getLong(), b.getInt());
+        byte[] rule = new byte[b.getInt()];
+        b.get(rule);
+        LocalDateTime reminded = b.get() != 0 ? getTime(b) : null;
+        NavigableSet<LocalDateTime> skipped = new TreeSet<>();
+        for (int n = b.getInt(); n > 0; n--) skipped.add(getTime(b));
+        TaskIds.observe(id);
+        return new RecurringTask(id, new String(desc, StandardCharsets.UTF_8), start, length,
+                RecurrenceRule.parse(new String(rule, StandardCharsets.UTF_8)), skipped, reminded);
+    }
+
+    private static ByteBuffer putTime(ByteBuffer b, LocalDateTime t) {
+        return b.putLong(t.toEpochSecond(ZoneOffset.UTC)).putInt(t.getNano());
+    }
+
+    private static LocalDateTime getTime(ByteBuffer b) {
+        long sec = b.getLong();
+        return LocalDateTime.ofEpochSecond(sec, b.getInt(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,179 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON support for the newline-delimited protocols in this project
+ * (bot worker, daemon API). Objects parse to LinkedHashMap, arrays to ArrayList,
+ * numbers to Long or Double.
+ */
+public final class Json {
+
+    private Json() {
+    }
+
+    /** Quotes and escapes a string; null becomes the JSON literal null. */
+    public static String quote(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    public static Object parse(String text) {
+        Parser p = new Parser(text);
+        p.ws();
+        Object v = p.value();
+        p.ws();
+        if (p.pos != text.length()) throw p.error("trailing characters");
+        return v;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String text) {
+        Object v = parse(text);
+        if (!(v instanceof Map)) throw new IllegalArgumentException("Expected a JSON object");
+        return (Map<String, Object>) v;
+    }
+
+    private static final class Parser {
+        final String s;
+        int pos;
+
+        Parser(String s) {
+            this.s = s;
+        }
+
+        Object value() {
+            if (pos >= s.length()) throw error("unexpected end");
+            char c = s.charAt(pos);
+            switch (c) {
+                case '{': return object();
+                case '[': return array();
+                case '"': return string();
+                case 't': return literal("true", Boolean.TRUE);
+                case 'f': return literal("false", Boolean.FALSE);
+                case 'n': return literal("null", null);
+                default: return number();
+            }
+        }
+
+        Map<String, Object> object() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            pos++;
+            ws();
+            if (peek() == '}') {
+                pos++;
+                return m;
+            }
+            while (true) {
+                ws();
+                String key = string();
+                ws();
+                expect(':');
+                ws();
+                m.put(key, value());
+                ws();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect('}');
+                    return m;
+                }
+            }
+        }
+
+        List<Object> array() {
+            List<Object> list = new ArrayList<>();
+            pos++;
+            ws();
+            if (peek() == ']') {
+                pos++;
+                return list;
+            }
+            while (true) {
+                ws();
+                list.add(value());
+                ws();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect(']');
+                    return list;
+                }
+            }
+        }
+
+        String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                if (pos >= s.length()) throw error("unterminated string");
+                char c = s.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = s.charAt(pos++);
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default: sb.append(e);
+                }
+            }
+        }
+
+        Object number() {
+            int start = pos;
+            while (pos < s.length() && "+-0123456789.eE".indexOf(s.charAt(pos)) >= 0) pos++;
+            String n = s.substring(start, pos);
+            if (n.isEmpty()) throw error("unexpected character");
+            if (n.indexOf('.') >= 0 || n.indexOf('e') >= 0 || n.indexOf('E') >= 0) return Double.parseDouble(n);
+            return Long.parseLong(n);
+        }
+
+        Object literal(String word, Object v) {
+            if (!s.startsWith(word, pos)) throw error("unexpected literal");
+            pos += word.length();
+            return v;
+        }
+
+        char peek() {
+            return pos < s.length() ? s.charAt(pos) : '\0';
+        }
+
+        void expect(char c) {
+            if (peek() != c) throw error("expected '" + c + "'");
+            pos++;
+        }
+
+        void ws() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+        }
+
+        IllegalArgumentException error(String msg) {
+            return new IllegalArgumentException("Bad JSON at " + pos + ": " + msg);
+        }
+    }
+}
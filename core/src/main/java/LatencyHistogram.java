@@ -0,0 +1,91 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets (the HdrHistogram layout, fixed precision).
+ *
+ * Values below 32 get a bucket each; above that every power of two is split into 32 equal
+ * buckets, so a recorded value is known to within about 3% whatever its size. Values are
+ * nanoseconds up to 2^40 (about 18 minutes); larger ones land in the last bucket, the exact
+ * maximum is kept separately. Recording is an index computation and two atomic adds.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_MSB = 40;
+    private static final int BUCKETS = (MAX_MSB - SUB_BITS + 2) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(index(nanos));
+        sum.add(nanos);
+        if (nanos > max.get()) max.accumulateAndGet(nanos, Math::max);
+    }
+
+    /** A consistent-enough copy for reporting (concurrent records may be half included). */
+    public Snapshot snapshot() {
+        long[] c = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            c[i] = counts.get(i);
+            n += c[i];
+        }
+        return new Snapshot(c, n, sum.sum(), max.get());
+    }
+
+    public static final class Snapshot {
+        private final long[] counts;
+        public final long count;
+        public final long sumNanos;
+        public final long maxNanos;
+
+        Snapshot(long[] counts, long count, long sumNanos, long maxNanos) {
+            this.counts = counts;
+            this.count = count;
+            this.sumNanos = sumNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        /** Value at quantile q (0..1): the top of the bucket holding it, never above the max. */
+        public long percentile(double q) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(q * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(maxNanos, highestEquivalent(i));
+            }
+            return maxNanos;
+        }
+
+        public double meanNanos() {
+            return count == 0 ? 0 : (double) sumNanos / count;
+        }
+    }
+
+    // ---------------- bucket layout ----------------
+
+    static int index(long v) {
+        if (v < SUB_COUNT) return (int) v;
+        int msb = 63 - Long.numberOfLeadingZeros(v);
+        if (msb > MAX_MSB) return BUCKETS - 1;
+        int shift = msb - SUB_BITS;
+        return (shift + 1) * SUB_COUNT + (int) (v >>> shift) - SUB_COUNT;
+    }
+
+    static long lowestEquivalent(int index) {
+        if (index < 2 * SUB_COUNT) return index;
+        int shift = index / SUB_COUNT - 1;
+        return (long) (SUB_COUNT + index % SUB_COUNT) << shift;
+    }
+
+    static long highestEquivalent(int index) {
+        return index == BUCKETS - 1 ? Long.MAX_VALUE : lowestEquivalent(index + 1) - 1;
+    }
+}
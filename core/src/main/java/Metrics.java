@@ -0,0 +1,179 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Process-wide metrics: counters, gauges and timers (a {@link LatencyHistogram} plus an error
+ * count), looked up by name. Names are lower_snake_case; {@link MetricsExporter} publishes them
+ * over JMX and as Prometheus text on a local HTTP port.
+ *
+ * Every timed operation is also a JFR event (smartreminder.Operation), so a flight recording
+ * shows parser, store, Telegram and bot calls on the thread that made them. When no recording
+ * is running the event is never committed and costs next to nothing.
+ *
+ * <pre>
+ *   private static final Metrics.Timer SAVE = Metrics.timer("store_save_task");
+ *   Metrics.Sample s = SAVE.start();
+ *   try { ...; s.stop(); } catch (SQLException e) { s.fail(); throw e; }
+ * </pre>
+ */
+public final class Metrics {
+
+    private static final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private static final Map<String, Timer> timers = new ConcurrentSkipListMap<>();
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+
+    private Metrics() {
+    }
+
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, k -> new Counter());
+    }
+
+    public static Timer timer(String name) {
+        return timers.computeIfAbsent(name, Timer::new);
+    }
+
+    /** A bare histogram, for durations that are measured elsewhere (e.g. reminder lateness). */
+    public static LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    /** Registers (or replaces) a gauge read on every export; it must be cheap and thread safe. */
+    public static void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    static Map<String, Counter> counters() {
+        return counters;
+    }
+
+    static Map<String, Timer> timers() {
+        return timers;
+    }
+
+    static Map<String, LatencyHistogram> histograms() {
+        return histograms;
+    }
+
+    static Map<String, LongSupplier> gauges() {
+        return gauges;
+    }
+
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long n) {
+            value.add(n);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /** Latency histogram and error count of one kind of operation. */
+    public static final class Timer {
+        final String name;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+
+        Timer(String name) {
+            this.name = name;
+        }
+
+        public Sample start() {
+            return new Sample(this);
+        }
+
+        public LatencyHistogram.Snapshot snapshot() {
+            return latency.snapshot();
+        }
+
+        public long errors() {
+            return errors.sum();
+        }
+    }
+
+    /** One running operation; end it exactly once with {@link #stop} or {@link #fail}. */
+    public static final class Sample {
+        private final Timer timer;
+        private final OperationEvent event = new OperationEvent();
+        private final long startNanos;
+        private boolean done;
+
+        Sample(Timer timer) {
+            this.timer = timer;
+            event.begin();
+            startNanos = System.nanoTime();
+        }
+
+        /** Records the elapsed time and returns it in nanoseconds. */
+        public long stop() {
+            return end(false);
+        }
+
+        /** Like {@link #stop} but also counts an error. */
+        public long fail() {
+            return end(true);
+        }
+
+        private long end(boolean failed) {
+            long nanos = System.nanoTime() - startNanos;
+            if (done) return nanos;
+            done = true;
+            timer.latency.record(nanos);
+            if (failed) timer.errors.increment();
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = timer.name;
+                event.failed = failed;
+                event.commit();
+            }
+            return nanos;
+        }
+    }
+
+    // ---------------- JFR events ----------------
+
+    @Name("smartreminder.Operation")
+    @Label("SmartReminder Operation")
+    @Category("SmartReminder")
+    @Description("A timed parser, store, Telegram or bot call")
+    @StackTrace(false)
+    static final class OperationEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Failed")
+        boolean failed;
+    }
+
+    @Name("smartreminder.ReminderFired")
+    @Label("Reminder Fired")
+    @Category("SmartReminder")
+    @Description("A reminder handed to the notifier, with how late the timer wheel fired it")
+    @StackTrace(false)
+    static final class ReminderFiredEvent extends Event {
+        @Label("Task Id")
+        long taskId;
+
+        @Label("Lateness")
+        @Timespan(Timespan.MILLISECONDS)
+        long latenessMillis;
+    }
+}
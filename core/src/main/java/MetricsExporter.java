@@ -0,0 +1,203 @@
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+
+/**
+ * Publishes {@link Metrics}:
+ *  - over JMX as smartreminder:type=Metrics, one read-only attribute per value
+ *    (counters, gauges, and count / errors / mean / p50 / p90 / p99 / max in ms per timer)
+ *  - as Prometheus text at http://127.0.0.1:&lt;port&gt;/metrics when smartreminder.metrics.port
+ *    is set; the server binds to loopback only
+ */
+public class MetricsExporter implements AutoCloseable {
+
+    static final String OBJECT_NAME = "smartreminder:type=Metrics";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final ObjectName objectName;
+    private final HttpServer http;
+
+    private MetricsExporter(ObjectName objectName, HttpServer http) {
+        this.objectName = objectName;
+        this.http = http;
+    }
+
+    /** Registers the MBean and starts the HTTP endpoint if a port is configured. */
+    public static MetricsExporter start() {
+        ObjectName name = null;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) server.registerMBean(new MetricsMBean(), name);
+        } catch (Exception e) {
+            e.printStackTrace();
+            name = null;
+        }
+
+        HttpServer http = null;
+        int port = Integer.getInteger("smartreminder.metrics.port", 0);
+        if (port > 0) {
+            try {
+                http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+                http.createContext("/metrics", ex -> {
+                    byte[] body = prometheus().getBytes(StandardCharsets.UTF_8);
+                    ex.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                    ex.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = ex.getResponseBody()) {
+                        out.write(body);
+                    }
+                });
+                http.setExecutor(Executors.newSingleThreadExecutor(r -> {
+                    Thread t = new Thread(r, "metrics-http");
+                    t.setDaemon(true);
+                    return t;
+                }));
+                http.start();
+                System.out.println("📈 Metrics at http://127.0.0.1:" + http.getAddress().getPort() + "/metrics");
+            } catch (IOException e) {
+                e.printStackTrace();
+                http = null;
+            }
+        }
+        return new MetricsExporter(name, http);
+    }
+
+    /** Port of the HTTP endpoint, or -1 when it is off. */
+    public int port() {
+        return http == null ? -1 : http.getAddress().getPort();
+    }
+
+    /** All metrics in the Prometheus text format (timers as summaries in seconds). */
+    public static String prometheus() {
+        StringBuilder sb = new StringBuilder(4096);
+        for (Map.Entry<String, Metrics.Counter> e : Metrics.counters().entrySet()) {
+            String n = "smartreminder_" + e.getKey() + "_total";
+            sb.append("# TYPE ").append(n).append(" counter\n");
+            sb.append(n).append(' ').append(e.getValue().get()).append('\n');
+        }
+        for (Map.Entry<String, LongSupplier> e : Metrics.gauges().entrySet()) {
+            String n = "smartreminder_" + e.getKey();
+            sb.append("# TYPE ").append(n).append(" gauge\n");
+            sb.append(n).append(' ').append(e.getValue().getAsLong()).append('\n');
+        }
+        for (Map.Entry<String, Metrics.Timer> e : Metrics.timers().entrySet()) {
+            summary(sb, e.getKey(), e.getValue().snapshot());
+            String n = "smartreminder_" + e.getKey() + "_errors_total";
+            sb.append("# TYPE ").append(n).append(" counter\n");
+            sb.append(n).append(' ').append(e.getValue().errors()).append('\n');
+        }
+        for (Map.Entry<String, LatencyHistogram> e : Metrics.histograms().entrySet()) {
+            summary(sb, e.getKey(), e.getValue().snapshot());
+        }
+        return sb.toString();
+    }
+
+    private static void summary(StringBuilder sb, String key, LatencyHistogram.Snapshot s) {
+        String n = "smartreminder_" + key + "_seconds";
+        sb.append("# TYPE ").append(n).append(" summary\n");
+        for (double q : QUANTILES) {
+            sb.append(n).append("{quantile=\"").append(q).append("\"} ").append(s.percentile(q) / 1e9).append('\n');
+        }
+        sb.append(n).append("_sum ").append(s.sumNanos / 1e9).append('\n');
+        sb.append(n).append("_count ").append(s.count).append('\n');
+        sb.append("smartreminder_").append(key).append("_max_seconds ").append(s.maxNanos / 1e9).append('\n');
+    }
+
+    /** Flat name → value view used by the MBean. */
+    static Map<String, Object> values() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        Metrics.counters().forEach((k, c) -> out.put(k, c.get()));
+        Metrics.gauges().forEach((k, g) -> out.put(k, g.getAsLong()));
+        Metrics.timers().forEach((k, t) -> {
+            putTimes(out, k, t.snapshot());
+            out.put(k + "_errors", t.errors());
+        });
+        Metrics.histograms().forEach((k, h) -> putTimes(out, k, h.snapshot()));
+        return out;
+    }
+
+    private static void putTimes(Map<String, Object> out, String key, LatencyHistogram.Snapshot s) {
+        out.put(key + "_count", s.count);
+        out.put(key + "_mean_ms", s.meanNanos() / 1e6);
+        out.put(key + "_p50_ms", s.percentile(0.5) / 1e6);
+        out.put(key + "_p90_ms", s.percentile(0.9) / 1e6);
+        out.put(key + "_p99_ms", s.percentile(0.99) / 1e6);
+        out.put(key + "_max_ms", s.maxNanos / 1e6);
+    }
+
+    @Override
+    public void close() {
+        if (http != null) http.stop(0);
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
+    // attributes come and go with the metrics, so the MBean info is rebuilt on every request
+    private static final class MetricsMBean implements DynamicMBean {
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Object v = values().get(attribute);
+            if (v == null) throw new AttributeNotFoundException(attribute);
+            return v;
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            Map<String, Object> all = values();
+            AttributeList list = new AttributeList();
+            for (String a : attributes) {
+                if (all.containsKey(a)) list.add(new Attribute(a, all.get(a)));
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) {
+            throw new UnsupportedOperationException("Metrics are read-only");
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException(actionName);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            Map<String, Object> all = values();
+            MBeanAttributeInfo[] attrs = new MBeanAttributeInfo[all.size()];
+            int i = 0;
+            for (Map.Entry<String, Object> e : all.entrySet()) {
+                attrs[i++] = new MBeanAttributeInfo(e.getKey(), e.getValue().getClass().getName(), e.getKey(),
+                        true, false, false);
+            }
+            return new MBeanInfo(MetricsExporter.class.getName(), "SmartReminder metrics", attrs, null, null, null);
+        }
+    }
+}
@@ -0,0 +1,799 @@
+import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * {@link TaskStore} on the MySQL tasks table.
+ * All calls go through one bounded {@link ConnectionPool}, so statements are prepared once per
+ * connection instead of once per call.
+ * Recurring tasks live in task_series (one row per series) and task_series_exceptions; they are
+ * read once into a {@link RecurrenceIndex} and their occurrences merged into query results.
+ */
+public class MySqlTaskStore implements TaskStore {
+    private static final String URL = "jdbc:mysql://localhost:3306/taskmanager?rewriteBatchedStatements=true";
+    private static final String USER = "root";   // change if needed
+    private static final String PASS = "";       // default XAMPP MySQL has no password
+
+    private static final String INSERT_SQL =
+            "INSERT INTO tasks (id, description, start_time, end_time) VALUES (?, ?, ?, ?)";
+    private static final String DELETE_SQL =
+            "DELETE FROM tasks WHERE id=?";
+    private static final String UPDATE_SQL =
+            "UPDATE tasks SET description=?, start_time=?, end_time=? WHERE id=?";
+    // bulk operations: "... id IN (?, ?, ...)", see inList
+    private static final String DELETE_IN_SQL = "DELETE FROM tasks WHERE id IN ";
+    private static final String COMPLETE_IN_SQL = "UPDATE tasks SET completed_at=? WHERE id IN ";
+    private static final int[] IN_SIZES = {1, 8, 64, 512};
+    // Half-open ranges [from, to) so the (start_time, end_time) index can be used
+    private static final String WINDOW_SQL =
+            "SELECT id, description, start_time, end_time FROM tasks" +
+            " WHERE start_time >= ? AND start_time < ? ORDER BY start_time";
+    // Timeless rows never expire; timed rows are live until their end has passed
+    private static final String LIVE_SQL =
+            "SELECT id, description, start_time, end_time FROM tasks" +
+            " WHERE (end_time >= ? OR end_time IS NULL) AND completed_at IS NULL ORDER BY start_time";
+    private static final String LIVE_TIMED_PAGE_SQL =
+            "SELECT id, description, start_time, end_time FROM tasks" +
+            " WHERE end_time >= ? AND (start_time > ? OR (start_time = ? AND id > ?)) AND completed_at IS NULL" +
+            " ORDER BY start_time, id LIMIT ?";
+    private static final String TIMELESS_PAGE_SQL =
+            "SELECT id, description, start_time, end_time FROM tasks" +
+            " WHERE end_time IS NULL AND id > ? AND completed_at IS NULL ORDER BY id LIMIT ?";
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1000, 1, 1, 0, 0); // DATETIME minimum
+    private static final String PENDING_REMINDERS_SQL =
+            "SELECT id, description, start_time, end_time, remind_lead_minutes FROM tasks" +
+            " WHERE start_time >= ? AND start_time < ? AND reminded_at IS NULL AND completed_at IS NULL" +
+            " ORDER BY start_time";
+    private static final String MARK_REMINDED_SQL =
+            "UPDATE tasks SET reminded_at=? WHERE id=?";
+    private static final String ALL_SQL =
+            "SELECT id, description, start_time, end_time FROM tasks";
+    private static final String TIMED_HISTORY_SQL =
+            "SELECT id, description, start_time, end_time FROM tasks WHERE start_time IS NOT NULL ORDER BY start_time";
+    private static final String ALL_BY_START_SQL =   // NULL (timeless) sorts first
+            "SELECT id, description, start_time, end_time FROM tasks ORDER BY start_time";
+    // retention: candidates, then copy + summaries + delete in one transaction
+    private static final String STARTING_BEFORE_SQL =
+            "SELECT id, description, start_time, end_time FROM tasks" +
+            " WHERE start_time < ? ORDER BY start_time, id LIMIT ?";
+    private static final String COMPLETED_TIMELESS_SQL =
+            "SELECT id, description, start_time, end_time FROM tasks" +
+            " WHERE completed_at < ? AND start_time IS NULL ORDER BY completed_at LIMIT ?";
+    private static final String ARCHIVE_IN_SQL =
+            "INSERT INTO tasks_archive (id, description, start_time, end_time, remind_lead_minutes," +
+            " reminded_at, completed_at, archived_at)" +
+            " SELECT id, description, start_time, end_time, remind_lead_minutes, reminded_at, completed_at, ?" +
+            " FROM tasks WHERE id IN ";
+    private static final String ADD_DAY_SUMMARY_SQL =
+            "INSERT INTO task_day_summary (task_day, activity, tasks, minutes) VALUES (?, ?, ?, ?)" +
+            " ON DUPLICATE KEY UPDATE tasks = tasks + VALUES(tasks), minutes = minutes + VALUES(minutes)";
+    private static final String ADD_LINK_SQL =
+            "INSERT INTO activity_links (from_activity, bucket, to_activity, links) VALUES (?, ?, ?, ?)" +
+            " ON DUPLICATE KEY UPDATE links = links + VALUES(links)";
+    private static final String DAY_SUMMARY_SQL =
+            "SELECT task_day, activity, tasks, minutes FROM task_day_summary";
+    private static final String LINKS_SQL =
+            "SELECT from_activity, bucket, to_activity, links FROM activity_links";
+    private static final String FIRST_PENDING_SQL =
+            "SELECT MIN(start_time) FROM tasks WHERE start_time >= ? AND reminded_at IS NULL AND completed_at IS NULL";
+    // recurring tasks
+    private static final String SERIES_SQL =
+            "SELECT id, description, start_time, end_time, rule, reminded_through FROM task_series";
+    private static final String EXCEPTIONS_SQL =
+            "SELECT series_id, occurrence_start FROM task_series_exceptions";
+    private static final String SAVE_SERIES_SQL =
+            "REPLACE INTO task_series (id, description, start_time, end_time, rule, reminded_through)" +
+            " VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_SERIES_SQL = "DELETE FROM task_series WHERE id=?";
+    private static final String DELETE_EXCEPTIONS_SQL = "DELETE FROM task_series_exceptions WHERE series_id=?";
+    private static final String SKIP_SQL =
+            "INSERT IGNORE INTO task_series_exceptions (series_id, occurrence_start) VALUES (?, ?)";
+    private static final String SERIES_REMINDED_SQL =
+            "UPDATE task_series SET reminded_through=? WHERE id=? AND (reminded_through IS NULL OR reminded_through < ?)";
+
+    static {
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver"); // load MySQL driver
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private final ConnectionPool pool;
+    private volatile RecurrenceIndex series;   // loaded on first use
+
+    public MySqlTaskStore(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /** Store on the local MySQL database, schema migrated. */
+    public static MySqlTaskStore open() {
+        int size = Integer.getInteger("smartreminder.db.poolSize", 4);
+        ConnectionPool pool = new ConnectionPool(URL, USER, PASS, size);
+        Metrics.gauge("db_pool_active", () -> pool.stats().active);
+        Metrics.gauge("db_pool_idle", () -> pool.stats().idle);
+        MySqlTaskStore s = new MySqlTaskStore(pool);
+        s.migrate();
+        return s;
+    }
+
+    @Override
+    public void saveTask(Task task) throws SQLException {
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            try {
+                PreparedStatement ps = pc.prepare(INSERT_SQL);
+                bindTask(ps, task);
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void deleteTask(Task task) throws SQLException {
+        if (RecurringTask.isOccurrenceId(task.getId())) {
+            skip(List.of(task.getId()));
+            return;
+        }
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            try {
+                PreparedStatement ps = pc.prepare(DELETE_SQL);
+                ps.setLong(1, task.getId());
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) throws SQLException {
+        if (RecurringTask.isOccurrenceId(task.getId())) return;   // occurrences follow their series
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            try {
+                PreparedStatement ps = pc.prepare(UPDATE_SQL);
+                bindTimes(ps, 1, task);
+                ps.setLong(4, task.getId());
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Applies deletes (one IN statement per chunk) then inserts as a JDBC batch, in one transaction.
+     * Deleted occurrences become exceptions of their series in the same transaction.
+     */
+    @Override
+    public void applyBatch(List<Task> inserts, List<Task> deletes) throws SQLException {
+        List<Long> ids = new ArrayList<>(deletes.size());
+        List<RecurringTask.Occurrence> skipped = new ArrayList<>();
+        for (Task t : deletes) {
+            if (RecurringTask.isOccurrenceId(t.getId())) addOccurrence(skipped, t.getId());
+            else ids.add(t.getId());
+        }
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            Connection conn = pc.connection();
+            try {
+                conn.setAutoCommit(false);
+                if (!ids.isEmpty()) updateIn(pc, DELETE_IN_SQL, null, ids);
+                insertSkips(pc, skipped);
+                if (!inserts.isEmpty()) {
+                    PreparedStatement ps = pc.prepare(INSERT_SQL);
+                    for (Task t : inserts) {
+                        bindTask(ps, t);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e; // uncommitted work is rolled back when the connection is released
+            }
+        }
+        skipped(skipped);
+    }
+
+    @Override
+    public int deleteTasks(Collection<Long> ids) throws SQLException {
+        return bulk(DELETE_IN_SQL, null, rowIds(ids)) + skip(ids);
+    }
+
+    /** Completing an occurrence takes it out of its series, like deleting it. */
+    @Override
+    public int completeTasks(Collection<Long> ids, LocalDateTime completedAt) throws SQLException {
+        return bulk(COMPLETE_IN_SQL, Timestamp.valueOf(completedAt), rowIds(ids)) + skip(ids);
+    }
+
+    private int bulk(String sqlPrefix, Timestamp first, Collection<Long> ids) throws SQLException {
+        if (ids.isEmpty()) return 0;
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            Connection conn = pc.connection();
+            try {
+                conn.setAutoCommit(false);
+                int n = updateIn(pc, sqlPrefix, first, ids);
+                conn.commit();
+                return n;
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Runs "prefix IN (?, ...)" over the ids in chunks of up to 512. Short chunks are padded with
+     * a repeated id to the next size in IN_SIZES, so only four statement shapes get cached.
+     */
+    private static int updateIn(ConnectionPool.PooledConnection pc, String sqlPrefix, Timestamp first,
+                                Collection<Long> ids) throws SQLException {
+        long[] all = ids.stream().mapToLong(Long::longValue).distinct().toArray();
+        int changed = 0;
+        int max = IN_SIZES[IN_SIZES.length - 1];
+        for (int from = 0; from < all.length; from += max) {
+            int n = Math.min(max, all.length - from);
+            int size = IN_SIZES[0];
+            for (int s : IN_SIZES) {
+                size = s;
+                if (s >= n) break;
+            }
+            PreparedStatement ps = pc.prepare(sqlPrefix + inList(size));
+            int p = 1;
+            if (first != null) ps.setTimestamp(p++, first);
+            for (int i = 0; i < size; i++) ps.setLong(p++, all[from + Math.min(i, n - 1)]);
+            changed += ps.executeUpdate();
+        }
+        return changed;
+    }
+
+    private static String inList(int size) {
+        StringBuilder sb = new StringBuilder(size * 3 + 2).append('(');
+        for (int i = 0; i < size; i++) sb.append(i == 0 ? "?" : ", ?");
+        return sb.append(')').toString();
+    }
+
+    /** Brings the schema up to date; failures are logged so the app can still start offline. */
+    public void migrate() {
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            new SchemaMigrator().migrate(pc.connection());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Tasks starting in [from, to), ordered by start time. */
+    @Override
+    public List<Task> getTasksInWindow(LocalDateTime from, LocalDateTime to) throws SQLException {
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            try {
+                PreparedStatement ps = pc.prepare(WINDOW_SQL);
+                ps.setTimestamp(1, Timestamp.valueOf(from));
+                ps.setTimestamp(2, Timestamp.valueOf(to));
+                return RecurrenceIndex.merge(readTasks(ps), series().startingIn(from, to), Task::getStartTime);
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+    }
+
+    /** Timeless tasks plus timed tasks that have not ended before {@code now}, and each series' next occurrence. */
+    @Override
+    public List<Task> getLiveTasks(LocalDateTime now) throws SQLException {
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            try {
+                PreparedStatement ps = pc.prepare(LIVE_SQL);
+                ps.setTimestamp(1, Timestamp.valueOf(now));
+                return RecurrenceIndex.merge(readTasks(ps), series().live(now), Task::getStartTime);
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Same tasks as {@link #getLiveTasks}, delivered in keyset-paged batches for a streamed start-up:
+     * timed tasks by start (running and soonest first), the next occurrence of each series, then
+     * timeless ones. Each page holds a pooled connection only while it is read. Returns the number
+     * of tasks delivered.
+     */
+    @Override
+    public int streamLiveTasks(LocalDateTime now, int pageSize, Consumer<List<Task>> onPage) throws SQLException {
+        int total = 0;
+        LocalDateTime afterStart = KEYSET_START;
+        long afterId = 0;
+        while (true) {
+            List<Task> page = new ArrayList<>(pageSize);
+            try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+                try {
+                    PreparedStatement ps = pc.prepare(LIVE_TIMED_PAGE_SQL);
+                    ps.setTimestamp(1, Timestamp.valueOf(now));
+                    ps.setTimestamp(2, Timestamp.valueOf(afterStart));
+                    ps.setTimestamp(3, Timestamp.valueOf(afterStart));
+                    ps.setLong(4, afterId);
+                    ps.setInt(5, pageSize);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            Task t = readTask(rs);
+                            page.add(t);
+                            afterStart = t.getStartTime();
+                            afterId = rs.getLong("id");
+                        }
+                    }
+                } catch (SQLException e) {
+                    pc.markBrokenIf(e);
+                    throw e;
+                }
+            }
+            if (!page.isEmpty()) onPage.accept(page);
+            total += page.size();
+            if (page.size() < pageSize) break;
+        }
+
+        List<Task> occurrences = series().live(now);
+        for (int i = 0; i < occurrences.size(); i += pageSize) {
+            onPage.accept(new ArrayList<>(occurrences.subList(i, Math.min(occurrences.size(), i + pageSize))));
+        }
+        total += occurrences.size();
+
+        afterId = 0;
+        while (true) {
+            List<Task> page = new ArrayList<>(pageSize);
+            try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+                try {
+                    PreparedStatement ps = pc.prepare(TIMELESS_PAGE_SQL);
+                    ps.setLong(1, afterId);
+                    ps.setInt(2, pageSize);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            page.add(readTask(rs));
+                            afterId = rs.getLong("id");
+                        }
+                    }
+                } catch (SQLException e) {
+                    pc.markBrokenIf(e);
+                    throw e;
+                }
+            }
+            if (!page.isEmpty()) onPage.accept(page);
+            total += page.size();
+            if (page.size() < pageSize) break;
+        }
+        return total;
+    }
+
+    /** Unfired reminders for tasks starting in [from, to). */
+    @Override
+    public List<PendingReminder> getPendingReminders(LocalDateTime from, LocalDateTime to) throws SQLException {
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            try {
+                PreparedStatement ps = pc.prepare(PENDING_REMINDERS_SQL);
+                ps.setTimestamp(1, Timestamp.valueOf(from));
+                ps.setTimestamp(2, Timestamp.valueOf(to));
+                List<PendingReminder> out = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int lead = rs.getInt("remind_lead_minutes");
+                        Integer leadMinutes = rs.wasNull() ? null : lead;
+                        out.add(new PendingReminder(readTask(rs), leadMinutes));
+                    }
+                }
+                return RecurrenceIndex.merge(out, series().pending(from, to), r -> r.task.getStartTime());
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+    }
+
+    /** For an occurrence: the series' reminders are done up to that occurrence. */
+    @Override
+    public void markReminded(Task task, LocalDateTime firedAt) throws SQLException {
+        if (RecurringTask.isOccurrenceId(task.getId())) {
+            markSeriesReminded(task);
+            return;
+        }
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            try {
+                PreparedStatement ps = pc.prepare(MARK_REMINDED_SQL);
+                ps.setTimestamp(1, Timestamp.valueOf(firedAt));
+                ps.setLong(2, task.getId());
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public List<Task> getAllTasks() throws SQLException {
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            try {
+                return readTasks(pc.prepare(ALL_SQL));
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Streams every timed task in start order without holding the table in memory
+     * (Connector/J streams rows when the fetch size is Integer.MIN_VALUE).
+     */
+    @Override
+    public void forEachTimedTask(Consumer<Task> consumer) throws SQLException {
+        stream(TIMED_HISTORY_SQL, consumer);
+    }
+
+    /** Streams the whole table (for exports), like {@link #forEachTimedTask}. */
+    @Override
+    public void forEachTask(Consumer<Task> consumer) throws SQLException {
+        stream(ALL_BY_START_SQL, consumer);
+    }
+
+    private void stream(String sql, Consumer<Task> consumer) throws SQLException {
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            // not from the statement cache: a streaming result owns the connection until closed
+            try (PreparedStatement ps = pc.connection().prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(Integer.MIN_VALUE);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) consumer.accept(readTask(rs));
+                }
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public List<Task> getTasksStartingBefore(LocalDateTime before, int limit) throws SQLException {
+        return limited(STARTING_BEFORE_SQL, before, limit);
+    }
+
+    @Override
+    public List<Task> getCompletedTimelessTasks(LocalDateTime completedBefore, int limit) throws SQLException {
+        return limited(COMPLETED_TIMELESS_SQL, completedBefore, limit);
+    }
+
+    private List<Task> limited(String sql, LocalDateTime before, int limit) throws SQLException {
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            try {
+                PreparedStatement ps = pc.prepare(sql);
+                ps.setTimestamp(1, Timestamp.valueOf(before));
+                ps.setInt(2, limit);
+                return readTasks(ps);
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+    }
+
+    /** INSERT ... SELECT into tasks_archive, summary upserts, DELETE: one short transaction per call. */
+    @Override
+    public int archive(Collection<Long> ids, ArchiveSummary summary, LocalDateTime archivedAt) throws SQLException {
+        if (ids.isEmpty()) return 0;
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            Connection conn = pc.connection();
+            try {
+                conn.setAutoCommit(false);
+                updateIn(pc, ARCHIVE_IN_SQL, Timestamp.valueOf(archivedAt), ids);
+                if (!summary.days().isEmpty()) {
+                    PreparedStatement ps = pc.prepare(ADD_DAY_SUMMARY_SQL);
+                    for (ArchiveSummary.DayCount d : summary.days()) {
+                        ps.setDate(1, Date.valueOf(d.day));
+                        ps.setString(2, d.activity);
+                        ps.setInt(3, d.tasks);
+                        ps.setLong(4, d.minutes);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+                if (!summary.links().isEmpty()) {
+                    PreparedStatement ps = pc.prepare(ADD_LINK_SQL);
+                    for (ArchiveSummary.Link l : summary.links()) {
+                        ps.setString(1, l.from);
+                        ps.setInt(2, l.bucket);
+                        ps.setString(3, l.to);
+                        ps.setInt(4, l.count);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+                int moved = updateIn(pc, DELETE_IN_SQL, null, ids);
+                conn.commit();
+                return moved;
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public ArchiveSummary getArchiveSummary() throws SQLException {
+        ArchiveSummary s = new ArchiveSummary();
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            try {
+                try (ResultSet rs = pc.prepare(DAY_SUMMARY_SQL).executeQuery()) {
+                    while (rs.next()) {
+                        s.addDay(rs.getDate(1).toLocalDate(), rs.getString(2), rs.getInt(3), rs.getLong(4));
+                    }
+                }
+                try (ResultSet rs = pc.prepare(LINKS_SQL).executeQuery()) {
+                    while (rs.next()) s.addLink(rs.getString(1), rs.getInt(2), rs.getString(3), rs.getInt(4));
+                }
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+        return s;
+    }
+
+    @Override
+    public LocalDateTime firstPendingStart(LocalDateTime from) throws SQLException {
+        LocalDateTime first;
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            try {
+                PreparedStatement ps = pc.prepare(FIRST_PENDING_SQL);
+                ps.setTimestamp(1, Timestamp.valueOf(from));
+                try (ResultSet rs = ps.executeQuery()) {
+                    Timestamp t = rs.next() ? rs.getTimestamp(1) : null;
+                    first = t != null ? t.toLocalDateTime() : null;
+                }
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+        return RecurrenceIndex.earlier(first, series().firstPendingStart(from));
+    }
+
+    // ---------------- recurring tasks ----------------
+
+    /** Writes the series row and replaces its exceptions, in one transaction. */
+    @Override
+    public void saveSeries(RecurringTask s) throws SQLException {
+        RecurrenceIndex index = series();
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            Connection conn = pc.connection();
+            try {
+                conn.setAutoCommit(false);
+                PreparedStatement ps = pc.prepare(SAVE_SERIES_SQL);
+                ps.setLong(1, s.getId());
+                ps.setString(2, s.getDescription());
+                ps.setTimestamp(3, Timestamp.valueOf(s.getStart()));
+                ps.setTimestamp(4, Timestamp.valueOf(s.getStart().plus(s.getLength())));
+                ps.setString(5, s.getRule().toString());
+                ps.setTimestamp(6, s.getRemindedThrough() != null ? Timestamp.valueOf(s.getRemindedThrough()) : null);
+                ps.executeUpdate();
+                PreparedStatement del = pc.prepare(DELETE_EXCEPTIONS_SQL);
+                del.setLong(1, s.getId());
+                del.executeUpdate();
+                if (!s.getSkipped().isEmpty()) {
+                    PreparedStatement skip = pc.prepare(SKIP_SQL);
+                    for (LocalDateTime start : s.getSkipped()) {
+                        skip.setLong(1, s.getId());
+                        skip.setTimestamp(2, Timestamp.valueOf(start));
+                        skip.addBatch();
+                    }
+                    skip.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+        index.put(s);
+    }
+
+    @Override
+    public void deleteSeries(long seriesId) throws SQLException {
+        RecurrenceIndex index = series();
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            Connection conn = pc.connection();
+            try {
+                conn.setAutoCommit(false);
+                for (String sql : new String[]{DELETE_EXCEPTIONS_SQL, DELETE_SERIES_SQL}) {
+                    PreparedStatement ps = pc.prepare(sql);
+                    ps.setLong(1, seriesId);
+                    ps.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+        index.remove(seriesId);
+    }
+
+    @Override
+    public List<RecurringTask> getSeries() throws SQLException {
+        return series().all();
+    }
+
+    // the series index, read from the tables on first use
+    private RecurrenceIndex series() throws SQLException {
+        RecurrenceIndex index = series;
+        if (index != null) return index;
+        synchronized (this) {
+            if (series != null) return series;
+            index = new RecurrenceIndex();
+            try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+                try {
+                    Map<Long, NavigableSet<LocalDateTime>> skipped = new HashMap<>();
+                    try (ResultSet rs = pc.prepare(EXCEPTIONS_SQL).executeQuery()) {
+                        while (rs.next()) {
+                            skipped.computeIfAbsent(rs.getLong(1), k -> new TreeSet<>())
+                                    .add(rs.getTimestamp(2).toLocalDateTime());
+                        }
+                    }
+                    try (ResultSet rs = pc.prepare(SERIES_SQL).executeQuery()) {
+                        while (rs.next()) index.put(readSeries(rs, skipped));
+                    }
+                } catch (SQLException e) {
+                    pc.markBrokenIf(e);
+                    throw e;
+                }
+            }
+            series = index;
+            return index;
+        }
+    }
+
+    private static RecurringTask readSeries(ResultSet rs, Map<Long, NavigableSet<LocalDateTime>> skipped)
+            throws SQLException {
+        long id = rs.getLong("id");
+        TaskIds.observe(id);
+        LocalDateTime start = rs.getTimestamp("start_time").toLocalDateTime();
+        LocalDateTime end = rs.getTimestamp("end_time").toLocalDateTime();
+        Timestamp reminded = rs.getTimestamp("reminded_through");
+        return new RecurringTask(id, rs.getString("description"), start, Duration.between(start, end),
+                RecurrenceRule.parse(rs.getString("rule")), skipped.getOrDefault(id, new TreeSet<>()),
+                reminded != null ? reminded.toLocalDateTime() : null);
+    }
+
+    private static List<Long> rowIds(Collection<Long> ids) {
+        List<Long> rows = new ArrayList<>(ids.size());
+        for (long id : ids) {
+            if (!RecurringTask.isOccurrenceId(id)) rows.add(id);
+        }
+        return rows;
+    }
+
+    // the occurrence for this id, if its series is known here
+    private void addOccurrence(List<RecurringTask.Occurrence> out, long occurrenceId) throws SQLException {
+        RecurringTask.Occurrence o = series().occurrence(occurrenceId);
+        if (o != null) out.add(o);
+    }
+
+    // takes the occurrences among ids out of their series; returns how many were known
+    private int skip(Collection<Long> ids) throws SQLException {
+        List<RecurringTask.Occurrence> skipped = new ArrayList<>();
+        for (long id : ids) {
+            if (RecurringTask.isOccurrenceId(id)) addOccurrence(skipped, id);
+        }
+        if (skipped.isEmpty()) return 0;
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            try {
+                insertSkips(pc, skipped);
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+        skipped(skipped);
+        return skipped.size();
+    }
+
+    private static void insertSkips(ConnectionPool.PooledConnection pc, List<RecurringTask.Occurrence> skipped)
+            throws SQLException {
+        if (skipped.isEmpty()) return;
+        PreparedStatement ps = pc.prepare(SKIP_SQL);
+        for (RecurringTask.Occurrence o : skipped) {
+            ps.setLong(1, o.getSeriesId());
+            ps.setTimestamp(2, Timestamp.valueOf(o.getStartTime()));
+            ps.addBatch();
+        }
+        ps.executeBatch();
+    }
+
+    // once stored: the index follows
+    private void skipped(List<RecurringTask.Occurrence> skipped) throws SQLException {
+        RecurrenceIndex index = series();
+        for (RecurringTask.Occurrence o : skipped) index.update(o.getSeriesId(), s -> s.withSkipped(o.getStartTime()));
+    }
+
+    private void markSeriesReminded(Task occurrence) throws SQLException {
+        RecurrenceIndex index = series();
+        RecurringTask.Occurrence o = index.occurrence(occurrence.getId());
+        if (o == null) return;
+        try (ConnectionPool.PooledConnection pc = pool.acquire()) {
+            try {
+                PreparedStatement ps = pc.prepare(SERIES_REMINDED_SQL);
+                ps.setTimestamp(1, Timestamp.valueOf(o.getStartTime()));
+                ps.setLong(2, o.getSeriesId());
+                ps.setTimestamp(3, Timestamp.valueOf(o.getStartTime()));
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                pc.markBrokenIf(e);
+                throw e;
+            }
+        }
+        index.update(o.getSeriesId(), s -> s.withRemindedThrough(o.getStartTime()));
+    }
+
+    public ConnectionPool.Stats poolStats() {
+        return pool.stats();
+    }
+
+    @Override
+    public String stats() {
+        return "mysql " + pool.stats();
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    // id, description, start_time, end_time (timeless tasks store NULL times)
+    private static void bindTask(PreparedStatement ps, Task task) throws SQLException {
+        ps.setLong(1, task.getId());
+        bindTimes(ps, 2, task);
+    }
+
+    // description, start_time, end_time from parameter index {@code at}
+    private static void bindTimes(PreparedStatement ps, int at, Task task) throws SQLException {
+        ps.setString(at, task.getDescription());
+        if (task.hasTime()) {
+            ps.setTimestamp(at + 1, Timestamp.valueOf(task.getStartTime()));
+            ps.setTimestamp(at + 2, Timestamp.valueOf(task.getEndTime()));
+        } else {
+            ps.setNull(at + 1, Types.TIMESTAMP);
+            ps.setNull(at + 2, Types.TIMESTAMP);
+        }
+    }
+
+    private static List<Task> readTasks(PreparedStatement ps) throws SQLException {
+        List<Task> tasks = new ArrayList<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                tasks.add(readTask(rs));
+            }
+        }
+        return tasks;
+    }
+
+    static Task readTask(ResultSet rs) throws SQLException {
+        Timestamp s = rs.getTimestamp("start_time");
+        Timestamp e = rs.getTimestamp("end_time");
+        LocalDateTime start = s != null ? s.toLocalDateTime() : null;
+        LocalDateTime end = e != null ? e.toLocalDateTime() : null;
+        long id = rs.getLong("id");
+        TaskIds.observe(id);
+        return new Task(id, rs.getString("description"), start, end, false, start != null && end != null);
+    }
+}
@@ -0,0 +1,127 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * The recurring tasks of one store, and the occurrences they expand to.
+ *
+ * Both stores keep their series here once loaded and merge what it expands into their own
+ * query results, so occurrences show up in windows, live lists and pending reminders without
+ * a row per occurrence. Each view only expands the window it is asked for: cost is series ×
+ * occurrences in the window, never the whole future of a series.
+ */
+final class RecurrenceIndex {
+
+    // timeless (null start) first, like the stores' own orders
+    private static final Comparator<LocalDateTime> BY_START = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private final Map<Long, RecurringTask> series = new HashMap<>();
+    private final Map<Integer, Long> byKey = new HashMap<>();   // occurrence id key -> series id
+
+    synchronized void put(RecurringTask s) {
+        series.put(s.getId(), s);
+        Long other = byKey.putIfAbsent(RecurringTask.key(s.getId()), s.getId());
+        if (other != null && other != s.getId()) {
+            // 31-bit keys: practically never, but then the newer series' occurrences can't be found by id
+            System.out.println("⚠ Series " + other + " and " + s.getId() + " share occurrence ids");
+        }
+    }
+
+    synchronized RecurringTask remove(long id) {
+        byKey.remove(RecurringTask.key(id), id);
+        return series.remove(id);
+    }
+
+    /** Replaces the series with {@code change} of it, if it is here. */
+    synchronized void update(long id, UnaryOperator<RecurringTask> change) {
+        series.computeIfPresent(id, (k, s) -> change.apply(s));
+    }
+
+    synchronized RecurringTask get(long id) {
+        return series.get(id);
+    }
+
+    synchronized List<RecurringTask> all() {
+        return new ArrayList<>(series.values());
+    }
+
+    synchronized int size() {
+        return series.size();
+    }
+
+    /** The occurrence an id stands for, or null if its series is gone (or not from this store). */
+    synchronized RecurringTask.Occurrence occurrence(long occurrenceId) {
+        if (!RecurringTask.isOccurrenceId(occurrenceId)) return null;
+        Long id = byKey.get(RecurringTask.keyOf(occurrenceId));
+        RecurringTask s = id == null ? null : series.get(id);
+        return s == null ? null : s.occurrenceFor(occurrenceId);
+    }
+
+    /** Occurrences starting in [from, to), by start. */
+    synchronized List<Task> startingIn(LocalDateTime from, LocalDateTime to) {
+        List<Task> out = new ArrayList<>();
+        if (!from.isBefore(to)) return out;
+        for (RecurringTask s : series.values()) s.forEachOccurrence(from, to, out::add);
+        out.sort(Comparator.comparing(Task::getStartTime));
+        return out;
+    }
+
+    /** The running or next occurrence of each series, by start. */
+    synchronized List<Task> live(LocalDateTime now) {
+        List<Task> out = new ArrayList<>();
+        for (RecurringTask s : series.values()) {
+            Task next = s.next(now);
+            if (next != null) out.add(next);
+        }
+        out.sort(Comparator.comparing(Task::getStartTime));
+        return out;
+    }
+
+    /** Occurrences starting in [from, to) whose reminder has not fired, by start. */
+    synchronized List<TaskStore.PendingReminder> pending(LocalDateTime from, LocalDateTime to) {
+        List<TaskStore.PendingReminder> out = new ArrayList<>();
+        if (!from.isBefore(to)) return out;
+        for (RecurringTask s : series.values()) {
+            LocalDateTime after = s.getRemindedThrough();
+            s.forEachOccurrence(from, to, o -> {
+                if (after == null || o.getStartTime().isAfter(after)) out.add(new TaskStore.PendingReminder(o, null));
+            });
+        }
+        out.sort(Comparator.comparing(r -> r.task.getStartTime()));
+        return out;
+    }
+
+    /** Earliest unfired occurrence from {@code from} on, or null. */
+    synchronized LocalDateTime firstPendingStart(LocalDateTime from) {
+        LocalDateTime first = null;
+        for (RecurringTask s : series.values()) first = earlier(first, s.firstPendingStart(from));
+        return first;
+    }
+
+    static LocalDateTime earlier(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        return b == null || a.isBefore(b) ? a : b;
+    }
+
+    /** Merges two lists ordered by start (timeless first); ties keep {@code rows} first. */
+    static <T> List<T> merge(List<T> rows, List<T> occurrences, Function<T, LocalDateTime> start) {
+        if (occurrences.isEmpty()) return rows;
+        List<T> out = new ArrayList<>(rows.size() + occurrences.size());
+        int i = 0, j = 0;
+        while (i < rows.size() && j < occurrences.size()) {
+            if (BY_START.compare(start.apply(occurrences.get(j)), start.apply(rows.get(i))) < 0) {
+                out.add(occurrences.get(j++));
+            } else {
+                out.add(rows.get(i++));
+            }
+        }
+        out.addAll(rows.subList(i, rows.size()));
+        out.addAll(occurrences.subList(j, occurrences.size()));
+        return out;
+    }
+}
@@ -0,0 +1,202 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * When a {@link RecurringTask} repeats: every N days, or every N weeks on some weekdays,
+ * optionally until a date (inclusive) or for a number of occurrences.
+ *
+ * Stored as a subset of an iCalendar RRULE (FREQ=DAILY|WEEKLY, INTERVAL, BYDAY, UNTIL as a date,
+ * COUNT), see {@link #toString()} / {@link #parse}. Occurrences are numbered from 0 (the first
+ * one) and computed arithmetically, so finding the occurrences of a window never walks the
+ * ones before it. A weekly rule without weekdays repeats on the first occurrence's weekday.
+ */
+public final class RecurrenceRule {
+
+    public enum Frequency { DAILY, WEEKLY }
+
+    private static final DateTimeFormatter UNTIL_FMT = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final String[] BYDAY = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
+    private final Frequency frequency;
+    private final int interval;
+    private final int[] days;          // weekly: ISO day numbers 1..7, sorted; empty = first's weekday
+    private final LocalDate until;     // null = no end date
+    private final int count;           // 0 = unlimited
+
+    private RecurrenceRule(Frequency frequency, int interval, int[] days, LocalDate until, int count) {
+        if (interval < 1 || count < 0) throw new IllegalArgumentException("interval >= 1, count >= 0");
+        this.frequency = frequency;
+        this.interval = interval;
+        this.days = days;
+        this.until = until;
+        this.count = count;
+    }
+
+    public static RecurrenceRule daily(int interval) {
+        return new RecurrenceRule(Frequency.DAILY, interval, new int[0], null, 0);
+    }
+
+    /** Every {@code interval} weeks on these days; empty means the first occurrence's weekday. */
+    public static RecurrenceRule weekly(int interval, Set<DayOfWeek> on) {
+        return new RecurrenceRule(Frequency.WEEKLY, interval, on.stream().mapToInt(DayOfWeek::getValue).sorted().toArray(),
+                null, 0);
+    }
+
+    public static RecurrenceRule weekdays() {
+        return weekly(1, EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+    }
+
+    public RecurrenceRule until(LocalDate lastDay) {
+        return new RecurrenceRule(frequency, interval, days, lastDay, count);
+    }
+
+    public RecurrenceRule times(int occurrences) {
+        return new RecurrenceRule(frequency, interval, days, until, occurrences);
+    }
+
+    public Frequency frequency() {
+        return frequency;
+    }
+
+    public LocalDate until() {
+        return until;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /** Reads what {@link #toString()} writes (keys in any order, unknown keys rejected). */
+    public static RecurrenceRule parse(String rrule) {
+        Frequency frequency = null;
+        int interval = 1, count = 0;
+        int[] days = new int[0];
+        LocalDate until = null;
+        for (String part : rrule.trim().toUpperCase(Locale.ROOT).split(";")) {
+            int eq = part.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Bad recurrence: " + rrule);
+            String value = part.substring(eq + 1);
+            switch (part.substring(0, eq)) {
+                case "FREQ": frequency = Frequency.valueOf(value); break;
+                case "INTERVAL": interval = Integer.parseInt(value); break;
+                case "COUNT": count = Integer.parseInt(value); break;
+                case "UNTIL": until = LocalDate.parse(value.substring(0, 8), UNTIL_FMT); break;
+                case "BYDAY":
+                    days = Arrays.stream(value.split(",")).mapToInt(d -> Arrays.asList(BYDAY).indexOf(d) + 1).sorted().toArray();
+                    if (days.length > 0 && days[0] < 1) throw new IllegalArgumentException("Bad BYDAY: " + value);
+                    break;
+                default: throw new IllegalArgumentException("Unsupported recurrence part: " + part);
+            }
+        }
+        if (frequency == null) throw new IllegalArgumentException("Recurrence without FREQ: " + rrule);
+        return new RecurrenceRule(frequency, interval, frequency == Frequency.WEEKLY ? days : new int[0], until, count);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("FREQ=").append(frequency);
+        if (interval > 1) sb.append(";INTERVAL=").append(interval);
+        if (days.length > 0) {
+            sb.append(";BYDAY=");
+            for (int i = 0; i < days.length; i++) sb.append(i == 0 ? "" : ",").append(BYDAY[days[i] - 1]);
+        }
+        if (until != null) sb.append(";UNTIL=").append(until.format(UNTIL_FMT));
+        if (count > 0) sb.append(";COUNT=").append(count);
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RecurrenceRule && o.toString().equals(toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+
+    /** "every weekday", "every 2 weeks on Mon, Thu until 2026-12-31", "every day, 10 times" */
+    public String describe() {
+        StringBuilder sb = new StringBuilder("every ");
+        if (frequency == Frequency.DAILY) {
+            sb.append(interval == 1 ? "day" : interval + " days");
+        } else if (interval == 1 && Arrays.equals(days, new int[]{1, 2, 3, 4, 5})) {
+            sb.append("weekday");
+        } else {
+            sb.append(interval == 1 ? "week" : interval + " weeks");
+            for (int i = 0; i < days.length; i++) {
+                String name = DayOfWeek.of(days[i]).name();
+                sb.append(i == 0 ? " on " : ", ").append(name.charAt(0)).append(name.substring(1, 3).toLowerCase(Locale.ROOT));
+            }
+        }
+        if (until != null) sb.append(" until ").append(until);
+        if (count > 0) sb.append(", ").append(count).append(" times");
+        return sb.toString();
+    }
+
+    // ---------------- occurrence arithmetic (dates relative to the first occurrence's) ----------------
+
+    /** First date on or after {@code day} the rule can start on (a listed weekday for weekly rules). */
+    public LocalDate firstOnOrAfter(LocalDate day) {
+        if (frequency == Frequency.DAILY || days.length == 0) return day;
+        for (int i = 0; i < 7; i++) {
+            LocalDate d = day.plusDays(i);
+            if (Arrays.binarySearch(days, d.getDayOfWeek().getValue()) >= 0) return d;
+        }
+        throw new IllegalStateException("no weekday in " + this);
+    }
+
+    /** Date of occurrence {@code n}, ignoring until/count; {@code first} must be a date the rule starts on. */
+    LocalDate date(LocalDate first, long n) {
+        if (frequency == Frequency.DAILY) return first.plusDays(n * interval);
+        int[] d = weekDays(first);
+        int k = d.length, inFirstWeek = inFirstWeek(first, d);
+        LocalDate monday = first.minusDays(first.getDayOfWeek().getValue() - 1);
+        if (n < inFirstWeek) return monday.plusDays(d[k - inFirstWeek + (int) n] - 1);
+        long m = n - inFirstWeek;
+        return monday.plusWeeks((m / k + 1) * interval).plusDays(d[(int) (m % k)] - 1);
+    }
+
+    /** Index of the first occurrence on or after {@code day}, ignoring until/count. */
+    long firstIndexOnOrAfter(LocalDate first, LocalDate day) {
+        if (!day.isAfter(first)) return 0;
+        if (frequency == Frequency.DAILY) {
+            return Math.floorDiv(ChronoUnit.DAYS.between(first, day) + interval - 1, interval);
+        }
+        int[] d = weekDays(first);
+        int k = d.length, inFirstWeek = inFirstWeek(first, d);
+        LocalDate monday = first.minusDays(first.getDayOfWeek().getValue() - 1);
+        long weeks = Math.floorDiv(ChronoUnit.DAYS.between(monday, day), 7);
+        long period = weeks / interval;
+        if (weeks % interval != 0) return inFirstWeek + period * k;   // between periods: next one's first
+        long base = period == 0 ? 0 : inFirstWeek + (period - 1) * k;
+        int from = period == 0 ? k - inFirstWeek : 0;
+        LocalDate periodMonday = monday.plusWeeks(period * interval);
+        for (int j = from; j < k; j++) {
+            if (!periodMonday.plusDays(d[j] - 1).isBefore(day)) return base + j - from;
+        }
+        return base + k - from;
+    }
+
+    /** Whether occurrence {@code n} on {@code date} is within count and until. */
+    boolean includes(long n, LocalDate date) {
+        return (count == 0 || n < count) && (until == null || !date.isAfter(until));
+    }
+
+    private int[] weekDays(LocalDate first) {
+        return days.length > 0 ? days : new int[]{first.getDayOfWeek().getValue()};
+    }
+
+    // occurrences in the first week, from the first occurrence's weekday on
+    private static int inFirstWeek(LocalDate first, int[] d) {
+        int dow = first.getDayOfWeek().getValue(), n = 0;
+        for (int x : d) if (x >= dow) n++;
+        return n;
+    }
+}
@@ -0,0 +1,181 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * A task that repeats ("Wake up every day at 6 AM"), stored once instead of a row per day.
+ *
+ * The series keeps its first occurrence (start and length), the {@link RecurrenceRule}, the
+ * occurrences taken out of it (deleted or completed one at a time) and how far its reminders
+ * have fired. Occurrences are made on demand for the window asked for, as {@link Occurrence}
+ * tasks; nothing is stored per occurrence.
+ *
+ * Occurrence ids are negative, so they never clash with row ids, and are worked out from the
+ * stored series id and the occurrence index alone: a 31-bit key mixed from the series id above
+ * the 32-bit index. The same occurrence gets the same id after a restart, so ids handed out
+ * (e.g. by the server's HTTP API) stay valid; {@link RecurrenceIndex} maps keys back to series.
+ *
+ * Immutable: the with* methods return the changed series.
+ */
+public final class RecurringTask {
+
+    private static final DateTimeFormatter TIME_FMT = DateTimeFormatter.ofPattern("hh:mm a");
+
+    // occurrence ids: -(key << 32 | index)
+    private static final long MAX_INDEX = 0xFFFF_FFFFL;
+
+    /** One occurrence of a series, as a timed task with its own (negative) id. */
+    public static final class Occurrence extends Task {
+        private final long seriesId;
+        private final long index;
+        private String displayText;
+
+        Occurrence(long seriesId, long index, String description, LocalDateTime start, LocalDateTime end) {
+            super(occurrenceId(seriesId, index), description, start, end, false, true);
+            this.seriesId = seriesId;
+            this.index = index;
+        }
+
+        public long getSeriesId() {
+            return seriesId;
+        }
+
+        public long getIndex() {
+            return index;
+        }
+
+        @Override
+        public String getDisplayText() {
+            String text = displayText;
+            if (text == null) displayText = text = "🔁 " + super.getDisplayText();
+            return text;
+        }
+    }
+
+    private final long id;
+    private final String description;
+    private final LocalDateTime start;           // first occurrence
+    private final Duration length;
+    private final RecurrenceRule rule;
+    private final NavigableSet<LocalDateTime> skipped;
+    private final LocalDateTime remindedThrough;  // reminders fired for occurrences starting up to here
+
+    /** A new series; the first occurrence moves to the first day the rule allows. */
+    public RecurringTask(String description, LocalDateTime start, LocalDateTime end, RecurrenceRule rule) {
+        this(TaskIds.next(), description, rule.firstOnOrAfter(start.toLocalDate()).atTime(start.toLocalTime()),
+                Duration.between(start, end), rule, Collections.emptyNavigableSet(), null);
+    }
+
+    /** A series read back from a store. */
+    public RecurringTask(long id, String description, LocalDateTime start, Duration length, RecurrenceRule rule,
+                         NavigableSet<LocalDateTime> skipped, LocalDateTime remindedThrough) {
+        if (length.isNegative()) throw new IllegalArgumentException("end before start");
+        this.id = id;
+        this.description = description.trim();
+        this.start = start;
+        this.length = length;
+        this.rule = rule;
+        this.skipped = Collections.unmodifiableNavigableSet(new TreeSet<>(skipped));
+        this.remindedThrough = remindedThrough;
+    }
+
+    public long getId() { return id; }
+    public String getDescription() { return description; }
+    public LocalDateTime getStart() { return start; }
+    public Duration getLength() { return length; }
+    public RecurrenceRule getRule() { return rule; }
+    public NavigableSet<LocalDateTime> getSkipped() { return skipped; }
+    public LocalDateTime getRemindedThrough() { return remindedThrough; }
+
+    /** "Gym (every weekday at 06:00 PM)" */
+    public String getDisplayText() {
+        return description + " (" + rule.describe() + " at " + start.format(TIME_FMT) + ")";
+    }
+
+    public RecurringTask withSkipped(LocalDateTime occurrenceStart) {
+        NavigableSet<LocalDateTime> s = new TreeSet<>(skipped);
+        s.add(occurrenceStart);
+        return new RecurringTask(id, description, start, length, rule, s, remindedThrough);
+    }
+
+    public RecurringTask withRemindedThrough(LocalDateTime occurrenceStart) {
+        if (remindedThrough != null && !occurrenceStart.isAfter(remindedThrough)) return this;
+        return new RecurringTask(id, description, start, length, rule, skipped, occurrenceStart);
+    }
+
+    // ---------------- occurrences ----------------
+
+    /** Occurrence {@code index}, or null if the rule ends before it (skipped ones included). */
+    public Occurrence occurrence(long index) {
+        if (index < 0 || index > MAX_INDEX) return null;
+        LocalDateTime s = rule.date(start.toLocalDate(), index).atTime(start.toLocalTime());
+        if (!rule.includes(index, s.toLocalDate())) return null;
+        return new Occurrence(id, index, description, s, s.plus(length));
+    }
+
+    /** Occurrences starting in [from, to), in order, without the skipped ones. */
+    public void forEachOccurrence(LocalDateTime from, LocalDateTime to, Consumer<Occurrence> action) {
+        for (long n = rule.firstIndexOnOrAfter(start.toLocalDate(), from.toLocalDate()); ; n++) {
+            Occurrence o = occurrence(n);
+            if (o == null || !o.getStartTime().isBefore(to)) return;
+            if (!o.getStartTime().isBefore(from) && !skipped.contains(o.getStartTime())) action.accept(o);
+        }
+    }
+
+    /** The running or next occurrence at {@code now} (not skipped), or null if the series is over. */
+    public Occurrence next(LocalDateTime now) {
+        LocalDateTime endsAfter = now.minus(length);
+        for (long n = rule.firstIndexOnOrAfter(start.toLocalDate(), endsAfter.toLocalDate()); ; n++) {
+            Occurrence o = occurrence(n);
+            if (o == null) return null;
+            if (o.getEndTime().isAfter(now) && !skipped.contains(o.getStartTime())) return o;
+        }
+    }
+
+    /** Start of the first occurrence from {@code from} on whose reminder has not fired, or null. */
+    public LocalDateTime firstPendingStart(LocalDateTime from) {
+        LocalDateTime after = remindedThrough != null && !remindedThrough.isBefore(from) ? remindedThrough : null;
+        LocalDateTime day = after != null ? after : from;
+        for (long n = rule.firstIndexOnOrAfter(start.toLocalDate(), day.toLocalDate()); ; n++) {
+            Occurrence o = occurrence(n);
+            if (o == null) return null;
+            LocalDateTime s = o.getStartTime();
+            if (!s.isBefore(from) && (after == null || s.isAfter(after)) && !skipped.contains(s)) return s;
+        }
+    }
+
+    /** The occurrence with this id if it belongs to this series (and exists). */
+    public Occurrence occurrenceFor(long occurrenceId) {
+        return isOccurrenceId(occurrenceId) && keyOf(occurrenceId) == key(id) ? occurrence(indexOf(occurrenceId)) : null;
+    }
+
+    // ---------------- occurrence ids ----------------
+
+    public static boolean isOccurrenceId(long id) {
+        return id < 0;
+    }
+
+    /** The key of a series' occurrence ids: never 0, so no occurrence id is 0 either. */
+    static int key(long seriesId) {
+        long h = seriesId * 0x9E3779B97F4A7C15L; // Fibonacci hashing: the top bits depend on all of the id
+        int k = (int) (h >>> 33);
+        return k != 0 ? k : 1;
+    }
+
+    /** Key of the series an occurrence id belongs to. */
+    static int keyOf(long occurrenceId) {
+        return (int) (-occurrenceId >>> 32);
+    }
+
+    static long indexOf(long occurrenceId) {
+        return -occurrenceId & MAX_INDEX;
+    }
+
+    static long occurrenceId(long seriesId, long index) {
+        return -(((long) key(seriesId) << 32) | index);
+    }
+}
@@ -0,0 +1,203 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Reminder engine on top of a {@link TimerWheel}.
+ *
+ *  - arm / cancel are O(1); one wheel thread ticks once per second for all reminders
+ *  - reminder state is durable: pending reminders are read back from the tasks table,
+ *    but only for tasks starting within the next {@code horizon}; the window is topped up
+ *    periodically, so memory stays proportional to the near future, not to all pending tasks
+ *  - reminders missed while the app was down fire late on startup if the task has not started yet
+ *  - the lead time defaults to smartreminder.reminder.leadMinutes; {@link #arm(Task, Duration)} takes
+ *    another for one reminder until restart. Nothing in the app writes remind_lead_minutes, but a
+ *    row that has it set (by hand) gets that lead when reloaded
+ *  - firing lateness is tracked and exposed through {@link #stats()}, the reminder_lateness
+ *    histogram and a JFR event per reminder
+ *  - reminders are keyed by task id, so two identical tasks each get their own
+ */
+public final class ReminderScheduler implements AutoCloseable {
+
+    private final TaskStore store;
+    private final Consumer<Task> onFire;
+    private final Duration defaultLead;
+    private final Duration horizon;
+
+    private final TimerWheel<Task> wheel;
+    private final Map<Long, TimerWheel.Timeout<Task>> armed = new HashMap<>();
+    private LocalDateTime loadedUntil;
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "reminder-wheel");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ExecutorService firing = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "reminder-fire");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final LongAdder fired = new LongAdder();
+    private final LongAdder latenessMillis = new LongAdder();
+    private final AtomicLong maxLatenessMillis = new AtomicLong();
+    private static final LatencyHistogram LATENESS = Metrics.histogram("reminder_lateness");
+
+    public ReminderScheduler(TaskStore store, Consumer<Task> onFire) {
+        this(store, onFire,
+                Duration.ofMinutes(Long.getLong("smartreminder.reminder.leadMinutes", 10L)),
+                Duration.ofHours(Long.getLong("smartreminder.reminder.horizonHours", 24L)));
+    }
+
+    public ReminderScheduler(TaskStore store, Consumer<Task> onFire, Duration defaultLead, Duration horizon) {
+        this.store = store;
+        this.onFire = onFire;
+        this.defaultLead = defaultLead;
+        this.horizon = horizon;
+        this.wheel = new TimerWheel<>(1000, System.currentTimeMillis());
+        Metrics.gauge("reminders_pending", this::pending);
+    }
+
+    /** Loads the first window from the DB and starts ticking. */
+    public void start() {
+        ticker.execute(this::refill);
+        long toNextSecond = 1000 - System.currentTimeMillis() % 1000; // tick on wall-clock second boundaries
+        ticker.scheduleAtFixedRate(this::tick, toNextSecond, 1000, TimeUnit.MILLISECONDS);
+        long refillMinutes = Math.max(1, horizon.toMinutes() / 2);
+        ticker.scheduleAtFixedRate(this::refill, refillMinutes, refillMinutes, TimeUnit.MINUTES);
+    }
+
+    /** Arms a reminder with the default lead time. */
+    public boolean arm(Task task) {
+        return arm(task, defaultLead, false);
+    }
+
+    /** Arms a reminder with its own lead time; not stored, a reload uses the row's lead or the default. */
+    public boolean arm(Task task, Duration lead) {
+        return arm(task, lead, false);
+    }
+
+    private synchronized boolean arm(Task task, Duration lead, boolean fireIfLate) {
+        if (task == null || !task.hasTime()) return false;
+        LocalDateTime now = LocalDateTime.now();
+        if (!task.getStartTime().isAfter(now)) return false;
+        // beyond the loaded window: the next refill will pick it up from the DB
+        LocalDateTime limit = loadedUntil != null ? loadedUntil : now.plus(horizon);
+        if (!task.getStartTime().isBefore(limit)) return false;
+
+        LocalDateTime fireAt = task.getStartTime().minus(lead);
+        if (!fireIfLate && !fireAt.isAfter(now)) return false;
+
+        TimerWheel.Timeout<Task> previous = armed.remove(task.getId());
+        if (previous != null) wheel.cancel(previous);
+        armed.put(task.getId(), wheel.schedule(task, toMillis(fireAt)));
+        return true;
+    }
+
+    public synchronized boolean cancel(Task task) {
+        TimerWheel.Timeout<Task> t = armed.remove(task.getId());
+        return t != null && wheel.cancel(t);
+    }
+
+    /** Cancels every armed occurrence of a recurring task; returns how many there were. */
+    public synchronized int cancelSeries(long seriesId) {
+        int n = 0;
+        for (Iterator<TimerWheel.Timeout<Task>> it = armed.values().iterator(); it.hasNext(); ) {
+            TimerWheel.Timeout<Task> t = it.next();
+            if (t.payload() instanceof RecurringTask.Occurrence o && o.getSeriesId() == seriesId) {
+                wheel.cancel(t);
+                it.remove();
+                n++;
+            }
+        }
+        return n;
+    }
+
+    public synchronized int pending() {
+        return wheel.size();
+    }
+
+    private void tick() {
+        List<TimerWheel.Timeout<Task>> due = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            wheel.advanceTo(now, due::add);
+            for (TimerWheel.Timeout<Task> t : due) armed.remove(t.payload().getId(), t);
+        }
+        for (TimerWheel.Timeout<Task> t : due) {
+            long late = Math.max(0, now - t.deadlineMillis());
+            fired.increment();
+            latenessMillis.add(late);
+            maxLatenessMillis.accumulateAndGet(late, Math::max);
+            LATENESS.record(late * 1_000_000);
+            Metrics.ReminderFiredEvent event = new Metrics.ReminderFiredEvent();
+            if (event.shouldCommit()) {
+                event.taskId = t.payload().getId();
+                event.latenessMillis = late;
+                event.commit();
+            }
+            firing.execute(() -> fire(t.payload(), late));
+        }
+    }
+
+    private void fire(Task task, long lateMillis) {
+        try {
+            onFire.accept(task);
+            System.out.println("⏰ Reminder fired for: " + task.getDescription() + " (late by " + lateMillis + " ms)");
+            if (store != null) store.markReminded(task, LocalDateTime.now());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Pulls unfired reminders for tasks starting up to now + horizon into the wheel. */
+    private void refill() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from;
+        LocalDateTime until = now.plus(horizon);
+        synchronized (this) {
+            from = loadedUntil != null && loadedUntil.isAfter(now) ? loadedUntil : now;
+            loadedUntil = until;
+        }
+        if (store == null || !from.isBefore(until)) return;
+        try {
+            int count = 0;
+            for (TaskStore.PendingReminder r : store.getPendingReminders(from, until)) {
+                Duration lead = r.leadMinutes != null ? Duration.ofMinutes(r.leadMinutes) : defaultLead;
+                if (arm(r.task, lead, true)) count++;
+            }
+            if (count > 0) System.out.println("⏰ Loaded " + count + " reminder(s) up to " + until);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    public String stats() {
+        long n = fired.sum();
+        return String.format("reminders[pending=%d fired=%d avgLate=%dms maxLate=%dms]",
+                pending(), n, n == 0 ? 0 : latenessMillis.sum() / n, maxLatenessMillis.get());
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+        firing.shutdown();
+    }
+
+    private static long toMillis(LocalDateTime t) {
+        return t.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,142 @@
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduled retention: keeps the tasks table to recent and live rows.
+ *
+ *  - timed tasks are archived by whole days once the day is more than
+ *    smartreminder.retention.days old (default 90, 0 turns retention off)
+ *  - timeless tasks are archived once completed more than smartreminder.retention.completedDays
+ *    ago (default 7); uncompleted timeless tasks are never archived
+ *  - each {@link TaskStore#archive} call moves at most about smartreminder.retention.chunk rows
+ *    (default 500) in its own short transaction, with a pause between chunks, so a large first
+ *    run does not hold locks or starve the app
+ *  - per-day counts and activity links of archived days are kept ({@link ArchiveSummary});
+ *    seed the {@link ActivityModel} from {@link TaskStore#getArchiveSummary()} so suggestions
+ *    keep their history
+ *
+ * Runs shortly after start-up, then every smartreminder.retention.intervalHours (default 24).
+ */
+public class RetentionJob implements AutoCloseable {
+
+    private static final long PAUSE_MILLIS = 50;   // between chunks
+
+    private final TaskStore store;
+    private final int retentionDays;
+    private final int completedDays;
+    private final int chunk;
+
+    private final ScheduledExecutorService runner = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "task-retention");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // updated by runOnce, one pass at a time
+    private volatile long runs, archivedTimed, archivedTimeless, lastRunMillis;
+
+    public RetentionJob(TaskStore store) {
+        this(store, Integer.getInteger("smartreminder.retention.days", 90),
+                Integer.getInteger("smartreminder.retention.completedDays", 7),
+                Integer.getInteger("smartreminder.retention.chunk", 500));
+    }
+
+    public RetentionJob(TaskStore store, int retentionDays, int completedDays, int chunk) {
+        this.store = store;
+        this.retentionDays = retentionDays;
+        this.completedDays = completedDays;
+        this.chunk = Math.max(1, chunk);
+    }
+
+    /** Schedules the job unless retention is turned off; returns whether it was scheduled. */
+    public boolean start() {
+        if (retentionDays <= 0) return false;
+        long hours = Math.max(1, Long.getLong("smartreminder.retention.intervalHours", 24L));
+        runner.scheduleWithFixedDelay(() -> {
+            try {
+                runOnce(LocalDateTime.now());
+            } catch (SQLException e) {
+                e.printStackTrace();   // try again next interval
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 60, hours * 3600, TimeUnit.SECONDS);
+        return true;
+    }
+
+    /** One full pass; returns the number of rows archived. */
+    public synchronized int runOnce(LocalDateTime now) throws SQLException, InterruptedException {
+        long t0 = System.nanoTime();
+        int timed = archiveOldDays(now.toLocalDate().minusDays(retentionDays));
+        int timeless = archiveCompleted(now.minusDays(completedDays));
+        runs++;
+        archivedTimed += timed;
+        archivedTimeless += timeless;
+        lastRunMillis = (System.nanoTime() - t0) / 1_000_000;
+        if (timed + timeless > 0) {
+            System.out.printf("🗄 Archived %d old and %d completed tasks in %d ms%n", timed, timeless, lastRunMillis);
+        }
+        return timed + timeless;
+    }
+
+    // whole days only, so every archived day's links are counted exactly once
+    private int archiveOldDays(LocalDate cutoffDay) throws SQLException, InterruptedException {
+        LocalDateTime cutoff = cutoffDay.atStartOfDay();
+        int total = 0;
+        while (true) {
+            List<Task> batch = store.getTasksStartingBefore(cutoff, chunk + 1);
+            if (batch.isEmpty()) return total;
+            if (batch.size() > chunk) {
+                LocalDate lastDay = batch.get(chunk).getStartTime().toLocalDate();
+                int end = chunk;
+                while (end > 0 && batch.get(end - 1).getStartTime().toLocalDate().equals(lastDay)) end--;
+                if (end > 0) {
+                    batch = batch.subList(0, end);
+                } else {   // a single day bigger than a chunk goes in one piece
+                    LocalDateTime from = lastDay.atStartOfDay();
+                    batch = store.getTasksInWindow(from, from.plusDays(1));
+                    batch.removeIf(t -> RecurringTask.isOccurrenceId(t.getId()));   // series are not archived
+                }
+            }
+            int moved = store.archive(ids(batch), ArchiveSummary.of(batch), LocalDateTime.now());
+            if (moved == 0) return total;   // nothing left that we can move
+            total += moved;
+            Thread.sleep(PAUSE_MILLIS);
+        }
+    }
+
+    private int archiveCompleted(LocalDateTime completedBefore) throws SQLException, InterruptedException {
+        int total = 0;
+        while (true) {
+            List<Task> batch = store.getCompletedTimelessTasks(completedBefore, chunk);
+            if (batch.isEmpty()) return total;
+            int moved = store.archive(ids(batch), new ArchiveSummary(), LocalDateTime.now());
+            if (moved == 0) return total;
+            total += moved;
+            if (batch.size() < chunk) return total;
+            Thread.sleep(PAUSE_MILLIS);
+        }
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        List<Long> ids = new ArrayList<>(tasks.size());
+        for (Task t : tasks) ids.add(t.getId());
+        return ids;
+    }
+
+    public String stats() {
+        return String.format("retention[days=%d completedDays=%d chunk=%d runs=%d archived=%d+%d lastRun=%dms]",
+                retentionDays, completedDays, chunk, runs, archivedTimed, archivedTimeless, lastRunMillis);
+    }
+
+    @Override
+    public void close() {
+        runner.shutdownNow();
+    }
+}
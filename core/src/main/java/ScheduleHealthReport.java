@@ -0,0 +1,209 @@
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Every conflict (overlapping pair, {@link Task#overlapsWith}) and duplicate activity (same
+ * activity more than once a day at different times, {@link Task#sameActivity}) in a date range.
+ *
+ * Timed tasks are put into a bucket for each day they touch; each bucket is sorted by start
+ * and swept once, keeping the tasks still running in a heap by end time, so a day costs
+ * O(n log n + p log p) for p conflicting pairs instead of comparing every pair. Days are independent and run in parallel on the common
+ * fork-join pool. A pair is reported on the day the later task starts, a duplicate on the day
+ * the tasks start, so nothing is reported twice. Results are in time order.
+ */
+public final class ScheduleHealthReport {
+
+    private static final Metrics.Timer BUILD = Metrics.timer("schedule_health_report");
+    private static final DateTimeFormatter HM = DateTimeFormatter.ofPattern("MMM dd hh:mm a");
+
+    /** Two timed tasks that overlap; {@code earlier} starts first (or at the same time). */
+    public static final class Conflict {
+        public final Task earlier;
+        public final Task later;
+
+        Conflict(Task earlier, Task later) {
+            this.earlier = earlier;
+            this.later = later;
+        }
+
+        @Override
+        public String toString() {
+            return "⚠ Conflict: \"" + later.getDescription() + "\" (" + later.getStartTime().format(HM)
+                    + ") overlaps \"" + earlier.getDescription() + "\" (until " + earlier.getEndTime().format(HM) + ")";
+        }
+    }
+
+    /** The same activity at different times on one day, in start order. */
+    public static final class Duplicate {
+        public final LocalDate day;
+        public final List<Task> tasks;
+
+        Duplicate(LocalDate day, List<Task> tasks) {
+            this.day = day;
+            this.tasks = Collections.unmodifiableList(tasks);
+        }
+
+        @Override
+        public String toString() {
+            return "ℹ \"" + tasks.get(0).getDescription() + "\" " + tasks.size() + "× on " + day;
+        }
+    }
+
+    // what one day's bucket produced
+    private static final class DayResult {
+        final List<Conflict> conflicts = new ArrayList<>();
+        final List<Duplicate> duplicates = new ArrayList<>();
+    }
+
+    private static final DayResult EMPTY = new DayResult();
+    private static final Comparator<Conflict> BY_EARLIER =
+            Comparator.comparing((Conflict c) -> c.earlier.getStartTime()).thenComparing(c -> c.earlier.getEndTime());
+
+    public final LocalDate from;
+    public final LocalDate to;
+    public final int tasks;
+    public final List<Conflict> conflicts;
+    public final List<Duplicate> duplicates;
+    public final long nanos;
+
+    private ScheduleHealthReport(LocalDate from, LocalDate to, int tasks, List<Conflict> conflicts,
+                                 List<Duplicate> duplicates, long nanos) {
+        this.from = from;
+        this.to = to;
+        this.tasks = tasks;
+        this.conflicts = Collections.unmodifiableList(conflicts);
+        this.duplicates = Collections.unmodifiableList(duplicates);
+        this.nanos = nanos;
+    }
+
+    /** Report for the days from..to (inclusive) of the store's tasks. */
+    public static ScheduleHealthReport of(TaskStore store, LocalDate from, LocalDate to) throws SQLException {
+        // tasks are day-sized: anything running into the range started at most a day before it
+        return of(store.getTasksInWindow(from.minusDays(1).atStartOfDay(), to.plusDays(1).atStartOfDay()), from, to);
+    }
+
+    /** Report for the days from..to (inclusive); tasks outside the range and timeless ones are ignored. */
+    public static ScheduleHealthReport of(Collection<Task> all, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) throw new IllegalArgumentException("range ends before it starts");
+        Metrics.Sample sample = BUILD.start();
+        long t0 = System.nanoTime();
+        int days = Math.toIntExact(ChronoUnit.DAYS.between(from, to) + 1);
+        LocalDateTime rangeStart = from.atStartOfDay();
+        LocalDateTime rangeEnd = to.plusDays(1).atStartOfDay();
+
+        List<List<Task>> buckets = new ArrayList<>(Collections.nCopies(days, null));
+        int count = 0;
+        for (Task t : all) {
+            if (!t.hasTime() || t.getStartTime() == null || t.getEndTime() == null) continue;
+            if (!t.getStartTime().isBefore(rangeEnd)) continue;
+            if (t.getStartTime().isBefore(rangeStart) && !t.getEndTime().isAfter(rangeStart)) continue;
+            count++;
+            for (int d = startDay(t, from); d <= lastDay(t, from, days); d++) {
+                if (buckets.get(d) == null) buckets.set(d, new ArrayList<>());
+                buckets.get(d).add(t);
+            }
+        }
+
+        DayResult[] results = new DayResult[days];
+        IntStream.range(0, days).parallel()
+                .forEach(d -> results[d] = buckets.get(d) == null ? EMPTY : check(buckets.get(d), d, from));
+
+        List<Conflict> conflicts = new ArrayList<>();
+        List<Duplicate> duplicates = new ArrayList<>();
+        for (DayResult r : results) {
+            conflicts.addAll(r.conflicts);
+            duplicates.addAll(r.duplicates);
+        }
+        long nanos = System.nanoTime() - t0;
+        sample.stop();
+        return new ScheduleHealthReport(from, to, count, conflicts, duplicates, nanos);
+    }
+
+    // first day of the range the task touches
+    private static int startDay(Task t, LocalDate from) {
+        return (int) Math.max(0, ChronoUnit.DAYS.between(from, t.getStartTime().toLocalDate()));
+    }
+
+    // last day of the range the task touches; an end at midnight doesn't reach into that day
+    private static int lastDay(Task t, LocalDate from, int days) {
+        LocalDateTime end = t.getEndTime();
+        LocalDate last = end.toLocalTime().equals(LocalTime.MIDNIGHT) && end.isAfter(t.getStartTime())
+                ? end.toLocalDate().minusDays(1) : end.toLocalDate();
+        return (int) Math.min(days - 1, ChronoUnit.DAYS.between(from, last));
+    }
+
+    // reports only tasks starting on this day; ones running over from earlier days (also from
+    // before the range) are just compared against
+    private static DayResult check(List<Task> bucket, int d, LocalDate from) {
+        DayResult r = new DayResult();
+        LocalDate day = from.plusDays(d);
+        bucket.sort(Comparator.comparing(Task::getStartTime).thenComparing(Task::getEndTime));
+
+        // sweep: 'running' holds the tasks that haven't ended by the current start, soonest end first
+        PriorityQueue<Task> running = new PriorityQueue<>(Comparator.comparing(Task::getEndTime));
+        for (Task t : bucket) {
+            while (!running.isEmpty() && !running.peek().getEndTime().isAfter(t.getStartTime())) running.poll();
+            if (t.getStartTime().toLocalDate().equals(day)) {
+                int first = r.conflicts.size();
+                for (Task a : running) {
+                    if (a.overlapsWith(t)) r.conflicts.add(new Conflict(a, t));
+                }
+                r.conflicts.subList(first, r.conflicts.size()).sort(BY_EARLIER); // heap order is arbitrary
+            }
+            running.add(t);
+        }
+
+        Map<String, List<Task>> byActivity = new HashMap<>();
+        for (Task t : bucket) {
+            if (!t.getStartTime().toLocalDate().equals(day)) continue;
+            byActivity.computeIfAbsent(t.getDescription().toLowerCase(Locale.ROOT), k -> new ArrayList<>(2)).add(t);
+        }
+        for (Task t : bucket) {   // first occurrences in start order
+            List<Task> same = byActivity.remove(t.getDescription().toLowerCase(Locale.ROOT));
+            if (same == null || same.size() < 2) continue;
+            if (!same.get(0).getStartTime().equals(same.get(same.size() - 1).getStartTime())) {
+                r.duplicates.add(new Duplicate(day, same));
+            }
+        }
+        return r;
+    }
+
+    /** Counts plus up to {@code maxLines} findings, one per line. */
+    public String summary(int maxLines) {
+        StringBuilder sb = new StringBuilder();
+        if (conflicts.isEmpty() && duplicates.isEmpty()) {
+            sb.append("✅ No conflicts or repeated activities");
+        } else {
+            sb.append(conflicts.size()).append(" conflict(s), ").append(duplicates.size()).append(" repeated activity(ies)");
+        }
+        sb.append(String.format(" in %d task(s), %s – %s (%.1f ms)", tasks, from, to, nanos / 1e6));
+        int shown = 0;
+        for (Conflict c : conflicts) {
+            if (shown == maxLines) break;
+            sb.append('\n').append(c);
+            shown++;
+        }
+        for (Duplicate dup : duplicates) {
+            if (shown == maxLines) break;
+            sb.append('\n').append(dup);
+            shown++;
+        }
+        int more = conflicts.size() + duplicates.size() - shown;
+        if (more > 0) sb.append("\n… and ").append(more).append(" more");
+        return sb.toString();
+    }
+}
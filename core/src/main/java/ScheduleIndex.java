@@ -0,0 +1,241 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * In-memory interval index over timed tasks (augmented AVL interval tree).
+ *
+ * Nodes are ordered by start time; every node also stores the latest end time in its subtree,
+ * so overlap and "is this instant free" queries skip whole subtrees:
+ *  - insert / remove            O(log n)
+ *  - overlapping(start, end)    O(log n + k)
+ *  - isFree(at)                 O(log n + k), k = tasks running at that instant
+ *  - nextFreeSlot(after, d)     O(log n) per task the search has to jump over
+ *
+ * Timeless tasks are ignored. Overlap uses the same strict rule as {@link Task#overlapsWith(Task)}.
+ */
+public class ScheduleIndex {
+
+    private static final class Node {
+        final Task task;
+        final long start;
+        final long end;
+        final long seq;
+        long maxEnd;
+        int height = 1;
+        Node left, right;
+
+        Node(Task task, long start, long end, long seq) {
+            this.task = task;
+            this.start = start;
+            this.end = end;
+            this.seq = seq;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node root;
+    private int size;
+    private long nextSeq;
+
+    public synchronized boolean insert(Task task) {
+        if (!isTimed(task)) return false;
+        Node n = new Node(task, toSeconds(task.getStartTime()), toSeconds(task.getEndTime()), nextSeq++);
+        root = insert(root, n);
+        size++;
+        return true;
+    }
+
+    public synchronized boolean remove(Task task) {
+        if (!isTimed(task)) return false;
+        Node found = find(root, toSeconds(task.getStartTime()), toSeconds(task.getEndTime()), task);
+        if (found == null) return false;
+        root = remove(root, found);
+        size--;
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /** Tasks overlapping [start, end), ordered by start time. */
+    public synchronized List<Task> overlapping(LocalDateTime start, LocalDateTime end) {
+        List<Task> out = new ArrayList<>();
+        collect(root, toSeconds(start), toSeconds(end), out);
+        return out;
+    }
+
+    /** Indexed tasks overlapping the given task (the task itself excluded). */
+    public synchronized List<Task> overlapping(Task task) {
+        if (!isTimed(task)) return new ArrayList<>();
+        List<Task> out = overlapping(task.getStartTime(), task.getEndTime());
+        out.removeIf(t -> t == task);
+        return out;
+    }
+
+    /** True when no task covers the instant (start inclusive, end exclusive). */
+    public synchronized boolean isFree(LocalDateTime at) {
+        long t = toSeconds(at);
+        return maxEndOverlapping(root, t, t + 1) == Long.MIN_VALUE;
+    }
+
+    /** Earliest start >= after at which a slot of the given length is free. */
+    public synchronized LocalDateTime nextFreeSlot(LocalDateTime after, Duration length) {
+        if (length.isNegative() || length.isZero()) {
+            throw new IllegalArgumentException("Slot length must be positive: " + length);
+        }
+        long len = length.getSeconds();
+        long t = toSeconds(after);
+        while (true) {
+            long blockedUntil = maxEndOverlapping(root, t, t + len);
+            if (blockedUntil == Long.MIN_VALUE) break;
+            t = blockedUntil;
+        }
+        return t == toSeconds(after) ? after : LocalDateTime.ofEpochSecond(t, 0, ZoneOffset.UTC);
+    }
+
+    /** Visits tasks in start-time order. */
+    public synchronized void forEachInOrder(Consumer<Task> action) {
+        inOrder(root, action);
+    }
+
+    // ---------------- queries ----------------
+
+    private static void collect(Node n, long s, long e, List<Task> out) {
+        if (n == null || n.maxEnd <= s) return; // nothing in this subtree ends after s
+        collect(n.left, s, e, out);
+        if (n.start >= e) return;               // this node and its right subtree start too late
+        if (n.end > s) out.add(n.task);
+        collect(n.right, s, e, out);
+    }
+
+    private static long maxEndOverlapping(Node n, long s, long e) {
+        if (n == null || n.maxEnd <= s) return Long.MIN_VALUE;
+        long best = maxEndOverlapping(n.left, s, e);
+        if (n.start >= e) return best;
+        if (n.end > s) best = Math.max(best, n.end);
+        return Math.max(best, maxEndOverlapping(n.right, s, e));
+    }
+
+    private static void inOrder(Node n, Consumer<Task> action) {
+        if (n == null) return;
+        inOrder(n.left, action);
+        action.accept(n.task);
+        inOrder(n.right, action);
+    }
+
+    private static Node find(Node n, long s, long e, Task task) {
+        if (n == null) return null;
+        int c = compare(s, e, n.start, n.end);
+        if (c < 0) return find(n.left, s, e, task);
+        if (c > 0) return find(n.right, s, e, task);
+        if (n.task.getId() == task.getId()) return n; // not equals(): value-equal tasks can share a slot
+        Node r = find(n.left, s, e, task);
+        return r != null ? r : find(n.right, s, e, task);
+    }
+
+    // ---------------- AVL maintenance ----------------
+
+    private static int compare(long s1, long e1, long s2, long e2) {
+        int c = Long.compare(s1, s2);
+        return c != 0 ? c : Long.compare(e1, e2);
+    }
+
+    private static int compare(Node a, Node b) {
+        int c = compare(a.start, a.end, b.start, b.end);
+        return c != 0 ? c : Long.compare(a.seq, b.seq);
+    }
+
+    private static Node insert(Node n, Node x) {
+        if (n == null) return x;
+        if (compare(x, n) < 0) n.left = insert(n.left, x);
+        else n.right = insert(n.right, x);
+        return balance(n);
+    }
+
+    private static Node remove(Node n, Node x) {
+        if (n == null) return null;
+        int c = compare(x, n);
+        if (c < 0) {
+            n.left = remove(n.left, x);
+        } else if (c > 0) {
+            n.right = remove(n.right, x);
+        } else {
+            if (n.left == null) return n.right;
+            if (n.right == null) return n.left;
+            Node min = n.right;
+            while (min.left != null) min = min.left;
+            min.right = removeMin(n.right);
+            min.left = n.left;
+            return balance(min);
+        }
+        return balance(n);
+    }
+
+    private static Node removeMin(Node n) {
+        if (n.left == null) return n.right;
+        n.left = removeMin(n.left);
+        return balance(n);
+    }
+
+    private static int height(Node n) {
+        return n == null ? 0 : n.height;
+    }
+
+    private static void update(Node n) {
+        n.height = 1 + Math.max(height(n.left), height(n.right));
+        long m = n.end;
+        if (n.left != null && n.left.maxEnd > m) m = n.left.maxEnd;
+        if (n.right != null && n.right.maxEnd > m) m = n.right.maxEnd;
+        n.maxEnd = m;
+    }
+
+    private static Node balance(Node n) {
+        update(n);
+        int bf = height(n.left) - height(n.right);
+        if (bf > 1) {
+            if (height(n.left.left) < height(n.left.right)) n.left = rotateLeft(n.left);
+            return rotateRight(n);
+        }
+        if (bf < -1) {
+            if (height(n.right.right) < height(n.right.left)) n.right = rotateRight(n.right);
+            return rotateLeft(n);
+        }
+        return n;
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = n;
+        update(n);
+        update(r);
+        return r;
+    }
+
+    private static boolean isTimed(Task t) {
+        return t != null && t.hasTime() && t.getStartTime() != null && t.getEndTime() != null;
+    }
+
+    private static long toSeconds(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC);
+    }
+}
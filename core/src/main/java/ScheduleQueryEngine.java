@@ -0,0 +1,195 @@
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process answers for the bot intents (port of bot.py's parse/conflict/improve logic).
+ *
+ * Works against the in-memory task set: timed tasks come from the shared {@link ScheduleIndex},
+ * duplicate detection uses a description → tasks map kept in sync through taskAdded/taskRemoved.
+ * No process start-up and no DB reload, so answers take microseconds.
+ */
+public class ScheduleQueryEngine {
+
+    private static final String[] CANDIDATES = {
+            "Read a book", "Power nap", "Go for a walk", "Meditate",
+            "Tidy your room", "Listen to a podcast", "Journal", "Light stretching",
+            "Gaming", "Family Time"
+    };
+
+    private static final String[] IMPROVE = {"improve", "organize", "optimize"};
+    private static final String[] FREE = {"free", "available"};
+    private static final String[] SUGGEST = {"suggest", "recommend"};
+    private static final String[] OK = {"okay", "okai", "ok"};
+    private static final String[] GREET = {"heyy", "yoo", "hii", "hi", "hello", "hey"};
+
+    private static final Pattern TIME = Pattern.compile("(?i)\\b(\\d{1,2})(?:[:.](\\d{2}))?\\s*(am|pm)\\b");
+    private static final DateTimeFormatter HM = DateTimeFormatter.ofPattern("hh:mm a");
+
+    private final ScheduleIndex index;
+    private final Map<String, List<Task>> byActivity = new HashMap<>();
+
+    public ScheduleQueryEngine(ScheduleIndex index) {
+        this.index = index;
+    }
+
+    public synchronized void taskAdded(Task t) {
+        byActivity.computeIfAbsent(key(t), k -> new ArrayList<>()).add(t);
+    }
+
+    public synchronized void taskRemoved(Task t) {
+        List<Task> same = byActivity.get(key(t));
+        if (same != null && same.remove(t) && same.isEmpty()) byActivity.remove(key(t));
+    }
+
+    /**
+     * Answers a chat question, checking intents in the bot's order
+     * (improve, free, suggest, greet, ok). Returns null when no intent matches.
+     */
+    public String answer(String question, LocalDateTime now) {
+        String q = question == null ? "" : question.toLowerCase().trim();
+        if (matches(q, IMPROVE)) return improveSchedule();
+        if (matches(q, FREE)) return freeTime(q, now);
+        if (matches(q, SUGGEST)) return suggest(now);
+        if (matches(q, GREET)) return "Heyy ! What's today's plan ? or stuck ? No worries...I am here to help ! ;)";
+        if (matches(q, OK)) return "Sure, let me know if you want to know anything more.";
+        return null;
+    }
+
+    // ---------------- conflicts / duplicates ----------------
+
+    /** Null when the task does not overlap anything, otherwise a warning with a free slot to move to. */
+    public String conflictMessage(Task t) {
+        List<Task> overlaps = index.overlapping(t);
+        if (overlaps.isEmpty()) return null;
+        Task first = overlaps.get(0);
+        Duration length = Duration.between(t.getStartTime(), t.getEndTime());
+        String msg = "⚠ Conflict detected with " + overlaps.size() + " task(s). "
+                + "Example: \"" + first.getDescription() + "\" overlaps.";
+        if (length.isNegative() || length.isZero()) return msg;
+        LocalDateTime start = index.nextFreeSlot(t.getStartTime(), length);
+        return msg + " Try scheduling \"" + t.getDescription() + "\" from "
+                + start.format(HM) + " to " + start.plus(length).format(HM) + ".";
+    }
+
+    /** Null unless the same activity is already planned at a different time. */
+    public synchronized String duplicateActivityMessage(Task t) {
+        List<Task> same = byActivity.get(key(t));
+        if (same == null) return null;
+        for (Task other : same) {
+            if (other == t || !other.hasTime()) continue;
+            if (!Objects.equals(other.getStartTime(), t.getStartTime())) {
+                return "ℹ You already have \"" + t.getDescription() + "\" earlier at "
+                        + other.getStartTime().format(HM) + "–" + other.getEndTime().format(HM) + ". "
+                        + "Try something new in this period.";
+            }
+        }
+        return null;
+    }
+
+    // ---------------- improve ----------------
+
+    /** Overlap pairs (sweep over tasks in start order) plus long/unhealthy task hints. */
+    public String improveSchedule() {
+        List<Task> ordered = new ArrayList<>(index.size());
+        index.forEachInOrder(ordered::add);
+
+        LinkedHashSet<String> suggestions = new LinkedHashSet<>();
+        PriorityQueue<Task> active = new PriorityQueue<>(Comparator.comparing(Task::getEndTime));
+        for (Task later : ordered) {
+            while (!active.isEmpty() && !active.peek().getEndTime().isAfter(later.getStartTime())) active.poll();
+            for (Task earlier : active) {
+                if (!earlier.overlapsWith(later)) continue;
+                suggestions.add("⚠ Conflict: \"" + later.getDescription() + "\" overlaps \"" + earlier.getDescription() + "\". "
+                        + "Consider moving \"" + later.getDescription() + "\" to start after " + earlier.getEndTime().format(HM)
+                        + " or split it into smaller parts.");
+            }
+            active.add(later);
+        }
+
+        for (Task t : ordered) {
+            String desc = t.getDescription().toLowerCase();
+            double hours = Duration.between(t.getStartTime(), t.getEndTime()).getSeconds() / 3600.0;
+            if ((desc.contains("game") || desc.contains("netflix") || desc.contains("movie")) && hours >= 5) {
+                suggestions.add("⚠️ Your task \"" + t.getDescription() + "\" is " + (int) hours
+                        + " hours long. That's long — try reducing it to 2–3 hours.");
+            }
+            if (hours >= 10) {
+                suggestions.add("⚠️ Task \"" + t.getDescription() + "\" is very long (" + (int) hours
+                        + " hours). Consider splitting it or adding breaks.");
+            }
+        }
+
+        if (suggestions.isEmpty()) return "✅ Your schedule looks balanced. No major improvements needed.";
+        return String.join("\n", suggestions);
+    }
+
+    // ---------------- free / suggest ----------------
+
+    /** "am I free at 4 pm" → point lookup; otherwise the gaps in today's schedule. */
+    public String freeTime(String question, LocalDateTime now) {
+        LocalDate today = now.toLocalDate();
+        Matcher m = TIME.matcher(question);
+        if (m.find()) {
+            int h = Integer.parseInt(m.group(1)) % 12;
+            if (m.group(3).equalsIgnoreCase("pm")) h += 12;
+            int min = m.group(2) != null ? Integer.parseInt(m.group(2)) : 0;
+            if (min > 59) return "⚠ I couldn't read that time.";
+            LocalDateTime at = LocalDateTime.of(today, LocalTime.of(h, min));
+            if (index.isFree(at)) return "✅ You're free at " + at.format(HM) + ".";
+            List<Task> busy = index.overlapping(at, at.plusSeconds(1));
+            Task b = busy.get(0);
+            return "⛔ You're busy at " + at.format(HM) + ": \"" + b.getDescription() + "\" ("
+                    + b.getStartTime().format(HM) + " - " + b.getEndTime().format(HM) + ").";
+        }
+
+        List<Task> day = index.overlapping(today.atStartOfDay(), today.plusDays(1).atStartOfDay());
+        if (day.isEmpty()) return "✅ You have no tasks scheduled, the whole day is free!";
+
+        List<String> slots = new ArrayList<>();
+        LocalDateTime lastEnd = null;
+        for (Task t : day) {
+            if (lastEnd != null && t.getStartTime().isAfter(lastEnd)) {
+                slots.add("🕒 Free from " + lastEnd.format(HM) + " to " + t.getStartTime().format(HM));
+            }
+            if (lastEnd == null || t.getEndTime().isAfter(lastEnd)) lastEnd = t.getEndTime();
+        }
+        if (lastEnd.toLocalDate().equals(today)) slots.add("🕒 Free after " + lastEnd.format(HM));
+        return slots.isEmpty() ? "⚠ No free time, tasks are back-to-back!" : String.join("\n", slots);
+    }
+
+    /** Next 30-minute gap left today, filled with activities not already planned. */
+    public String suggest(LocalDateTime now) {
+        LocalDateTime dayEnd = now.toLocalDate().atTime(23, 59);
+        LocalDateTime slot = index.nextFreeSlot(now, Duration.ofMinutes(30));
+        if (slot.plusMinutes(30).isAfter(dayEnd)) return "⚠ No 30-min free slot left today for new activities.";
+        return "💡 From " + slot.format(HM) + " to " + slot.plusMinutes(30).format(HM) + ": "
+                + pickNew() + " or " + pickNew();
+    }
+
+    private synchronized String pickNew() {
+        List<String> pool = new ArrayList<>();
+        for (String c : CANDIDATES) {
+            if (!byActivity.containsKey(c.toLowerCase())) pool.add(c);
+        }
+        if (pool.isEmpty()) pool = Arrays.asList(CANDIDATES);
+        return pool.get(ThreadLocalRandom.current().nextInt(pool.size()));
+    }
+
+    private static boolean matches(String q, String[] words) {
+        for (String w : words) {
+            if (q.contains(w)) return true;
+        }
+        return false;
+    }
+
+    private static String key(Task t) {
+        return t.getDescription().toLowerCase();
+    }
+}
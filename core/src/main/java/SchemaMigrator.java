@@ -0,0 +1,193 @@
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Versioned schema migrations for the tasks database.
+ *
+ * Applied versions are recorded in schema_version; on startup every migration with a
+ * higher version runs once, in order. Migrations check the live schema before changing it,
+ * so databases created by hand from the README (which already have an id column) upgrade cleanly.
+ */
+public class SchemaMigrator {
+
+    /** One schema step. Versions must be unique and increasing. */
+    public interface Migration {
+        int version();
+        String description();
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private final List<Migration> migrations = new ArrayList<>();
+
+    public SchemaMigrator() {
+        add(1, "create tasks table", conn -> exec(conn,
+                "CREATE TABLE IF NOT EXISTS tasks (" +
+                        " id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY," +
+                        " description VARCHAR(255) NOT NULL," +
+                        " start_time DATETIME NULL," +
+                        " end_time DATETIME NULL)"));
+
+        add(2, "surrogate primary key on tasks", conn -> {
+            if (!hasColumn(conn, "tasks", "id")) {
+                exec(conn, "ALTER TABLE tasks ADD COLUMN id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY FIRST");
+            }
+        });
+
+        // Range predicates on start_time (by date / window) use the composite index,
+        // the live-task filter (end_time >= now OR end_time IS NULL) uses the end_time index.
+        add(3, "range indexes on start_time/end_time", conn -> {
+            if (!hasIndex(conn, "tasks", "idx_tasks_start_end")) {
+                exec(conn, "CREATE INDEX idx_tasks_start_end ON tasks (start_time, end_time)");
+            }
+            if (!hasIndex(conn, "tasks", "idx_tasks_end")) {
+                exec(conn, "CREATE INDEX idx_tasks_end ON tasks (end_time)");
+            }
+        });
+
+        // Reminder state lives with the task so pending reminders survive a restart
+        add(4, "reminder lead time and fired marker", conn -> {
+            if (!hasColumn(conn, "tasks", "remind_lead_minutes")) {
+                exec(conn, "ALTER TABLE tasks ADD COLUMN remind_lead_minutes INT NULL");
+            }
+            if (!hasColumn(conn, "tasks", "reminded_at")) {
+                exec(conn, "ALTER TABLE tasks ADD COLUMN reminded_at DATETIME NULL");
+            }
+        });
+
+        // Tasks are identified by id from here on (ids are generated client-side, see TaskIds);
+        // completing keeps the row for history but takes it out of the live list and reminders
+        add(5, "64-bit task ids and completed marker", conn -> {
+            String idType = columnType(conn, "tasks", "id");
+            if (idType != null && !idType.toUpperCase().startsWith("BIGINT")) {
+                exec(conn, "ALTER TABLE tasks MODIFY id BIGINT NOT NULL AUTO_INCREMENT");
+            }
+            if (!hasColumn(conn, "tasks", "completed_at")) {
+                exec(conn, "ALTER TABLE tasks ADD COLUMN completed_at DATETIME NULL");
+            }
+        });
+
+        // RetentionJob moves old rows here; the summaries keep what history features need
+        add(6, "task archive and summary tables", conn -> {
+            exec(conn, "CREATE TABLE IF NOT EXISTS tasks_archive (" +
+                    " id BIGINT NOT NULL PRIMARY KEY," +
+                    " description VARCHAR(255) NOT NULL," +
+                    " start_time DATETIME NULL," +
+                    " end_time DATETIME NULL," +
+                    " remind_lead_minutes INT NULL," +
+                    " reminded_at DATETIME NULL," +
+                    " completed_at DATETIME NULL," +
+                    " archived_at DATETIME NOT NULL)");
+            if (!hasIndex(conn, "tasks_archive", "idx_archive_start")) {
+                exec(conn, "CREATE INDEX idx_archive_start ON tasks_archive (start_time)");
+            }
+            exec(conn, "CREATE TABLE IF NOT EXISTS task_day_summary (" +
+                    " task_day DATE NOT NULL," +
+                    " activity VARCHAR(255) NOT NULL," +
+                    " tasks INT NOT NULL," +
+                    " minutes BIGINT NOT NULL," +
+                    " PRIMARY KEY (task_day, activity))");
+            exec(conn, "CREATE TABLE IF NOT EXISTS activity_links (" +
+                    " from_activity VARCHAR(255) NOT NULL," +
+                    " bucket TINYINT NOT NULL," +
+                    " to_activity VARCHAR(255) NOT NULL," +
+                    " links INT NOT NULL," +
+                    " PRIMARY KEY (from_activity, bucket, to_activity))");
+            // completed timeless tasks are archived by completion time
+            if (!hasIndex(conn, "tasks", "idx_tasks_completed")) {
+                exec(conn, "CREATE INDEX idx_tasks_completed ON tasks (completed_at)");
+            }
+        });
+
+        // Recurring tasks: one row per series, occurrences are computed (see RecurringTask);
+        // occurrences deleted or completed one at a time are listed as exceptions
+        add(7, "recurring task series and exceptions", conn -> {
+            exec(conn, "CREATE TABLE IF NOT EXISTS task_series (" +
+                    " id BIGINT NOT NULL PRIMARY KEY," +
+                    " description VARCHAR(255) NOT NULL," +
+                    " start_time DATETIME NOT NULL," +
+                    " end_time DATETIME NOT NULL," +
+                    " rule VARCHAR(255) NOT NULL," +
+                    " reminded_through DATETIME NULL)");
+            exec(conn, "CREATE TABLE IF NOT EXISTS task_series_exceptions (" +
+                    " series_id BIGINT NOT NULL," +
+                    " occurrence_start DATETIME NOT NULL," +
+                    " PRIMARY KEY (series_id, occurrence_start))");
+        });
+    }
+
+    private void add(int version, String description, SqlStep step) {
+        migrations.add(new Migration() {
+            public int version() { return version; }
+            public String description() { return description; }
+            public void apply(Connection conn) throws SQLException { step.apply(conn); }
+        });
+    }
+
+    public SchemaMigrator register(Migration m) {
+        migrations.add(m);
+        return this;
+    }
+
+    /** Runs all pending migrations. Returns the schema version after migrating. */
+    public int migrate(Connection conn) throws SQLException {
+        exec(conn, "CREATE TABLE IF NOT EXISTS schema_version (" +
+                " version INT NOT NULL PRIMARY KEY," +
+                " description VARCHAR(255) NOT NULL," +
+                " applied_at DATETIME NOT NULL)");
+
+        int current = currentVersion(conn);
+        migrations.sort((a, b) -> Integer.compare(a.version(), b.version()));
+        for (Migration m : migrations) {
+            if (m.version() <= current) continue;
+            m.apply(conn);
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, NOW())")) {
+                ps.setInt(1, m.version());
+                ps.setString(2, m.description());
+                ps.executeUpdate();
+            }
+            current = m.version();
+            System.out.println("🛠 Schema migrated to v" + current + ": " + m.description());
+        }
+        return current;
+    }
+
+    private static int currentVersion(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private interface SqlStep {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    static void exec(Connection conn, String sql) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    static boolean hasColumn(Connection conn, String table, String column) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, table, column)) {
+            return rs.next();
+        }
+    }
+
+    static String columnType(Connection conn, String table, String column) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, table, column)) {
+            return rs.next() ? rs.getString("TYPE_NAME") : null;
+        }
+    }
+
+    static boolean hasIndex(Connection conn, String table, String index) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(conn.getCatalog(), null, table, false, true)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,167 @@
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class SuggestionEngine {
+    private static final String[] ROUTINE_ORDER = {
+            "Wake up", "Breakfast", "Bath", "Commute", "Work/Study", "Lunch",
+            "Short walk", "Tea/Coffee break", "Exercise", "Dinner", "Relax",
+            "Read a book", "Plan tomorrow", "Sleep"
+    };
+
+    private static final String[] GENERIC_ACTIVITIES = {
+            "Read a book", "Power nap", "Go for a walk", "Meditate",
+            "Tidy your room", "Listen to a podcast", "Journal", "Light stretching"
+    };
+
+    private static final String[] GENERIC_LOWER = lower(GENERIC_ACTIVITIES);
+    private static final String[] ROUTINE_LOWER = lower(ROUTINE_ORDER);
+
+    private static final int PLANNED_HINTS = 3;
+    private static final int LEARNED_HINTS = 3;
+
+    /** Old entry point: builds a throwaway index, so prefer {@link #suggest(String, DescriptionIndex)}. */
+    public static List<String> suggest(String rawTask, List<String> existingLowercase) {
+        return suggest(rawTask, DescriptionIndex.of(existingLowercase));
+    }
+
+    /** Suggestions for what is being typed; "already planned" checks are hash lookups in the index. */
+    public static List<String> suggest(String rawTask, DescriptionIndex existing) {
+        return suggest(rawTask, existing, null);
+    }
+
+    /** Same, but what the user's history says usually comes next wins over the built-in rules. */
+    public static List<String> suggest(String rawTask, DescriptionIndex existing, ActivityModel learned) {
+        List<String> out = new ArrayList<>();
+        if (rawTask == null || rawTask.trim().isEmpty()) {
+            out.add("Add a time to your task (e.g., 'at 6 AM' or '3 PM to 4 PM').");
+            out.add("You can add duration too (e.g., 'for 45 minutes').");
+            return out;
+        }
+
+        // 0) learned from history: what usually follows this activity at this time of day
+        if (learned != null) {
+            Task typed = TaskParser.tryParseLenient(rawTask, LocalDate.now());
+            String activity = typed != null ? typed.getDescription() : rawTask;
+            LocalTime at = typed != null && typed.hasTime() ? typed.getStartTime().toLocalTime() : null;
+            List<String> next = learned.next(activity, at, LEARNED_HINTS);
+            if (!next.isEmpty()) {
+                out.add("Usually next: " + String.join(", ", next));
+                return out;
+            }
+        }
+
+        String desc = rawTask.toLowerCase(Locale.ROOT);
+
+        // 1) After wake up → breakfast
+        if (desc.contains("wake") && !existing.contains("breakfast")) {
+            out.add("Consider: Breakfast after wake up.");
+            return out;
+        }
+
+        // 2) meeting/coffee → Bath, Commute, Prepare notes
+        if (desc.contains("meeting") || desc.contains("meet") || desc.contains("coffee")) {
+            addIfMissing(out, "Bath", existing);
+            addIfMissing(out, "Commute", existing);
+            addIfMissing(out, "Prepare notes", existing);
+            if (!out.isEmpty()) return out;
+        }
+
+        // 3) next routine step
+        String next = nextRoutineStep(rawTask, existing);
+        if (next != null) {
+            out.add("Next up: " + next);
+            return out;
+        }
+
+        // 4) fallback: random generic (prefer unused)
+        out.add("How about: " + pickGeneric(existing));
+        return out;
+    }
+
+    /**
+     * Label text for the live suggestion box: the suggestions plus the planned tasks that start
+     * with what has been typed so far (prefix lookup in the index).
+     */
+    public static String liveHint(String rawText, DescriptionIndex existing, ActivityModel learned) {
+        List<String> suggestions = suggest(rawText, existing, learned);
+        StringBuilder sb = new StringBuilder(suggestions.isEmpty() ? "⚠ No suggestions." : String.join("\n", suggestions));
+        String typed = DescriptionIndex.normalize(rawText);
+        if (typed.length() >= 2) {
+            List<String> planned = existing.withPrefix(typed, PLANNED_HINTS);
+            if (!planned.isEmpty()) sb.append("\n📋 Already planned: ").append(String.join(", ", planned));
+        }
+        return sb.toString();
+    }
+
+    // random unused generic activity (any of them if all are planned), no allocation
+    private static String pickGeneric(DescriptionIndex existing) {
+        int unused = 0;
+        for (String g : GENERIC_LOWER) {
+            if (!existing.contains(g)) unused++;
+        }
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        if (unused == 0) return GENERIC_ACTIVITIES[rnd.nextInt(GENERIC_ACTIVITIES.length)];
+        int pick = rnd.nextInt(unused);
+        for (int i = 0; i < GENERIC_LOWER.length; i++) {
+            if (!existing.contains(GENERIC_LOWER[i]) && pick-- == 0) return GENERIC_ACTIVITIES[i];
+        }
+        return GENERIC_ACTIVITIES[0]; // index changed between the two passes
+    }
+
+    /**
+     * Position in the daily routine of the step the description mentions (e.g. "Breakfast with
+     * Sam" → Breakfast), or -1. Used by {@link AutoScheduler} to keep routine steps in order.
+     */
+    public static int routineRank(String description) {
+        String d = description.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < ROUTINE_LOWER.length; i++) {
+            for (String alt : ROUTINE_LOWER[i].split("/")) {
+                if (containsWord(d, alt)) return i;
+            }
+        }
+        return -1;
+    }
+
+    public static int routineSteps() {
+        return ROUTINE_ORDER.length;
+    }
+
+    private static boolean containsWord(String text, String word) {
+        for (int i = text.indexOf(word); i >= 0; i = text.indexOf(word, i + 1)) {
+            int e = i + word.length();
+            if ((i == 0 || !Character.isLetter(text.charAt(i - 1)))
+                    && (e == text.length() || !Character.isLetter(text.charAt(e)))) return true;
+        }
+        return false;
+    }
+
+    private static String nextRoutineStep(String current, DescriptionIndex existing) {
+        int idx = -1;
+        for (int i = 0; i < ROUTINE_ORDER.length; i++) {
+            if (ROUTINE_ORDER[i].equalsIgnoreCase(current)) {
+                idx = i; break;
+            }
+        }
+        if (idx == -1) return null;
+
+        for (int i = idx + 1; i < ROUTINE_ORDER.length; i++) {
+            String next = ROUTINE_ORDER[i];
+            if (!existing.contains(next)) return next;
+        }
+        return null;
+    }
+
+    private static void addIfMissing(List<String> out, String suggestion, DescriptionIndex existing) {
+        if (!existing.contains(suggestion)) out.add(suggestion);
+    }
+
+    private static String[] lower(String[] words) {
+        String[] out = new String[words.length];
+        for (int i = 0; i < words.length; i++) out[i] = words[i].toLowerCase(Locale.ROOT);
+        return out;
+    }
+}
@@ -3,11 +3,15 @@ import java.time.format.DateTimeFormatter;
 import java.util.Objects;
 
 public class Task {
+    private static final DateTimeFormatter DISPLAY_FMT = DateTimeFormatter.ofPattern("MMM dd, yyyy | hh:mm a");
+
+    private final long id;            // stable identity (see TaskIds); equals() stays value based
     private final String description;
     private final LocalDateTime startTime;
     private final LocalDateTime endTime;
     private final boolean important;  // already there
     private final boolean hasTime;    // ✅ flag for whether user gave time
+    private String displayText;       // built on first use (fields are final, so it never changes)
 
     // Default: hasTime = true, important = false
     public Task(String description, LocalDateTime startTime, LocalDateTime endTime) {
@@ -19,8 +23,14 @@ public class Task {
         this(description, startTime, endTime, important, startTime != null && endTime != null);
     }
 
-    // Full constructor
+    // Full constructor, new id
     public Task(String description, LocalDateTime startTime, LocalDateTime endTime, boolean important, boolean hasTime) {
+        this(TaskIds.next(), description, startTime, endTime, important, hasTime);
+    }
+
+    // Existing task read back from a store
+    public Task(long id, String description, LocalDateTime startTime, LocalDateTime endTime, boolean important, boolean hasTime) {
+        this.id = id;
         this.description = description.trim();
         this.startTime = startTime;
         this.endTime = endTime;
@@ -28,6 +38,7 @@ public class Task {
         this.hasTime = hasTime;
     }
 
+    public long getId() { return id; }
     public String getDescription() { return description; }
     public LocalDateTime getStartTime() { return startTime; }
     public LocalDateTime getEndTime() { return endTime; }
@@ -44,16 +55,23 @@ public class Task {
         return this.description.equalsIgnoreCase(other.description);
     }
 
+    /** "description (start - end)" as shown in the task list; formatted once per task. */
+    public String getDisplayText() {
+        String text = displayText;
+        if (text == null) {
+            if (hasTime && startTime != null && endTime != null) {
+                text = description + " (" + startTime.format(DISPLAY_FMT) + " - " + endTime.format(DISPLAY_FMT) + ")";
+            } else {
+                text = description; // ⬅ timeless task only shows text
+            }
+            displayText = text; // racy but benign: every thread computes the same string
+        }
+        return text;
+    }
+
     @Override
     public String toString() {
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("MMM dd, yyyy | hh:mm a");
-        String base;
-        if (hasTime && startTime != null && endTime != null) {
-            base = description + " (" + startTime.format(fmt) + " - " + endTime.format(fmt) + ")";
-        } else {
-            base = description; // ⬅ timeless task only shows text
-        }
-        return important ? "[IMPORTANT] " + base : base;
+        return important ? "[IMPORTANT] " + getDisplayText() : getDisplayText();
     }
 
     @Override
@@ -70,6 +88,11 @@ public class Task {
 
     @Override
     public int hashCode() {
-        return Objects.hash(description, startTime, endTime, important, hasTime);
+        // same value as Objects.hash(...) without the varargs array and boxed flags
+        int h = 31 + Objects.hashCode(description);
+        h = 31 * h + Objects.hashCode(startTime);
+        h = 31 * h + Objects.hashCode(endTime);
+        h = 31 * h + Boolean.hashCode(important);
+        return 31 * h + Boolean.hashCode(hasTime);
     }
 }
@@ -0,0 +1,381 @@
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Column-oriented task table for large histories.
+ *
+ * A {@link Task} costs about 200 bytes (two LocalDateTimes, each a LocalDate plus a LocalTime,
+ * and its own description String). Here a row is a long, three ints and a few bits:
+ *  - the task id, plus an open-addressing id → row table for lookups by id
+ *  - start / end as epoch minutes (UTC, like the other indexes), {@link #NONE} for no time
+ *  - the description as an id into a dictionary, so repeated activities share one String
+ *  - important / hasTime flags in bitsets
+ * Times with seconds are rare (the parser works in minutes); they keep their exact values in a
+ * side map so rows read back equal to what was added.
+ *
+ * Row numbers are stable while the row lives; removed rows are reused by later adds. Tasks are
+ * materialized only by {@link #get}, and range queries are plain loops over the int columns.
+ */
+public class TaskColumns {
+
+    public static final int NONE = Integer.MIN_VALUE;
+    private static final long NO_ID = Long.MIN_VALUE;   // empty slot in the id table
+
+    private long[] ids = new long[16];
+    private int[] desc = new int[16];
+    private int[] start = new int[16];
+    private int[] end = new int[16];
+    private final BitSet used = new BitSet();
+    private final BitSet important = new BitSet();
+    private final BitSet hasTime = new BitSet();
+    private final Map<Integer, LocalDateTime[]> exact = new HashMap<>();  // row → {start, end}
+    private int[] free = new int[16];
+    private int freeCount;
+    private int limit;   // rows ever allocated
+    private int size;
+
+    // id → row, linear probing; capacity is a power of two, at most half full
+    private long[] idKeys = emptyIdTable(32);
+    private int[] idRows = new int[32];
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+
+    /** Stores the task and returns its row; ids must be unique. */
+    public synchronized int add(Task t) {
+        if (t.getId() == NO_ID || rowOf(t.getId()) >= 0) {
+            throw new IllegalArgumentException("Duplicate task id " + t.getId());
+        }
+        int row;
+        if (freeCount > 0) {
+            row = free[--freeCount];
+        } else {
+            row = limit++;
+            if (row == start.length) grow(row * 2);
+        }
+        ids[row] = t.getId();
+        putId(t.getId(), row);
+        desc[row] = wordId(t.getDescription());
+        start[row] = minute(t.getStartTime());
+        end[row] = minute(t.getEndTime());
+        used.set(row);
+        important.set(row, t.isImportant());
+        hasTime.set(row, t.hasTime());
+        if (!onMinute(t.getStartTime()) || !onMinute(t.getEndTime())) {
+            exact.put(row, new LocalDateTime[]{t.getStartTime(), t.getEndTime()});
+        }
+        size++;
+        return row;
+    }
+
+    public synchronized void remove(int row) {
+        if (!isLive(row)) return;
+        used.clear(row);
+        exact.remove(row);
+        removeId(ids[row]);
+        if (freeCount == free.length) free = Arrays.copyOf(free, freeCount * 2);
+        free[freeCount++] = row;
+        size--;
+    }
+
+    public synchronized boolean isLive(int row) {
+        return row >= 0 && used.get(row);
+    }
+
+    /** A fresh Task for the row; its description is the shared dictionary string. */
+    public synchronized Task get(int row) {
+        if (!isLive(row)) throw new IllegalArgumentException("No task at row " + row);
+        LocalDateTime[] e = exact.get(row);
+        LocalDateTime s = e != null ? e[0] : time(start[row]);
+        LocalDateTime f = e != null ? e[1] : time(end[row]);
+        return new Task(ids[row], words.get(desc[row]), s, f, important.get(row), hasTime.get(row));
+    }
+
+    /** Row of the task with this id, or -1. */
+    public synchronized int rowOf(long id) {
+        int mask = idKeys.length - 1;
+        for (int i = slot(id, mask); idKeys[i] != NO_ID; i = (i + 1) & mask) {
+            if (idKeys[i] == id) return idRows[i];
+        }
+        return -1;
+    }
+
+    public synchronized long idOf(int row) {
+        if (!isLive(row)) throw new IllegalArgumentException("No task at row " + row);
+        return ids[row];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /** One past the highest row id ever used; sizes parallel per-row arrays kept by callers. */
+    public synchronized int rowLimit() {
+        return limit;
+    }
+
+    /** Rows whose description, start and end equal the given ones (flags are not compared). */
+    public synchronized int[] find(String description, LocalDateTime startTime, LocalDateTime endTime) {
+        Integer id = dictionary.get(description);
+        if (id == null) return new int[0];
+        int d = id, s = minute(startTime), e = minute(endTime);
+        int[] out = new int[4];
+        int n = 0;
+        for (int row = 0; row < limit; row++) {
+            if (start[row] != s || desc[row] != d || end[row] != e || !used.get(row)) continue;
+            LocalDateTime[] x = exact.get(row);
+            if (x != null && !(Objects.equals(x[0], startTime) && Objects.equals(x[1], endTime))) continue;
+            if (x == null && !(onMinute(startTime) && onMinute(endTime))) continue;
+            if (n == out.length) out = Arrays.copyOf(out, n * 2);
+            out[n++] = row;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** Rows starting in [from, to), ordered by start. */
+    public synchronized int[] startingIn(LocalDateTime from, LocalDateTime to) {
+        int lo = minute(from), hi = minute(to);
+        int[] rows = new int[16];
+        int n = 0;
+        for (int row = 0; row < limit; row++) {
+            int s = start[row];
+            if (s < lo || s > hi || s == NONE || !used.get(row)) continue;
+            // only the boundary minutes can need the exact (sub-minute) comparison
+            if ((s == lo || s == hi) && !(startOf(row).compareTo(from) >= 0 && startOf(row).isBefore(to))) continue;
+            if (n == rows.length) rows = Arrays.copyOf(rows, n * 2);
+            rows[n++] = row;
+        }
+        return sortByStart(rows, n);
+    }
+
+    /**
+     * The first {@code max} rows starting before {@code before}, ordered by start. Keeps a bounded
+     * heap while scanning, so a chunk costs O(n log max) instead of sorting every timed row.
+     */
+    public synchronized int[] startingBefore(LocalDateTime before, int max) {
+        int hi = minute(before);
+        long[] heap = new long[Math.max(0, Math.min(max, size))];   // max-heap of (start << 32 | row)
+        int n = 0;
+        for (int row = 0; row < limit && heap.length > 0; row++) {
+            int s = start[row];
+            if (s > hi || s == NONE || !used.get(row)) continue;
+            if (s == hi && !startOf(row).isBefore(before)) continue;
+            long key = ((long) s << 32) | row;
+            if (n < heap.length) {
+                int i = n++;
+                for (; i > 0 && heap[(i - 1) / 2] < key; i = (i - 1) / 2) heap[i] = heap[(i - 1) / 2];
+                heap[i] = key;
+            } else if (key < heap[0]) {
+                int i = 0;
+                for (int c; (c = 2 * i + 1) < n; i = c) {
+                    if (c + 1 < n && heap[c + 1] > heap[c]) c++;
+                    if (heap[c] <= key) break;
+                    heap[i] = heap[c];
+                }
+                heap[i] = key;
+            }
+        }
+        Arrays.sort(heap, 0, n);
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++) out[i] = (int) heap[i];
+        if (exact.isEmpty()) return out;
+        if (n == max && n > 0) cutBySeconds(out, before);
+        sortWithinMinutes(out);
+        return out;
+    }
+
+    // the cut went through a minute: which of its rows make it depends on their seconds
+    private void cutBySeconds(int[] out, LocalDateTime before) {
+        int last = start[out[out.length - 1]];
+        int first = out.length;
+        while (first > 0 && start[out[first - 1]] == last) first--;
+        int[] minute = new int[16];
+        int m = 0;
+        for (int row = 0; row < limit; row++) {
+            if (start[row] != last || !used.get(row) || !startOf(row).isBefore(before)) continue;
+            if (m == minute.length) minute = Arrays.copyOf(minute, m * 2);
+            minute[m++] = row;
+        }
+        minute = Arrays.copyOf(minute, m);
+        sortWithinMinutes(minute);   // rows come in row order, so ties stay in row order
+        System.arraycopy(minute, 0, out, first, out.length - first);
+    }
+
+    /** Every timed row (start present), ordered by start. */
+    public synchronized int[] timedByStart() {
+        int[] rows = new int[Math.max(16, size)];
+        int n = 0;
+        for (int row = 0; row < limit; row++) {
+            if (start[row] != NONE && used.get(row)) rows[n++] = row;
+        }
+        return sortByStart(rows, n);
+    }
+
+    /** Rows without a start, in row order. */
+    public synchronized int[] untimed() {
+        int[] rows = new int[16];
+        int n = 0;
+        for (int row = 0; row < limit; row++) {
+            if (start[row] != NONE || !used.get(row)) continue;
+            if (n == rows.length) rows = Arrays.copyOf(rows, n * 2);
+            rows[n++] = row;
+        }
+        return Arrays.copyOf(rows, n);
+    }
+
+    /** True when the row has an end and it is before {@code t}. */
+    public synchronized boolean endsBefore(int row, LocalDateTime t) {
+        int e = end[row];
+        if (e == NONE) return false;
+        int m = minute(t);
+        if (e != m) return e < m;
+        LocalDateTime[] x = exact.get(row);
+        return (x != null ? x[1] : time(e)).isBefore(t);
+    }
+
+    public synchronized void clear() {
+        used.clear();
+        important.clear();
+        hasTime.clear();
+        exact.clear();
+        idKeys = emptyIdTable(32);
+        idRows = new int[32];
+        dictionary.clear();
+        words.clear();
+        freeCount = 0;
+        limit = 0;
+        size = 0;
+    }
+
+    /** Approximate heap used by the columns and the dictionary. */
+    public synchronized long memoryBytes() {
+        long bytes = (8L + 3 * 4) * start.length + 4L * free.length + 3L * (limit / 8 + 8) + 12L * idKeys.length;
+        for (String w : words) bytes += 56 + 2L * w.length();   // String + array + map entry
+        return bytes + 96L * exact.size();
+    }
+
+    public synchronized String stats() {
+        return String.format("taskColumns[rows=%d free=%d words=%d exact=%d ~%dKB]",
+                size, freeCount, words.size(), exact.size(), memoryBytes() / 1024);
+    }
+
+    // ---------------- internals ----------------
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        desc = Arrays.copyOf(desc, capacity);
+        start = Arrays.copyOf(start, capacity);
+        end = Arrays.copyOf(end, capacity);
+    }
+
+    private static long[] emptyIdTable(int capacity) {
+        long[] keys = new long[capacity];
+        Arrays.fill(keys, NO_ID);
+        return keys;
+    }
+
+    // Fibonacci hashing: the top log2(capacity) bits of the product, so no table size runs out of bits
+    private static int slot(long id, int mask) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> Long.numberOfLeadingZeros(mask));
+    }
+
+    private void putId(long id, int row) {
+        if ((size + 1) * 2 > idKeys.length) {
+            long[] oldKeys = idKeys;
+            int[] oldRows = idRows;
+            idKeys = emptyIdTable(oldKeys.length * 2);
+            idRows = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != NO_ID) putId(oldKeys[i], oldRows[i]);
+            }
+        }
+        int mask = idKeys.length - 1;
+        int i = slot(id, mask);
+        while (idKeys[i] != NO_ID) i = (i + 1) & mask;
+        idKeys[i] = id;
+        idRows[i] = row;
+    }
+
+    // backward-shift deletion keeps every probe chain unbroken without tombstones
+    private void removeId(long id) {
+        int mask = idKeys.length - 1;
+        int i = slot(id, mask);
+        while (idKeys[i] != id) {
+            if (idKeys[i] == NO_ID) return;
+            i = (i + 1) & mask;
+        }
+        for (int j = (i + 1) & mask; idKeys[j] != NO_ID; j = (j + 1) & mask) {
+            int home = slot(idKeys[j], mask);
+            // move j back into the hole at i unless its home lies cyclically in (i, j]
+            boolean stays = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+            if (!stays) {
+                idKeys[i] = idKeys[j];
+                idRows[i] = idRows[j];
+                i = j;
+            }
+        }
+        idKeys[i] = NO_ID;
+    }
+
+    // the dictionary only grows: distinct activities stay few even over years of tasks
+    private int wordId(String description) {
+        Integer id = dictionary.get(description);
+        if (id == null) {
+            id = words.size();
+            words.add(description);
+            dictionary.put(description, id);
+        }
+        return id;
+    }
+
+    private LocalDateTime startOf(int row) {
+        LocalDateTime[] x = exact.get(row);
+        return x != null ? x[0] : time(start[row]);
+    }
+
+    // (start << 32 | row) sorts by start, then row, as primitives
+    private int[] sortByStart(int[] rows, int n) {
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) keys[i] = ((long) start[rows[i]] << 32) | rows[i];
+        Arrays.sort(keys);
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++) out[i] = (int) keys[i];
+        if (!exact.isEmpty()) sortWithinMinutes(out);
+        return out;
+    }
+
+    // rows sharing a start minute may still differ by seconds
+    private void sortWithinMinutes(int[] rows) {
+        for (int i = 1; i < rows.length; i++) {
+            int row = rows[i];
+            int j = i - 1;
+            while (j >= 0 && start[rows[j]] == start[row] && startOf(rows[j]).isAfter(startOf(row))) {
+                rows[j + 1] = rows[j];
+                j--;
+            }
+            rows[j + 1] = row;
+        }
+    }
+
+    static int minute(LocalDateTime t) {
+        if (t == null) return NONE;
+        int m = Math.toIntExact(Math.floorDiv(t.toEpochSecond(ZoneOffset.UTC), 60));
+        if (m == NONE) throw new ArithmeticException("Time out of range: " + t);
+        return m;
+    }
+
+    private static LocalDateTime time(int minute) {
+        return minute == NONE ? null : LocalDateTime.ofEpochSecond(minute * 60L, 0, ZoneOffset.UTC);
+    }
+
+    private static boolean onMinute(LocalDateTime t) {
+        return t == null || (t.getSecond() == 0 && t.getNano() == 0);
+    }
+}
@@ -0,0 +1,126 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.function.LongConsumer;
+
+/**
+ * Writes every stored task to CSV or iCalendar, streamed from the store
+ * ({@link TaskStore#forEachTask}) straight into the file, so neither the table nor the task list
+ * is ever held in memory. The output reads back with {@link TaskImporter}: CSV as
+ * description,start,end; ICS with timed tasks as VEVENTs (local times) and timeless ones as VTODOs.
+ *
+ * The file is written next to the target and moved into place when complete.
+ */
+public final class TaskExporter {
+
+    private static final int PROGRESS_EVERY = 1000;
+    private static final DateTimeFormatter ICS_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private TaskExporter() {
+    }
+
+    /** Exports all tasks; {@code progress} (may be null) gets the running count now and then. Returns the count. */
+    public static long export(TaskStore store, Path file, TaskImporter.Format format, LongConsumer progress)
+            throws IOException, SQLException {
+        if (format == TaskImporter.Format.TEXT) throw new IllegalArgumentException("Export is CSV or ICS");
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long[] count = {0};
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            String stamp = LocalDateTime.now(ZoneOffset.UTC).format(ICS_DATE_TIME) + "Z";
+            if (format == TaskImporter.Format.CSV) out.write("description,start,end\r\n");
+            else out.write("BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//SmartReminder//Task export//EN\r\n");
+            try {
+                store.forEachTask(t -> {
+                    try {
+                        if (format == TaskImporter.Format.CSV) writeCsv(out, t);
+                        else writeIcs(out, t, stamp);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    if (++count[0] % PROGRESS_EVERY == 0 && progress != null) progress.accept(count[0]);
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (format == TaskImporter.Format.ICS) out.write("END:VCALENDAR\r\n");
+        } catch (IOException | SQLException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (progress != null) progress.accept(count[0]);
+        return count[0];
+    }
+
+    private static void writeCsv(Writer out, Task t) throws IOException {
+        out.write(csv(t.getDescription()));
+        out.write(',');
+        if (t.getStartTime() != null) out.write(t.getStartTime().toString());
+        out.write(',');
+        if (t.getEndTime() != null) out.write(t.getEndTime().toString());
+        out.write("\r\n");
+    }
+
+    private static String csv(String s) {
+        boolean quote = false;
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        return quote ? '"' + s.replace("\"", "\"\"") + '"' : s;
+    }
+
+    private static void writeIcs(Writer out, Task t, String stamp) throws IOException {
+        boolean timed = t.getStartTime() != null && t.getEndTime() != null;
+        String kind = timed ? "VEVENT" : "VTODO";
+        out.write("BEGIN:" + kind + "\r\n");
+        out.write("UID:" + t.getId() + "@smartreminder\r\n");
+        out.write("DTSTAMP:" + stamp + "\r\n");
+        if (timed) {
+            out.write("DTSTART:" + t.getStartTime().format(ICS_DATE_TIME) + "\r\n");
+            out.write("DTEND:" + t.getEndTime().format(ICS_DATE_TIME) + "\r\n");
+        }
+        fold(out, "SUMMARY:" + icsText(t.getDescription()));
+        out.write("END:" + kind + "\r\n");
+    }
+
+    private static String icsText(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 8);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\': case ';': case ',': sb.append('\\').append(c); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': break;
+                default: sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // RFC 5545: lines of at most 75 octets, continued with a leading space; never splits a character
+    private static void fold(Writer out, String line) throws IOException {
+        int octets = 0;
+        for (int i = 0; i < line.length(); ) {
+            int cp = line.codePointAt(i);
+            int n = cp < 0x80 ? 1 : cp < 0x800 ? 2 : cp < 0x10000 ? 3 : 4;
+            if (octets + n > 75) {
+                out.write("\r\n ");
+                octets = 1;
+            }
+            out.write(line, i, Character.charCount(cp));
+            octets += n;
+            i += Character.charCount(cp);
+        }
+        out.write("\r\n");
+    }
+}
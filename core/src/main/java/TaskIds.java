@@ -0,0 +1,28 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates task ids on the client, so a task has its id (and can be deleted or reminded by it)
+ * before the write-behind queue has stored it.
+ *
+ * Ids are the current time in milliseconds shifted left by 12 bits plus a counter: increasing,
+ * unique within the process and across restarts. Ids read back from a store are passed to
+ * {@link #observe}, so new ids always sort after existing ones, including small
+ * AUTO_INCREMENT ids from rows inserted by hand.
+ */
+public final class TaskIds {
+
+    private static final AtomicLong last = new AtomicLong();
+
+    private TaskIds() {
+    }
+
+    public static long next() {
+        long floor = System.currentTimeMillis() << 12;
+        return last.updateAndGet(prev -> Math.max(prev + 1, floor));
+    }
+
+    /** Records an id that already exists. */
+    public static void observe(long id) {
+        if (id > last.get()) last.accumulateAndGet(id, Math::max);
+    }
+}
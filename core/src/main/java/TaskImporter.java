@@ -0,0 +1,583 @@
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of tasks from CSV, plain text or iCalendar, streamed: memory is bounded by the
+ * batch size (smartreminder.import.batch, default 1000 records) however large the file is.
+ *
+ * Records are read a batch at a time and parsed in parallel; while one batch is being written
+ * the next one is read and parsed. Each batch is checked against the store and written with one
+ * {@link TaskStore#applyBatch}, i.e. one transaction.
+ *
+ * Formats:
+ *  - CSV: description,start,end with an optional header row (then columns go by name; summary
+ *    or title also work for the description). Times are ISO (2026-10-18T09:00) or
+ *    "2026-10-18 09:00"; no start and end makes a timeless task. RFC 4180 quoting.
+ *  - TEXT: one task per line through {@link TaskParser}, on the given day unless the line starts
+ *    with a date ("2026-10-18 Gym at 6 PM").
+ *  - ICS: VEVENTs (SUMMARY, DTSTART, DTEND or DURATION; UTC and TZID times are converted to
+ *    the local zone, all-day events cover their days) and VTODOs as timeless tasks. Recurrence
+ *    rules are not expanded: the first occurrence is imported.
+ *
+ * A task longer than a day (a multi-day event, "for 30 hours") is split at midnight into one
+ * task per day: day views and conflict checks only look one day back for tasks running into
+ * the day they ask for.
+ *
+ * A task is a duplicate when a stored or already imported task is the same activity
+ * ({@link Task#sameActivity}) with the same start and end. Duplicates are skipped, and so are
+ * records that don't parse (counted as rejected).
+ */
+public class TaskImporter {
+
+    public enum Format {
+        CSV, TEXT, ICS;
+
+        /** By file extension: .csv, .ics / .ical, anything else is text. */
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv")) return CSV;
+            if (name.endsWith(".ics") || name.endsWith(".ical")) return ICS;
+            return TEXT;
+        }
+    }
+
+    public interface Listener {
+        /** After each batch, on the import's writer thread, with the tasks it stored. */
+        void batchImported(List<Task> imported, Progress progress);
+    }
+
+    /** Counts so far; bytes only when importing a file. */
+    public static final class Progress {
+        public final long records;
+        public final long imported;
+        public final long duplicates;
+        public final long rejected;
+        public final long bytesRead;
+        public final long totalBytes;
+
+        Progress(long records, long imported, long duplicates, long rejected, long bytesRead, long totalBytes) {
+            this.records = records;
+            this.imported = imported;
+            this.duplicates = duplicates;
+            this.rejected = rejected;
+            this.bytesRead = bytesRead;
+            this.totalBytes = totalBytes;
+        }
+
+        /** Share of the file read, 0..1, or -1 when the size is unknown. */
+        public double fraction() {
+            return totalBytes > 0 ? Math.min(1.0, (double) bytesRead / totalBytes) : -1;
+        }
+
+        @Override
+        public String toString() {
+            String pct = totalBytes > 0 ? String.format(" (%.0f%%)", fraction() * 100) : "";
+            return String.format("%d read, %d imported, %d duplicates, %d rejected%s",
+                    records, imported, duplicates, rejected, pct);
+        }
+    }
+
+    private static final int DEFAULT_BATCH = Integer.getInteger("smartreminder.import.batch", 1000);
+    private static final DateTimeFormatter ICS_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final TaskStore store;
+    private final int batchSize;
+
+    public TaskImporter(TaskStore store) {
+        this(store, DEFAULT_BATCH);
+    }
+
+    public TaskImporter(TaskStore store, int batchSize) {
+        this.store = store;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /** Imports a UTF-8 file; {@code day} is the day for text lines without a date. */
+    public Progress importFile(Path file, Format format, LocalDate day, Listener listener)
+            throws IOException, SQLException {
+        long size = Files.size(file);
+        try (CountingInputStream counted = new CountingInputStream(Files.newInputStream(file));
+             BufferedReader in = new BufferedReader(new InputStreamReader(counted, StandardCharsets.UTF_8), 1 << 16)) {
+            return run(in, format, day, counted::count, size, listener);
+        }
+    }
+
+    /** Imports from a reader (no byte progress). */
+    public Progress importFrom(BufferedReader in, Format format, LocalDate day, Listener listener)
+            throws IOException, SQLException {
+        return run(in, format, day, () -> 0, 0, listener);
+    }
+
+    private Progress run(BufferedReader in, Format format, LocalDate day, LongSupplier bytesRead, long totalBytes,
+                         Listener listener) throws IOException, SQLException {
+        Source source = format == Format.CSV ? new CsvSource(in)
+                : format == Format.ICS ? new IcsSource(in)
+                : new TextSource(in, day);
+        Batches batches = new Batches(listener, bytesRead, totalBytes);
+        ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "task-import-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            Future<?> writing = null;
+            List<Object> records = new ArrayList<>(batchSize);
+            while (true) {
+                records.clear();
+                Object record;
+                while (records.size() < batchSize && (record = source.next()) != null) records.add(record);
+                if (records.isEmpty()) break;
+                int read = records.size();
+                List<Task> parsed = records.parallelStream().map(source::parseOrNull)
+                        .flatMap(t -> byDay(t).stream()).collect(Collectors.toList());
+                await(writing);   // at most one batch is written while the next one is parsed
+                writing = writer.submit(() -> {
+                    batches.write(parsed, read);
+                    return null;
+                });
+            }
+            await(writing);
+        } finally {
+            writer.shutdownNow();
+        }
+        return batches.progress();
+    }
+
+    private static void await(Future<?> f) throws SQLException, InterruptedIOException {
+        if (f == null) return;
+        try {
+            f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) throw (SQLException) e.getCause();
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // ---------------- dedupe and write (writer thread only) ----------------
+
+    private final class Batches {
+        final Listener listener;
+        final LongSupplier bytesRead;
+        final long totalBytes;
+        Set<String> timeless;   // keys of live timeless tasks, loaded with the first batch
+        long records, imported, duplicates, rejected;
+
+        Batches(Listener listener, LongSupplier bytesRead, long totalBytes) {
+            this.listener = listener;
+            this.bytesRead = bytesRead;
+            this.totalBytes = totalBytes;
+        }
+
+        void write(List<Task> parsed, int read) throws SQLException {
+            if (timeless == null) {
+                timeless = new HashSet<>();
+                for (Task t : store.getLiveTasks(LocalDateTime.now())) {
+                    if (t.getStartTime() == null) timeless.add(key(t));
+                }
+            }
+            Set<String> timed = storedKeys(parsed);
+            List<Task> fresh = new ArrayList<>();
+            for (Task t : parsed) {
+                if (t == null) {
+                    rejected++;
+                } else if (!(t.getStartTime() == null ? timeless : timed).add(key(t))) {
+                    duplicates++;
+                } else {
+                    fresh.add(t);
+                }
+            }
+            if (!fresh.isEmpty()) store.applyBatch(fresh, List.of());
+            records += read;
+            imported += fresh.size();
+            if (listener != null) listener.batchImported(fresh, progress());
+        }
+
+        // keys of stored tasks on the batch's days, one query per run of consecutive days;
+        // earlier batches are already stored, so this also catches duplicates across batches
+        Set<String> storedKeys(List<Task> parsed) throws SQLException {
+            TreeSet<LocalDate> days = new TreeSet<>();
+            for (Task t : parsed) {
+                if (t != null && t.getStartTime() != null) days.add(t.getStartTime().toLocalDate());
+            }
+            Set<String> keys = new HashSet<>();
+            while (!days.isEmpty()) {
+                LocalDate from = days.pollFirst(), to = from;
+                while (!days.isEmpty() && days.first().equals(to.plusDays(1))) to = days.pollFirst();
+                for (Task t : store.getTasksInWindow(from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+                    keys.add(key(t));
+                }
+            }
+            return keys;
+        }
+
+        Progress progress() {
+            return new Progress(records, imported, duplicates, rejected, bytesRead.getAsLong(), totalBytes);
+        }
+    }
+
+    // a task of at most a day stays as it is, a longer one becomes a task per calendar day
+    static List<Task> byDay(Task t) {
+        if (t == null || t.getStartTime() == null || t.getEndTime() == null
+                || !t.getEndTime().isAfter(t.getStartTime().plusDays(1))) {
+            return Collections.singletonList(t);
+        }
+        List<Task> days = new ArrayList<>();
+        for (LocalDateTime s = t.getStartTime(); s.isBefore(t.getEndTime()); ) {
+            LocalDateTime midnight = s.toLocalDate().plusDays(1).atStartOfDay();
+            LocalDateTime e = midnight.isBefore(t.getEndTime()) ? midnight : t.getEndTime();
+            days.add(new Task(t.getDescription(), s, e, t.isImportant()));
+            s = e;
+        }
+        return days;
+    }
+
+    // same activity (description ignoring case) at the same times
+    private static String key(Task t) {
+        return t.getDescription().toLowerCase(Locale.ROOT) + '\n' + t.getStartTime() + '\n' + t.getEndTime();
+    }
+
+    // ---------------- sources: next() reads one raw record, parse() runs in parallel ----------------
+
+    private abstract static class Source {
+        /** The next raw record, or null at the end of the input. */
+        abstract Object next() throws IOException;
+
+        abstract Task parse(Object record);
+
+        Task parseOrNull(Object record) {
+            try {
+                Task t = parse(record);
+                return t == null || t.getDescription().isEmpty() ? null : t;
+            } catch (RuntimeException e) {   // bad dates, numbers, shapes
+                return null;
+            }
+        }
+    }
+
+    private static final class TextSource extends Source {
+        private final BufferedReader in;
+        private final LocalDate day;
+
+        TextSource(BufferedReader in, LocalDate day) {
+            this.in = in;
+            this.day = day;
+        }
+
+        @Override
+        Object next() throws IOException {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isBlank()) return line;
+            }
+            return null;
+        }
+
+        @Override
+        Task parse(Object record) {
+            String line = ((String) record).strip();
+            if (line.length() > 11 && line.charAt(4) == '-' && line.charAt(7) == '-' && line.charAt(10) == ' '
+                    && Character.isDigit(line.charAt(0))) {
+                return TaskParser.parse(line.substring(11), LocalDate.parse(line.substring(0, 10)));
+            }
+            return TaskParser.parse(line, day);
+        }
+    }
+
+    private static final class CsvSource extends Source {
+        private final BufferedReader in;
+        private boolean started;
+        private int description = 0, start = 1, end = 2;   // columns; from the header if there is one
+
+        CsvSource(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        Object next() throws IOException {
+            while (true) {
+                String record = readRecord();
+                if (record == null) return null;
+                if (record.isBlank()) continue;
+                if (!started) {
+                    started = true;
+                    if (header(split(record))) continue;
+                }
+                return record;
+            }
+        }
+
+        // a quoted field can hold line breaks: read on while the quotes are unbalanced
+        private String readRecord() throws IOException {
+            String line = in.readLine();
+            if (line == null) return null;
+            StringBuilder record = new StringBuilder(line);
+            int quotes = count(line);
+            while (quotes % 2 != 0 && (line = in.readLine()) != null) {
+                record.append('\n').append(line);
+                quotes += count(line);
+            }
+            return record.toString();
+        }
+
+        private static int count(String line) {
+            int n = 0;
+            for (int i = 0; i < line.length(); i++) if (line.charAt(i) == '"') n++;
+            return n;
+        }
+
+        private boolean header(List<String> fields) {
+            int d = -1, s = -1, e = -1;
+            for (int i = 0; i < fields.size(); i++) {
+                switch (fields.get(i).strip().toLowerCase(Locale.ROOT)) {
+                    case "description": case "summary": case "title": case "task": d = i; break;
+                    case "start": case "start_time": case "starttime": s = i; break;
+                    case "end": case "end_time": case "endtime": e = i; break;
+                    default: break;
+                }
+            }
+            if (d < 0) return false;
+            description = d;
+            start = s;
+            end = e;
+            return true;
+        }
+
+        @Override
+        Task parse(Object record) {
+            List<String> fields = split((String) record);
+            LocalDateTime s = time(field(fields, start)), e = time(field(fields, end));
+            if ((s == null) != (e == null) || (s != null && e.isBefore(s))) return null;
+            return new Task(field(fields, description), s, e);
+        }
+
+        private static String field(List<String> fields, int i) {
+            return i >= 0 && i < fields.size() ? fields.get(i) : "";
+        }
+
+        private static LocalDateTime time(String s) {
+            s = s.strip();
+            return s.isEmpty() ? null : LocalDateTime.parse(s.replace(' ', 'T'));
+        }
+
+        static List<String> split(String record) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder f = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < record.length(); i++) {
+                char c = record.charAt(i);
+                if (quoted) {
+                    if (c != '"') f.append(c);
+                    else if (i + 1 < record.length() && record.charAt(i + 1) == '"') f.append(record.charAt(++i));
+                    else quoted = false;
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(f.toString());
+                    f.setLength(0);
+                } else if (c != '\r') {
+                    f.append(c);
+                }
+            }
+            fields.add(f.toString());
+            return fields;
+        }
+    }
+
+    private static final class IcsSource extends Source {
+        private final BufferedReader in;
+        private String pending;   // next physical line, read ahead for unfolding
+
+        IcsSource(BufferedReader in) {
+            this.in = in;
+        }
+
+        // a record is the unfolded property lines of one VEVENT / VTODO, its kind first;
+        // nested components (VALARM) are skipped
+        @Override
+        Object next() throws IOException {
+            List<String> props = null;
+            int nested = 0;
+            String line;
+            while ((line = unfolded()) != null) {
+                String upper = line.toUpperCase(Locale.ROOT);
+                if (props == null) {
+                    if (upper.equals("BEGIN:VEVENT") || upper.equals("BEGIN:VTODO")) {
+                        props = new ArrayList<>();
+                        props.add(upper.substring(6));
+                    }
+                } else if (upper.startsWith("BEGIN:")) {
+                    nested++;
+                } else if (upper.startsWith("END:")) {
+                    if (nested-- == 0) return props;
+                } else if (nested == 0) {
+                    props.add(line);
+                }
+            }
+            return null;
+        }
+
+        private String unfolded() throws IOException {
+            String line = pending != null ? pending : in.readLine();
+            pending = null;
+            if (line == null) return null;
+            StringBuilder sb = null;
+            String next;
+            while ((next = in.readLine()) != null && !next.isEmpty() && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+                if (sb == null) sb = new StringBuilder(line);
+                sb.append(next, 1, next.length());
+            }
+            pending = next;
+            return sb == null ? line : sb.toString();
+        }
+
+        @Override
+        Task parse(Object record) {
+            @SuppressWarnings("unchecked")
+            List<String> props = (List<String>) record;
+            String summary = null, start = null, startParams = "", end = null, endParams = "", duration = null;
+            for (int i = 1; i < props.size(); i++) {
+                String p = props.get(i);
+                int colon = valueStart(p);
+                if (colon < 0) continue;
+                int semi = p.indexOf(';');
+                String name = p.substring(0, semi >= 0 && semi < colon ? semi : colon).toUpperCase(Locale.ROOT);
+                String params = semi >= 0 && semi < colon ? p.substring(semi + 1, colon) : "";
+                String value = p.substring(colon + 1);
+                switch (name) {
+                    case "SUMMARY": summary = unescape(value); break;
+                    case "DTSTART": start = value; startParams = params; break;
+                    case "DTEND": case "DUE": end = value; endParams = params; break;
+                    case "DURATION": duration = value; break;
+                    default: break;
+                }
+            }
+            if (summary == null) return null;
+            if (props.get(0).equals("VTODO") || start == null) return new Task(summary, null, null);
+
+            LocalDateTime s = time(start, startParams);
+            LocalDateTime e;
+            if (end != null) e = time(end, endParams);
+            else if (duration != null) e = s.plus(duration(duration));
+            else e = isDate(start) ? s.plusDays(1) : s;   // RFC 5545: all-day by default, else instant
+            if (e.isBefore(s)) return null;
+            return new Task(summary, s, e);
+        }
+
+        // the ':' before the value; quoted parameter values may contain ':'
+        private static int valueStart(String p) {
+            boolean quoted = false;
+            for (int i = 0; i < p.length(); i++) {
+                char c = p.charAt(i);
+                if (c == '"') quoted = !quoted;
+                else if (c == ':' && !quoted) return i;
+            }
+            return -1;
+        }
+
+        private static boolean isDate(String value) {
+            return value.length() == 8;
+        }
+
+        // local time; UTC (Z) and TZID times are converted to this machine's zone
+        private static LocalDateTime time(String value, String params) {
+            if (isDate(value)) return LocalDate.parse(value, DateTimeFormatter.BASIC_ISO_DATE).atStartOfDay();
+            boolean utc = value.endsWith("Z");
+            LocalDateTime t = LocalDateTime.parse(utc ? value.substring(0, value.length() - 1) : value, ICS_DATE_TIME);
+            ZoneId zone = utc ? ZoneOffset.UTC : tzid(params);
+            return zone == null ? t : t.atZone(zone).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        }
+
+        private static ZoneId tzid(String params) {
+            for (String param : params.split(";")) {
+                if (param.regionMatches(true, 0, "TZID=", 0, 5)) {
+                    try {
+                        return ZoneId.of(param.substring(5).replace("\"", ""));
+                    } catch (RuntimeException e) {
+                        return null;   // unknown zone name: keep the time as written
+                    }
+                }
+            }
+            return null;
+        }
+
+        // Duration.parse has no weeks
+        private static Duration duration(String value) {
+            String v = value.startsWith("+") ? value.substring(1) : value;
+            if (v.endsWith("W")) return Duration.ofDays(7 * Long.parseLong(v.substring(1, v.length() - 1)));
+            return Duration.parse(v);
+        }
+
+        private static String unescape(String v) {
+            if (v.indexOf('\\') < 0) return v;
+            StringBuilder sb = new StringBuilder(v.length());
+            for (int i = 0; i < v.length(); i++) {
+                char c = v.charAt(i);
+                if (c == '\\' && i + 1 < v.length()) {
+                    char n = v.charAt(++i);
+                    sb.append(n == 'n' || n == 'N' ? '\n' : n);
+                } else {
+                    sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    // bytes consumed from the file, for progress; written by the reading thread only
+    private static final class CountingInputStream extends FilterInputStream {
+        private volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long count() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
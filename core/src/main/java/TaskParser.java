@@ -0,0 +1,451 @@
+import java.time.*;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Parses natural language tasks:
+ *  - "Wake up at 6 AM"
+ *  - "Meeting Jon for coffee at 5 PM for 1 hour"
+ *  - "6 PM to 7 PM games"
+ *  - "Call mom at 3.30 pm for 45 minutes"
+ *
+ * Rules:
+ *  - If only start time provided → default 30 minutes (except keywords like "sleep")
+ *  - "Sleep" defaults to 7 hours if no duration
+ *  - Tasks without time → description-only
+ *
+ * Hand-written scanner instead of regexes; it accepts exactly what the old patterns did:
+ *  RANGE        (?i)(\d{1,2})([:.](\d{2}))?\s*(am|pm)\s*(to|-)\s*(\d{1,2})([:.](\d{2}))?\s*(am|pm)
+ *  AT_TIME      (?i)\bat\s*(\d{1,2})([:.](\d{2}))?\s*(am|pm)\b
+ *  FOR_DURATION (?i)\bfor\s*(\d{1,3})\s*(min|mins|minute|minutes|hr|hrs|hour|hours)\b
+ * (ASCII case folding, \s = [ \t\n\x0B\f\r]). \b is pinned to what java.util.regex did up to JDK 18:
+ * letters and digits of any script and '_' are word characters, and a non-spacing mark counts as
+ * the letter it sits on, so "éat 5 pm" has no time. JDK 19+ regexes treat \b as ASCII-only
+ * (JDK-8264160); the scanner does not follow that, so a task parses the same on JDK 17 and 21.
+ * TaskParserDifferentialTest checks it against the old patterns with that \b spelled out.
+ * One pass over the input finds the first range or, failing that, the first "at" and "for" matches.
+ *
+ * Recurring tasks ("Wake up every day at 6 AM", "Gym every mon and thu at 6 PM until 2026-12-31")
+ * go through {@link #parseRecurring}; it only runs its (precompiled) patterns when the text has
+ * one of the repeat words, so ordinary tasks pay a substring check.
+ */
+public class TaskParser {
+
+    static final long DEFAULT_MINUTES = 30;
+    static final long SLEEP_MINUTES = 7 * 60;
+    private static final Metrics.Timer PARSE = Metrics.timer("task_parse");
+
+    private static final String[] UNITS = {"min", "mins", "minute", "minutes", "hr", "hrs", "hour", "hours"};
+
+    // recurrence phrases, see parseRecurring
+    private static final String[] REPEAT_WORDS = {"every", "daily", "weekly", "weekday"};
+    private static final String DAY_NAME = "(?:monday|tuesday|wednesday|thursday|friday|saturday|sunday"
+            + "|mon|tues|tue|wed|thurs|thur|thu|fri|sat|sun)s?";
+    private static final String DAY_LIST = DAY_NAME + "(?:\\s*(?:,|and|&)\\s*" + DAY_NAME + ")*";
+    private static final Pattern REPEAT = Pattern.compile("(?i)\\b(?:every\\s+(?:(other)\\s+)?(?:(\\d{1,3})\\s+)?(days?|weeks?)"
+            + "|every\\s+(weekdays?)|(daily)|(weekly)|(?:on\\s+)?(weekdays)|every\\s+(" + DAY_LIST + "))"
+            + "(?:\\s+on\\s+(" + DAY_LIST + "))?\\b");
+    private static final Pattern DAY = Pattern.compile("(?i)" + DAY_NAME);
+    private static final Pattern UNTIL = Pattern.compile("(?i)\\buntil\\s+(\\d{4}-\\d{2}-\\d{2})\\b");
+    private static final Pattern COUNT = Pattern.compile("(?i)\\b(?:for\\s+)?(\\d{1,4})\\s+times\\b");
+
+    /** End offset and fields of the last successful match; one per parse() call. */
+    private static final class Match {
+        int start, end;
+        int h1, m1, h2, m2;   // m = -1 when the minutes were left out
+        boolean pm1, pm2;
+        int qty, unit;
+    }
+
+    public static Task parse(String input, LocalDate day) {
+        Metrics.Sample sample = PARSE.start();
+        try {
+            return scan(input, day);
+        } finally {
+            sample.stop();
+        }
+    }
+
+    private static Task scan(String input, LocalDate day) {
+        String desc = input.trim();
+        int n = desc.length();
+
+        Match m = new Match();
+        int atStart = -1, atEnd = -1, atH = 0, atM = 0;
+        boolean atPm = false;
+        int forQty = -1, forUnit = -1;
+
+        for (int i = 0; i < n; i++) {
+            char c = desc.charAt(i);
+            if (isDigit(c)) {
+                // Case 1: Explicit time range → "6 PM to 7 PM" (wins wherever it is)
+                if (range(desc, i, m)) {
+                    LocalDateTime sdt = LocalDateTime.of(day, toLocalTime(m.h1, m.m1, m.pm1));
+                    LocalDateTime edt = LocalDateTime.of(day, toLocalTime(m.h2, m.m2, m.pm2));
+                    return new Task(clean(desc, desc.substring(i, m.end), false), sdt, edt);
+                }
+            } else if (atStart < 0 && (c | 0x20) == 'a') {
+                if (at(desc, i, m)) {
+                    atStart = i;
+                    atEnd = m.end;
+                    atH = m.h1;
+                    atM = m.m1;
+                    atPm = m.pm1;
+                }
+            } else if (forQty < 0 && (c | 0x20) == 'f') {
+                if (duration(desc, i, m)) {
+                    forQty = m.qty;
+                    forUnit = m.unit;
+                }
+            }
+        }
+
+        // Case 2: "at <time>" + optional "for <duration>"
+        if (atStart >= 0) {
+            LocalDateTime sdt = LocalDateTime.of(day, toLocalTime(atH, atM, atPm));
+
+            long minutes = DEFAULT_MINUTES;
+            if (forQty >= 0) {
+                minutes = UNITS[forUnit].startsWith("min") ? forQty : forQty * 60L;
+            } else if (containsIgnoreCase(desc, "sleep")) {
+                minutes = SLEEP_MINUTES;
+            }
+            LocalDateTime edt = sdt.plusMinutes(minutes);
+
+            return new Task(clean(desc, desc.substring(atStart, atEnd), true), sdt, edt);
+        }
+
+        // Case 3: No explicit time → timeless task
+        return new Task(desc, null, null);
+    }
+
+    /**
+     * How long a task without a time takes: its "for <duration>" if the text has one, else the
+     * defaults used for a start time without duration (30 minutes, 7 hours for sleep).
+     */
+    public static long defaultMinutes(String description) {
+        Match m = new Match();
+        for (int i = 0; i < description.length(); i++) {
+            if ((description.charAt(i) | 0x20) == 'f' && duration(description, i, m)) {
+                return Math.max(1, UNITS[m.unit].startsWith("min") ? m.qty : m.qty * 60L);
+            }
+        }
+        return containsIgnoreCase(description, "sleep") ? SLEEP_MINUTES : DEFAULT_MINUTES;
+    }
+
+    /**
+     * A recurring task, or null when the text has no repeat phrase or no time (then it is a
+     * plain task for {@link #parse}). Understands "every day", "daily", "every other day",
+     * "every 3 days", "every weekday", "(on) weekdays", "every week", "weekly", "every 2 weeks",
+     * weekday lists ("every mon and thu", "every 2 weeks on tue, fri"), "until yyyy-MM-dd" and
+     * "N times". The rest is parsed like any task, from {@code day} on.
+     */
+    public static RecurringTask parseRecurring(String input, LocalDate day) {
+        boolean repeats = false;
+        for (String w : REPEAT_WORDS) repeats |= containsIgnoreCase(input, w);
+        if (!repeats) return null;
+
+        Matcher m = REPEAT.matcher(input);
+        if (!m.find()) return null;
+        RecurrenceRule rule;
+        if (m.group(3) != null) {
+            int interval = m.group(2) != null ? Integer.parseInt(m.group(2)) : m.group(1) != null ? 2 : 1;
+            if (interval < 1) return null;
+            rule = m.group(3).toLowerCase(Locale.ROOT).startsWith("day")
+                    ? RecurrenceRule.daily(interval)
+                    : RecurrenceRule.weekly(interval, days(m.group(9)));
+        } else if (m.group(4) != null || m.group(7) != null) {
+            rule = RecurrenceRule.weekdays();
+        } else if (m.group(5) != null) {
+            rule = RecurrenceRule.daily(1);
+        } else {
+            rule = RecurrenceRule.weekly(1, days(m.group(8) != null ? m.group(8) : m.group(9)));
+        }
+        String rest = input.substring(0, m.start()) + " " + input.substring(m.end());
+
+        Matcher until = UNTIL.matcher(rest);
+        if (until.find()) {
+            try {
+                rule = rule.until(LocalDate.parse(until.group(1)));
+            } catch (DateTimeException e) {
+                return null;
+            }
+            rest = rest.substring(0, until.start()) + " " + rest.substring(until.end());
+        }
+        Matcher count = COUNT.matcher(rest);
+        if (count.find()) {
+            int times = Integer.parseInt(count.group(1));
+            if (times < 1) return null;
+            rule = rule.times(times);
+            rest = rest.substring(0, count.start()) + " " + rest.substring(count.end());
+        }
+
+        Task first = parse(rest, day);
+        if (first == null || !first.hasTime()) return null;
+        return new RecurringTask(first.getDescription(), first.getStartTime(), first.getEndTime(), rule);
+    }
+
+    private static Set<DayOfWeek> days(String list) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        if (list == null) return days;
+        Matcher d = DAY.matcher(list);
+        while (d.find()) {
+            String prefix = d.group().substring(0, 3).toUpperCase(Locale.ROOT);
+            for (DayOfWeek dow : DayOfWeek.values()) {
+                if (dow.name().startsWith(prefix)) days.add(dow);
+            }
+        }
+        return days;
+    }
+
+    /** Lenient parse: safe fallback */
+    public static Task tryParseLenient(String input, LocalDate day) {
+        try {
+            return parse(input, day);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Bulk parse for imports: blank lines and lines that fail to parse are skipped, order is kept.
+     * The parser is stateless, so a parallel stream (lines.parallel()) is safe for large backlogs.
+     */
+    public static List<Task> parseAll(Stream<String> lines, LocalDate day) {
+        return lines.filter(line -> line != null && !line.isBlank())
+                .map(line -> tryParseLenient(line, day))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // ---------------- matchers (return false or fill m and m.end) ----------------
+
+    private static boolean range(String s, int i, Match m) {
+        int k = time(s, i, m);
+        if (k < 0) return false;
+        int h1 = m.h1, m1 = m.m1;
+        boolean pm1 = m.pm1;
+
+        k = skipSpace(s, k);
+        if (k < s.length() && s.charAt(k) == '-') k++;
+        else if (k + 1 < s.length() && (s.charAt(k) | 0x20) == 't' && (s.charAt(k + 1) | 0x20) == 'o') k += 2;
+        else return false;
+        k = time(s, skipSpace(s, k), m);
+        if (k < 0) return false;
+
+        m.h2 = m.h1;
+        m.m2 = m.m1;
+        m.pm2 = m.pm1;
+        m.h1 = h1;
+        m.m1 = m1;
+        m.pm1 = pm1;
+        m.end = k;
+        return true;
+    }
+
+    private static boolean at(String s, int i, Match m) {
+        if (!boundaryBefore(s, i)) return false;
+        if (i + 1 >= s.length() || (s.charAt(i + 1) | 0x20) != 't') return false;
+        int k = time(s, skipSpace(s, i + 2), m);
+        if (k < 0 || !boundaryAfterWord(s, k)) return false;
+        m.end = k;
+        return true;
+    }
+
+    private static boolean duration(String s, int i, Match m) {
+        if (!boundaryBefore(s, i) || !regionIs(s, i, "for")) return false;
+        int k = skipSpace(s, i + 3);
+        int d = k;
+        int qty = 0;
+        while (d < s.length() && isDigit(s.charAt(d))) {
+            qty = qty * 10 + (s.charAt(d) - '0');
+            d++;
+        }
+        // \d{1,3} can only succeed on a whole run of 1-3 digits: the unit can't start with a digit
+        if (d == k || d - k > 3) return false;
+        k = skipSpace(s, d);
+        for (int u = 0; u < UNITS.length; u++) {
+            int e = k + UNITS[u].length();
+            if (regionIs(s, k, UNITS[u]) && boundaryAfterWord(s, e)) {
+                m.qty = qty;
+                m.unit = u;
+                m.end = e;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** (\d{1,2})([:.](\d{2}))?\s*(am|pm) into h1/m1/pm1; end offset or -1. */
+    private static int time(String s, int k, Match m) {
+        int n = s.length();
+        if (k >= n || !isDigit(s.charAt(k))) return -1;
+        int h = s.charAt(k++) - '0';
+        if (k < n && isDigit(s.charAt(k))) h = h * 10 + (s.charAt(k++) - '0');
+
+        int min = -1;
+        if (k < n && (s.charAt(k) == ':' || s.charAt(k) == '.') && isDigitAt(s, k + 1) && isDigitAt(s, k + 2)) {
+            min = (s.charAt(k + 1) - '0') * 10 + (s.charAt(k + 2) - '0');
+            k += 3;
+        }
+
+        k = skipSpace(s, k);
+        if (k + 1 >= n || (s.charAt(k + 1) | 0x20) != 'm') return -1;
+        char ap = (char) (s.charAt(k) | 0x20);
+        if (ap != 'a' && ap != 'p') return -1;
+
+        m.h1 = h;
+        m.m1 = min;
+        m.pm1 = ap == 'p';
+        return k + 2;
+    }
+
+    // ---------------- cleaning ----------------
+
+    /**
+     * desc.replace(matched, "") [then remove every "for <n> <unit>"], collapse \s{2,} to one space, trim.
+     */
+    private static String clean(String desc, String matched, boolean dropDurations) {
+        String s = desc;
+        if (dropDurations) {
+            s = removeAll(desc, matched);
+            matched = null;
+        }
+
+        StringBuilder out = new StringBuilder(s.length());
+        Match m = dropDurations ? new Match() : null;
+        int n = s.length();
+        int spaces = 0;
+        char lastSpace = ' ';
+        int i = 0;
+        while (i < n) {
+            if (matched != null && s.startsWith(matched, i)) {
+                i += matched.length();
+                continue;
+            }
+            char c = s.charAt(i);
+            if (dropDurations && (c | 0x20) == 'f') {
+                if (duration(s, i, m)) {
+                    i = m.end;
+                    continue;
+                }
+            }
+            if (isSpace(c)) {
+                spaces++;
+                lastSpace = c;
+            } else {
+                flushSpaces(out, spaces, lastSpace);
+                spaces = 0;
+                out.append(c);
+            }
+            i++;
+        }
+        flushSpaces(out, spaces, lastSpace);
+
+        String cleaned = out.toString().trim();
+        return cleaned.isEmpty() ? "Task" : cleaned;
+    }
+
+    private static void flushSpaces(StringBuilder out, int spaces, char only) {
+        if (spaces == 1) out.append(only);
+        else if (spaces > 1) out.append(' ');
+    }
+
+    private static String removeAll(String s, String target) {
+        int at = s.indexOf(target);
+        if (at < 0) return s;
+        StringBuilder sb = new StringBuilder(s.length());
+        int from = 0;
+        do {
+            sb.append(s, from, at);
+            from = at + target.length();
+            at = s.indexOf(target, from);
+        } while (at >= 0);
+        return sb.append(s, from, s.length()).toString();
+    }
+
+    // ---------------- character classes ----------------
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isDigitAt(String s, int i) {
+        return i < s.length() && isDigit(s.charAt(i));
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private static int skipSpace(String s, int k) {
+        while (k < s.length() && isSpace(s.charAt(k))) k++;
+        return k;
+    }
+
+    /** ASCII case-insensitive comparison of s at offset i with a lowercase word. */
+    private static boolean regionIs(String s, int i, String lower) {
+        if (i + lower.length() > s.length()) return false;
+        for (int j = 0; j < lower.length(); j++) {
+            char c = s.charAt(i + j);
+            if (c != lower.charAt(j) && (c | 0x20) != lower.charAt(j)) return false;
+        }
+        return true;
+    }
+
+    private static boolean containsIgnoreCase(String s, String lower) {
+        for (int i = 0; i + lower.length() <= s.length(); i++) {
+            if (regionIs(s, i, lower)) return true;
+        }
+        return false;
+    }
+
+    // \b as java.util.regex had it up to JDK 18 (see the class comment): word = letter/digit of any
+    // script or '_'; a combining mark counts when it sits on one, found char by char like the JDK did
+
+    private static boolean isWord(int cp) {
+        return cp == '_' || Character.isLetterOrDigit(cp);
+    }
+
+    /** \b in front of a word character at i. */
+    private static boolean boundaryBefore(String s, int i) {
+        if (i == 0) return true;
+        int cp = Character.codePointBefore(s, i);
+        if (isWord(cp)) return false;
+        return !(Character.getType(cp) == Character.NON_SPACING_MARK && hasBase(s, i - 1));
+    }
+
+    /** \b right after a word character (the end of am/pm or a unit). */
+    private static boolean boundaryAfterWord(String s, int e) {
+        if (e >= s.length()) return true;
+        int cp = Character.codePointAt(s, e);
+        return !isWord(cp) && Character.getType(cp) != Character.NON_SPACING_MARK;
+    }
+
+    private static boolean hasBase(String s, int x) {
+        for (; x >= 0; x--) {
+            int cp = Character.codePointAt(s, x);
+            if (Character.isLetterOrDigit(cp)) return true;
+            if (Character.getType(cp) != Character.NON_SPACING_MARK) return false;
+        }
+        return false;
+    }
+
+    // Helper to turn the time parts into a LocalTime (minutes = -1 when absent)
+    private static LocalTime toLocalTime(int h, int m, boolean pm) {
+        if (m < 0) m = 0;
+        if (!pm) {
+            if (h == 12) h = 0;
+        } else {
+            if (h != 12) h += 12;
+        }
+        return LocalTime.of(h % 24, m);
+    }
+}
@@ -0,0 +1,139 @@
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Storage for tasks, shared by DBHelper, TaskApp, the write queue and the reminder scheduler.
+ *
+ * Implementations: {@link MySqlTaskStore} (the tasks table) and {@link EmbeddedTaskStore}
+ * (local append-only log, no server). {@link #getDefault()} picks one with
+ * -Dsmartreminder.store=mysql|embedded. Errors surface as SQLException for both, so callers
+ * handle them the same way.
+ *
+ * Rows are identified by {@link Task#getId()}: deletes, updates and reminder marks are primary
+ * key operations, so duplicates and timeless tasks are addressed exactly. Completed tasks stay
+ * stored (history, windows) but are no longer live and get no reminders, until
+ * {@link RetentionJob} moves old rows to the archive.
+ *
+ * Recurring tasks ({@link RecurringTask}) are stored once per series. Windows, live tasks and
+ * pending reminders include their occurrences (negative ids, see RecurringTask), expanded only
+ * for the range asked for; history and export methods return rows only. Deleting or completing
+ * an occurrence takes just that one out of its series, and marking it reminded marks the series'
+ * occurrences up to it.
+ */
+public interface TaskStore extends AutoCloseable {
+
+    /** Process-wide store selected by smartreminder.store (default mysql). */
+    static TaskStore getDefault() {
+        return TaskStores.getDefault();
+    }
+
+    /** Inserts the task under its id. */
+    void saveTask(Task task) throws SQLException;
+
+    /** Removes the row with the task's id. */
+    void deleteTask(Task task) throws SQLException;
+
+    /** Rewrites description and times of the row with the task's id. */
+    void updateTask(Task task) throws SQLException;
+
+    /** Applies deletes (by id) then inserts atomically. */
+    void applyBatch(List<Task> inserts, List<Task> deletes) throws SQLException;
+
+    /** Deletes all rows with these ids in one statement; returns how many existed. */
+    int deleteTasks(Collection<Long> ids) throws SQLException;
+
+    /** Marks all rows with these ids completed in one statement; returns how many changed. */
+    int completeTasks(Collection<Long> ids, LocalDateTime completedAt) throws SQLException;
+
+    default List<Task> getTasksByDate(LocalDate date) throws SQLException {
+        return getTasksInWindow(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
+
+    /** Tasks starting in [from, to), ordered by start time. */
+    List<Task> getTasksInWindow(LocalDateTime from, LocalDateTime to) throws SQLException;
+
+    /** Uncompleted timeless tasks plus uncompleted timed tasks that have not ended before {@code now}. */
+    List<Task> getLiveTasks(LocalDateTime now) throws SQLException;
+
+    /**
+     * Live tasks in batches for a streamed start-up: timed ones by start (running and soonest
+     * first), then timeless ones. Returns the number of tasks delivered.
+     */
+    default int streamLiveTasks(LocalDateTime now, int pageSize, Consumer<List<Task>> onPage) throws SQLException {
+        List<Task> timed = new ArrayList<>();
+        List<Task> timeless = new ArrayList<>();
+        for (Task t : getLiveTasks(now)) (t.getStartTime() != null ? timed : timeless).add(t);
+        timed.sort(Comparator.comparing(Task::getStartTime));
+        timed.addAll(timeless);
+        for (int i = 0; i < timed.size(); i += pageSize) {
+            onPage.accept(new ArrayList<>(timed.subList(i, Math.min(timed.size(), i + pageSize))));
+        }
+        return timed.size();
+    }
+
+    /** A task whose reminder has not fired yet; leadMinutes is null when the default lead applies. */
+    final class PendingReminder {
+        public final Task task;
+        public final Integer leadMinutes;
+
+        PendingReminder(Task task, Integer leadMinutes) {
+            this.task = task;
+            this.leadMinutes = leadMinutes;
+        }
+    }
+
+    /** Unfired reminders for uncompleted tasks starting in [from, to). */
+    List<PendingReminder> getPendingReminders(LocalDateTime from, LocalDateTime to) throws SQLException;
+
+    void markReminded(Task task, LocalDateTime firedAt) throws SQLException;
+
+    List<Task> getAllTasks() throws SQLException;
+
+    /** Every timed task in start order, without materializing the whole history. */
+    void forEachTimedTask(Consumer<Task> consumer) throws SQLException;
+
+    /** Every stored task, timeless ones first, then timed ones by start; streamed like forEachTimedTask. */
+    void forEachTask(Consumer<Task> consumer) throws SQLException;
+
+    // ---------------- retention (see RetentionJob) ----------------
+
+    /** Up to {@code limit} timed tasks starting before {@code before}, oldest first. */
+    List<Task> getTasksStartingBefore(LocalDateTime before, int limit) throws SQLException;
+
+    /** Up to {@code limit} timeless tasks completed before {@code completedBefore}. */
+    List<Task> getCompletedTimelessTasks(LocalDateTime completedBefore, int limit) throws SQLException;
+
+    /**
+     * Moves the rows with these ids to the archive and adds {@code summary} to the kept
+     * summaries, atomically. Returns how many rows moved.
+     */
+    int archive(Collection<Long> ids, ArchiveSummary summary, LocalDateTime archivedAt) throws SQLException;
+
+    /** Everything kept about archived tasks. */
+    ArchiveSummary getArchiveSummary() throws SQLException;
+
+    // ---------------- recurring tasks ----------------
+
+    /** Stores the series, replacing the one with the same id. */
+    void saveSeries(RecurringTask series) throws SQLException;
+
+    /** Removes the series with all its occurrences. */
+    void deleteSeries(long seriesId) throws SQLException;
+
+    List<RecurringTask> getSeries() throws SQLException;
+
+    /** Start of the earliest unfired reminder from {@code from} on, rows and series alike; null if none. */
+    LocalDateTime firstPendingStart(LocalDateTime from) throws SQLException;
+
+    /** One-line description for logs. */
+    String stats();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,39 @@
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/** Holds the process-wide {@link TaskStore} chosen by configuration, timed by {@link TimedTaskStore}. */
+final class TaskStores {
+
+    private static volatile TaskStore defaultStore;
+
+    private TaskStores() {
+    }
+
+    static TaskStore getDefault() {
+        TaskStore s = defaultStore;
+        if (s == null) {
+            synchronized (TaskStores.class) {
+                s = defaultStore;
+                if (s == null) {
+                    s = new TimedTaskStore(open(System.getProperty("smartreminder.store", "mysql")));
+                    defaultStore = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    /** "mysql" or "embedded" (directory from smartreminder.store.dir, default ~/.smartreminder/store). */
+    static TaskStore open(String kind) {
+        switch (kind) {
+            case "mysql":
+                return MySqlTaskStore.open();
+            case "embedded":
+                Path dir = Paths.get(System.getProperty("smartreminder.store.dir",
+                        Paths.get(System.getProperty("user.home"), ".smartreminder", "store").toString()));
+                return EmbeddedTaskStore.open(dir);
+            default:
+                throw new IllegalArgumentException("Unknown smartreminder.store: " + kind);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind queue for task inserts/deletes.
+ *
+ * Callers enqueue a mutation and get a future back immediately; a single writer thread
+ * collects up to maxBatch mutations (or whatever arrived within maxDelayMs of the first one),
+ * coalesces them and flushes the rest as JDBC batches inside one transaction (group commit).
+ *
+ * Coalescing: an insert followed by a delete of the same task (by id) in the same batch cancels
+ * out, both futures complete without touching the DB. Deletes go out as one IN (...) statement.
+ * Completions follow as another statement once the batch is in; if the batch fails they are not
+ * run and their futures fail with the same exception.
+ */
+public class TaskWriteQueue implements AutoCloseable {
+
+    private enum Op { INSERT, DELETE, COMPLETE }
+
+    private static final class Mutation {
+        final Op op;
+        final Task task;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Mutation(Op op, Task task) {
+            this.op = op;
+            this.task = task;
+        }
+    }
+
+    private static final Mutation STOP = new Mutation(Op.DELETE, new Task("stop", null, null));
+
+    private final TaskStore store;
+    private final int maxBatch;
+    private final long maxDelayMs;
+    private final BlockingQueue<Mutation> queue;
+    private final Thread writer;
+    // submits hold the read lock while queueing, close() the write lock, so nothing lands behind STOP
+    private final ReadWriteLock closing = new ReentrantReadWriteLock();
+    private boolean closed;   // guarded by closing
+
+    public TaskWriteQueue(TaskStore store) {
+        this(store,
+                Integer.getInteger("smartreminder.write.batchSize", 64),
+                Long.getLong("smartreminder.write.maxDelayMs", 50L),
+                10_000);
+    }
+
+    public TaskWriteQueue(TaskStore store, int maxBatch, long maxDelayMs, int capacity) {
+        this.store = store;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxDelayMs = Math.max(0, maxDelayMs);
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        Metrics.gauge("write_queue_depth", queue::size);
+        this.writer = new Thread(this::runWriter, "task-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public CompletableFuture<Void> submitInsert(Task task) {
+        return submit(new Mutation(Op.INSERT, task));
+    }
+
+    public CompletableFuture<Void> submitDelete(Task task) {
+        return submit(new Mutation(Op.DELETE, task));
+    }
+
+    public CompletableFuture<Void> submitComplete(Task task) {
+        return submit(new Mutation(Op.COMPLETE, task));
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    private CompletableFuture<Void> submit(Mutation m) {
+        closing.readLock().lock();
+        try {
+            if (closed) {
+                m.done.completeExceptionally(new IllegalStateException("Write queue is closed"));
+                return m.done;
+            }
+            queue.put(m); // back-pressure when the writer falls far behind
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            m.done.completeExceptionally(e);
+        } finally {
+            closing.readLock().unlock();
+        }
+        return m.done;
+    }
+
+    private void runWriter() {
+        List<Mutation> batch = new ArrayList<>(maxBatch);
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                Mutation first = queue.take();
+                if (first == STOP) break;
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+                while (batch.size() < maxBatch) {
+                    long left = deadline - System.nanoTime();
+                    Mutation next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    if (next == STOP) {
+                        stopping = true;
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                stopping = true;
+            }
+            flush(batch);
+            batch.clear();
+        }
+
+        // drain whatever is still queued before exiting
+        List<Mutation> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        rest.remove(STOP);
+        for (int i = 0; i < rest.size(); i += maxBatch) {
+            flush(rest.subList(i, Math.min(rest.size(), i + maxBatch)));
+        }
+    }
+
+    private void flush(List<Mutation> batch) {
+        if (batch.isEmpty()) return;
+
+        Map<Long, Deque<Mutation>> pendingInserts = new HashMap<>();
+        List<Mutation> inserts = new ArrayList<>();
+        List<Mutation> deletes = new ArrayList<>();
+        List<Mutation> completes = new ArrayList<>();
+        List<Mutation> cancelled = new ArrayList<>();
+
+        for (Mutation m : batch) {
+            if (m.op == Op.INSERT) {
+                pendingInserts.computeIfAbsent(m.task.getId(), k -> new ArrayDeque<>()).addLast(m);
+                inserts.add(m);
+            } else if (m.op == Op.COMPLETE) {
+                completes.add(m);
+            } else {
+                Deque<Mutation> d = pendingInserts.get(m.task.getId());
+                Mutation ins = d != null ? d.pollLast() : null;
+                if (ins != null) {
+                    inserts.remove(ins);
+                    cancelled.add(ins);
+                    cancelled.add(m);
+                } else {
+                    deletes.add(m);
+                }
+            }
+        }
+
+        // Remaining deletes never follow an insert of the same task in this batch, so deletes go first.
+        List<Task> insertTasks = new ArrayList<>(inserts.size());
+        for (Mutation m : inserts) insertTasks.add(m.task);
+        List<Task> deleteTasks = new ArrayList<>(deletes.size());
+        for (Mutation m : deletes) deleteTasks.add(m.task);
+        List<Long> completeIds = new ArrayList<>(completes.size());
+        for (Mutation m : completes) completeIds.add(m.task.getId());
+
+        Exception batchFailure = null;
+        try {
+            if (!insertTasks.isEmpty() || !deleteTasks.isEmpty()) {
+                store.applyBatch(insertTasks, deleteTasks);
+            }
+            for (Mutation m : inserts) m.done.complete(null);
+            for (Mutation m : deletes) m.done.complete(null);
+        } catch (Exception e) {
+            batchFailure = e;
+            for (Mutation m : inserts) m.done.completeExceptionally(e);
+            for (Mutation m : deletes) m.done.completeExceptionally(e);
+        }
+        if (batchFailure != null) {
+            // a completion may be for a task this batch was inserting
+            for (Mutation m : completes) m.done.completeExceptionally(batchFailure);
+        } else if (!completes.isEmpty()) {
+            try {
+                store.completeTasks(completeIds, LocalDateTime.now());
+                for (Mutation m : completes) m.done.complete(null);
+            } catch (Exception e) {
+                for (Mutation m : completes) m.done.completeExceptionally(e);
+            }
+        }
+        for (Mutation m : cancelled) m.done.complete(null);
+    }
+
+    /** Stops accepting mutations, flushes everything queued and waits for the writer to finish. */
+    @Override
+    public void close() {
+        closing.writeLock().lock();
+        try {
+            if (closed) return;
+            closed = true;
+            queue.put(STOP);   // the writer keeps draining, so submits blocked in put() get through first
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            closing.writeLock().unlock();
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,333 @@
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Non-blocking Telegram sender.
+ *
+ *  - sendMessage() only enqueues (bounded queue) and returns a future; it never blocks the caller
+ *  - one shared keep-alive HttpClient for every notifier
+ *  - token buckets for Telegram's limits: ~30 msg/s per bot and ~1 msg/s per chat. Messages leave
+ *    the queue only when the bot may send; a chat over its rate holds its own messages, which
+ *    still count against the capacity, so a backlog drops new messages instead of growing
+ *  - per-chat state is dropped once a chat has been idle long enough for its bucket to refill
+ *  - 429 (honouring retry_after) and 5xx / IO errors are retried with exponential backoff
+ *  - the API base URL is configurable (smartreminder.telegram.baseUrl) so a local stub can stand in
+ */
+public class TelegramNotifier implements AutoCloseable {
+
+    private static final String BOT_TOKEN = ""; // from BotFather
+    private static final String CHAT_ID = "";    // your ID
+    private static final String DEFAULT_BASE_URL = "https://api.telegram.org";
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MS = 500;
+    private static final Pattern RETRY_AFTER = Pattern.compile("\"retry_after\"\\s*:\\s*(\\d+)");
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long SWEEP_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private static final class Outbound {
+        final String chatId;
+        final String text;
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        final long enqueuedAt = System.nanoTime();
+        int attempts;
+
+        Outbound(String chatId, String text) {
+            this.chatId = chatId;
+            this.text = text;
+        }
+    }
+
+    // one chat's rate and the messages waiting for it; dispatcher thread only
+    private static final class Chat {
+        final TokenBucket bucket;
+        final ArrayDeque<Outbound> held = new ArrayDeque<>();
+
+        Chat(double perSecond) {
+            this.bucket = new TokenBucket(perSecond, 1);
+        }
+    }
+
+    private final String baseUrl;
+    private final String token;
+    private final String defaultChatId;
+    private final int capacity;
+    private final BlockingQueue<Outbound> queue;
+    private final AtomicInteger backlog = new AtomicInteger();   // queued + held by their chat, <= capacity
+    private final Queue<Outbound> retries = new ConcurrentLinkedQueue<>();
+    private final TokenBucket global;
+    private final double perChatRate;
+    private final Map<String, Chat> chats = new HashMap<>();       // dispatcher thread only
+    private final Set<Chat> holding = new LinkedHashSet<>();       // chats with held messages, ditto
+    private final ScheduledExecutorService delays = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "telegram-delay");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Thread dispatcher;
+    private volatile boolean closed;
+    private volatile boolean stopped;   // dispatcher has exited; anything still queued fails
+
+    private static final Metrics.Timer SEND = Metrics.timer("telegram_send");           // one HTTP attempt
+    private static final LatencyHistogram DELIVERY = Metrics.histogram("telegram_delivery"); // enqueue → sent
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+
+    public TelegramNotifier() {
+        this(System.getProperty("smartreminder.telegram.baseUrl", DEFAULT_BASE_URL), BOT_TOKEN, CHAT_ID,
+                1000, 30, 1);
+    }
+
+    public TelegramNotifier(String baseUrl, String token, String defaultChatId,
+                            int capacity, double globalPerSecond, double perChatPerSecond) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.token = token;
+        this.defaultChatId = defaultChatId;
+        this.capacity = capacity;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.global = new TokenBucket(globalPerSecond, globalPerSecond);
+        this.perChatRate = perChatPerSecond;
+        this.dispatcher = new Thread(this::dispatch, "telegram-dispatch");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+        Metrics.gauge("telegram_queue_depth", backlog::get);
+    }
+
+    /** Queues a message for the configured chat. Completes with false if it was dropped or failed. */
+    public CompletableFuture<Boolean> sendMessage(String message) {
+        return sendMessage(defaultChatId, message);
+    }
+
+    public CompletableFuture<Boolean> sendMessage(String chatId, String message) {
+        Outbound m = new Outbound(chatId, message);
+        boolean accepted = !closed;
+        if (accepted && backlog.incrementAndGet() > capacity) {
+            backlog.decrementAndGet();
+            accepted = false;
+        }
+        if (!accepted) {
+            dropped.increment();
+            m.done.complete(false);
+        } else {
+            queue.add(m);   // always fits: the backlog includes everything queued
+            enqueued.increment();
+            if (stopped) failQueued();   // raced close(): the dispatcher is gone
+        }
+        return m.done;
+    }
+
+    private void dispatch() {
+        long nextSweep = System.nanoTime() + SWEEP_NANOS;
+        while (!closed || backlog.get() > 0) {
+            for (Outbound r; (r = retries.poll()) != null; ) hold(chat(r.chatId), r, true);
+            long wait = sendHeld();
+            try {
+                long globalWait = global.nanosUntilAvailable();
+                if (globalWait > 0) {
+                    // the bot is at its rate: leave the backlog in the queue
+                    TimeUnit.NANOSECONDS.sleep(Math.min(wait, globalWait));
+                    continue;
+                }
+                Outbound m = queue.poll(wait, TimeUnit.NANOSECONDS);
+                if (m != null) admit(m);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (System.nanoTime() - nextSweep > 0) {
+                chats.values().removeIf(c -> c.held.isEmpty() && c.bucket.isFull());
+                nextSweep = System.nanoTime() + SWEEP_NANOS;
+            }
+        }
+        // set before looking at the queue, so a sender that enqueues after this sees it
+        stopped = true;
+        for (Outbound r; (r = retries.poll()) != null; ) fail(r);
+        for (Chat chat : holding) {
+            for (Outbound h; (h = chat.held.poll()) != null; ) fail(h);
+        }
+        holding.clear();
+        failQueued();
+    }
+
+    private void failQueued() {
+        for (Outbound m; (m = queue.poll()) != null; ) fail(m);
+    }
+
+    // a message left behind when the dispatcher stopped
+    private void fail(Outbound m) {
+        backlog.decrementAndGet();
+        if (m.attempts > 0) {
+            complete(m, false);   // a retry, already counted in flight
+        } else {
+            dropped.increment();
+            m.done.complete(false);
+        }
+    }
+
+    // called with a global permit available
+    private void admit(Outbound m) {
+        Chat chat = chat(m.chatId);
+        if (chat.held.isEmpty() && chat.bucket.tryAcquire()) {
+            global.tryAcquire();
+            send(m);
+        } else {
+            hold(chat, m, false);
+        }
+    }
+
+    // held messages go out in order per chat, as both their chat and the bot get permits;
+    // returns how long until the next one may go
+    private long sendHeld() {
+        long wait = IDLE_NANOS;
+        for (Iterator<Chat> it = holding.iterator(); it.hasNext(); ) {
+            Chat chat = it.next();
+            while (!chat.held.isEmpty()) {
+                long w = Math.max(global.nanosUntilAvailable(), chat.bucket.nanosUntilAvailable());
+                if (w > 0) {
+                    wait = Math.min(wait, w);
+                    break;
+                }
+                global.tryAcquire();
+                chat.bucket.tryAcquire();
+                send(chat.held.poll());
+            }
+            if (chat.held.isEmpty()) it.remove();
+        }
+        return wait;
+    }
+
+    private Chat chat(String chatId) {
+        return chats.computeIfAbsent(chatId, k -> new Chat(perChatRate));
+    }
+
+    private void hold(Chat chat, Outbound m, boolean first) {
+        if (first) chat.held.addFirst(m);
+        else chat.held.addLast(m);
+        holding.add(chat);
+    }
+
+    private void send(Outbound m) {
+        backlog.decrementAndGet();
+        if (m.attempts == 0) inFlight.incrementAndGet();
+        attempt(m);
+    }
+
+    private void attempt(Outbound m) {
+        m.attempts++;
+        String body = "chat_id=" + URLEncoder.encode(m.chatId, StandardCharsets.UTF_8)
+                + "&text=" + URLEncoder.encode(m.text, StandardCharsets.UTF_8);
+        HttpRequest req = HttpRequest.newBuilder(URI.create(baseUrl + "/bot" + token + "/sendMessage"))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        Metrics.Sample sample = SEND.start();
+        HTTP.sendAsync(req, HttpResponse.BodyHandlers.ofString()).whenComplete((resp, ex) -> {
+            if (ex != null || resp.statusCode() / 100 != 2) sample.fail();
+            else sample.stop();
+            if (ex != null) {
+                retryOrFail(m, backoffMillis(m.attempts), ex.toString());
+            } else if (resp.statusCode() / 100 == 2) {
+                complete(m, true);
+            } else if (resp.statusCode() == 429) {
+                Matcher r = RETRY_AFTER.matcher(resp.body());
+                long wait = r.find() ? Long.parseLong(r.group(1)) * 1000 : backoffMillis(m.attempts);
+                retryOrFail(m, wait, "HTTP 429");
+            } else if (resp.statusCode() >= 500) {
+                retryOrFail(m, backoffMillis(m.attempts), "HTTP " + resp.statusCode());
+            } else {
+                System.out.println("⚠ Telegram rejected message: HTTP " + resp.statusCode() + " " + resp.body());
+                complete(m, false);
+            }
+        });
+    }
+
+    private void retryOrFail(Outbound m, long waitMillis, String reason) {
+        if (m.attempts >= MAX_ATTEMPTS || closed) {
+            System.out.println("⚠ Failed to send Telegram notification after " + m.attempts + " attempt(s): " + reason);
+            complete(m, false);
+            return;
+        }
+        retried.increment();
+        delays.schedule(() -> {
+            if (closed) {
+                complete(m, false);
+            } else {
+                backlog.incrementAndGet();   // back through its chat's rate, ahead of newer messages
+                retries.add(m);
+            }
+        }, waitMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static long backoffMillis(int attempts) {
+        long base = BASE_BACKOFF_MS << Math.min(attempts - 1, 6);
+        return base + ThreadLocalRandom.current().nextLong(base / 2 + 1); // jitter
+    }
+
+    private void complete(Outbound m, boolean ok) {
+        inFlight.decrementAndGet();
+        if (ok) {
+            sent.increment();
+            long latency = System.nanoTime() - m.enqueuedAt;
+            latencyNanos.add(latency);
+            DELIVERY.record(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        } else {
+            failed.increment();
+        }
+        m.done.complete(ok);
+    }
+
+    /** Messages waiting to be sent: queued, or held until their chat may send again. */
+    public int queueDepth() {
+        return backlog.get();
+    }
+
+    public String stats() {
+        long n = sent.sum();
+        return String.format("telegram[queued=%d inFlight=%d enqueued=%d sent=%d failed=%d retried=%d dropped=%d avgLatency=%.1fms maxLatency=%.1fms]",
+                backlog.get(), inFlight.get(), enqueued.sum(), n, failed.sum(), retried.sum(), dropped.sum(),
+                n == 0 ? 0.0 : latencyNanos.sum() / 1e6 / n, maxLatencyNanos.get() / 1e6);
+    }
+
+    /** Stops accepting messages and gives the queue a few seconds to drain. */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            dispatcher.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        delays.shutdown();
+    }
+}
@@ -0,0 +1,197 @@
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link TaskStore} decorator that times every call into {@link Metrics} (store_&lt;method&gt;),
+ * so MySQL and the embedded store are measured the same way. {@link TaskStores} wraps the
+ * default store in it.
+ */
+final class TimedTaskStore implements TaskStore {
+
+    private interface Call<T> {
+        T run() throws SQLException;
+    }
+
+    private interface VoidCall {
+        void run() throws SQLException;
+    }
+
+    private static final Metrics.Timer SAVE = Metrics.timer("store_save_task");
+    private static final Metrics.Timer DELETE = Metrics.timer("store_delete_task");
+    private static final Metrics.Timer UPDATE = Metrics.timer("store_update_task");
+    private static final Metrics.Timer BATCH = Metrics.timer("store_apply_batch");
+    private static final Metrics.Timer DELETE_MANY = Metrics.timer("store_delete_tasks");
+    private static final Metrics.Timer COMPLETE_MANY = Metrics.timer("store_complete_tasks");
+    private static final Metrics.Timer BY_DATE = Metrics.timer("store_tasks_by_date");
+    private static final Metrics.Timer WINDOW = Metrics.timer("store_tasks_in_window");
+    private static final Metrics.Timer LIVE = Metrics.timer("store_live_tasks");
+    private static final Metrics.Timer STREAM_LIVE = Metrics.timer("store_stream_live_tasks");
+    private static final Metrics.Timer PENDING = Metrics.timer("store_pending_reminders");
+    private static final Metrics.Timer MARK_REMINDED = Metrics.timer("store_mark_reminded");
+    private static final Metrics.Timer ALL = Metrics.timer("store_all_tasks");
+    private static final Metrics.Timer HISTORY = Metrics.timer("store_timed_history");
+    private static final Metrics.Timer ALL_STREAM = Metrics.timer("store_all_tasks_streamed");
+    private static final Metrics.Timer STARTING_BEFORE = Metrics.timer("store_tasks_starting_before");
+    private static final Metrics.Timer COMPLETED_TIMELESS = Metrics.timer("store_completed_timeless");
+    private static final Metrics.Timer ARCHIVE = Metrics.timer("store_archive");
+    private static final Metrics.Timer ARCHIVE_SUMMARY = Metrics.timer("store_archive_summary");
+    private static final Metrics.Timer SAVE_SERIES = Metrics.timer("store_save_series");
+    private static final Metrics.Timer DELETE_SERIES = Metrics.timer("store_delete_series");
+    private static final Metrics.Timer SERIES = Metrics.timer("store_series");
+    private static final Metrics.Timer FIRST_PENDING = Metrics.timer("store_first_pending_start");
+
+    private final TaskStore delegate;
+
+    TimedTaskStore(TaskStore delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void saveTask(Task task) throws SQLException {
+        timeVoid(SAVE, () -> delegate.saveTask(task));
+    }
+
+    @Override
+    public void deleteTask(Task task) throws SQLException {
+        timeVoid(DELETE, () -> delegate.deleteTask(task));
+    }
+
+    @Override
+    public void updateTask(Task task) throws SQLException {
+        timeVoid(UPDATE, () -> delegate.updateTask(task));
+    }
+
+    @Override
+    public void applyBatch(List<Task> inserts, List<Task> deletes) throws SQLException {
+        timeVoid(BATCH, () -> delegate.applyBatch(inserts, deletes));
+    }
+
+    @Override
+    public int deleteTasks(Collection<Long> ids) throws SQLException {
+        return time(DELETE_MANY, () -> delegate.deleteTasks(ids));
+    }
+
+    @Override
+    public int completeTasks(Collection<Long> ids, LocalDateTime completedAt) throws SQLException {
+        return time(COMPLETE_MANY, () -> delegate.completeTasks(ids, completedAt));
+    }
+
+    @Override
+    public List<Task> getTasksByDate(LocalDate date) throws SQLException {
+        return time(BY_DATE, () -> delegate.getTasksByDate(date));
+    }
+
+    @Override
+    public List<Task> getTasksInWindow(LocalDateTime from, LocalDateTime to) throws SQLException {
+        return time(WINDOW, () -> delegate.getTasksInWindow(from, to));
+    }
+
+    @Override
+    public List<Task> getLiveTasks(LocalDateTime now) throws SQLException {
+        return time(LIVE, () -> delegate.getLiveTasks(now));
+    }
+
+    // includes the time the consumer takes with each page
+    @Override
+    public int streamLiveTasks(LocalDateTime now, int pageSize, Consumer<List<Task>> onPage) throws SQLException {
+        return time(STREAM_LIVE, () -> delegate.streamLiveTasks(now, pageSize, onPage));
+    }
+
+    @Override
+    public List<PendingReminder> getPendingReminders(LocalDateTime from, LocalDateTime to) throws SQLException {
+        return time(PENDING, () -> delegate.getPendingReminders(from, to));
+    }
+
+    @Override
+    public void markReminded(Task task, LocalDateTime firedAt) throws SQLException {
+        timeVoid(MARK_REMINDED, () -> delegate.markReminded(task, firedAt));
+    }
+
+    @Override
+    public List<Task> getAllTasks() throws SQLException {
+        return time(ALL, delegate::getAllTasks);
+    }
+
+    @Override
+    public void forEachTimedTask(Consumer<Task> consumer) throws SQLException {
+        timeVoid(HISTORY, () -> delegate.forEachTimedTask(consumer));
+    }
+
+    @Override
+    public void forEachTask(Consumer<Task> consumer) throws SQLException {
+        timeVoid(ALL_STREAM, () -> delegate.forEachTask(consumer));
+    }
+
+    @Override
+    public List<Task> getTasksStartingBefore(LocalDateTime before, int limit) throws SQLException {
+        return time(STARTING_BEFORE, () -> delegate.getTasksStartingBefore(before, limit));
+    }
+
+    @Override
+    public List<Task> getCompletedTimelessTasks(LocalDateTime completedBefore, int limit) throws SQLException {
+        return time(COMPLETED_TIMELESS, () -> delegate.getCompletedTimelessTasks(completedBefore, limit));
+    }
+
+    @Override
+    public int archive(Collection<Long> ids, ArchiveSummary summary, LocalDateTime archivedAt) throws SQLException {
+        return time(ARCHIVE, () -> delegate.archive(ids, summary, archivedAt));
+    }
+
+    @Override
+    public ArchiveSummary getArchiveSummary() throws SQLException {
+        return time(ARCHIVE_SUMMARY, delegate::getArchiveSummary);
+    }
+
+    @Override
+    public void saveSeries(RecurringTask series) throws SQLException {
+        timeVoid(SAVE_SERIES, () -> delegate.saveSeries(series));
+    }
+
+    @Override
+    public void deleteSeries(long seriesId) throws SQLException {
+        timeVoid(DELETE_SERIES, () -> delegate.deleteSeries(seriesId));
+    }
+
+    @Override
+    public List<RecurringTask> getSeries() throws SQLException {
+        return time(SERIES, delegate::getSeries);
+    }
+
+    @Override
+    public LocalDateTime firstPendingStart(LocalDateTime from) throws SQLException {
+        return time(FIRST_PENDING, () -> delegate.firstPendingStart(from));
+    }
+
+    @Override
+    public String stats() {
+        return delegate.stats();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private static <T> T time(Metrics.Timer timer, Call<T> call) throws SQLException {
+        Metrics.Sample s = timer.start();
+        try {
+            T result = call.run();
+            s.stop();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            s.fail();
+            throw e;
+        }
+    }
+
+    private static void timeVoid(Metrics.Timer timer, VoidCall call) throws SQLException {
+        time(timer, () -> {
+            call.run();
+            return null;
+        });
+    }
+}
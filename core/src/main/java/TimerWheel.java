@@ -0,0 +1,137 @@
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel (4 levels x 64 slots).
+ *
+ * With a 1 s tick the wheel covers ~194 days directly; anything further out is parked in the top
+ * level and re-placed each time that slot cascades. Every timeout is a node in a doubly-linked
+ * slot list, so schedule and cancel are O(1) and memory is one small object per pending timer.
+ *
+ * Not thread-safe: callers synchronize around schedule/cancel/advanceTo.
+ */
+public class TimerWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (BITS * LEVELS);
+
+    /** Handle for a pending timer. */
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long deadlineMillis;
+        private final long deadlineTick;
+        private Timeout<T> prev, next;
+        private int level = -1, slot;
+
+        Timeout(T payload, long deadlineMillis, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineMillis = deadlineMillis;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T payload() { return payload; }
+        public long deadlineMillis() { return deadlineMillis; }
+        public boolean isPending() { return level >= 0; }
+    }
+
+    private final long tickMillis;
+    private final Timeout<T>[][] heads;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, long nowMillis) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("tickMillis must be > 0");
+        this.tickMillis = tickMillis;
+        this.heads = (Timeout<T>[][]) new Timeout<?>[LEVELS][SLOTS];
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    public long tickMillis() {
+        return tickMillis;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Schedules payload at deadlineMillis; deadlines already due fire on the next advance. */
+    public Timeout<T> schedule(T payload, long deadlineMillis) {
+        long tick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis); // never fire early
+        Timeout<T> t = new Timeout<>(payload, deadlineMillis, tick);
+        place(t, currentTick + 1);
+        size++;
+        return t;
+    }
+
+    public boolean cancel(Timeout<T> t) {
+        if (t == null || !t.isPending()) return false;
+        unlink(t);
+        size--;
+        return true;
+    }
+
+    /** Advances the wheel to nowMillis, handing every expired timeout to the callback. */
+    public void advanceTo(long nowMillis, Consumer<Timeout<T>> expired) {
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            long tick = ++currentTick;
+
+            // cascade higher levels whenever the level below wraps around
+            for (int level = 1; level < LEVELS; level++) {
+                if ((tick & ((1L << (BITS * level)) - 1)) != 0) break;
+                int slot = (int) ((tick >>> (BITS * level)) & MASK);
+                Timeout<T> t = heads[level][slot];
+                heads[level][slot] = null;
+                while (t != null) {
+                    Timeout<T> next = t.next;
+                    t.prev = t.next = null;
+                    t.level = -1;
+                    place(t, tick);
+                    t = next;
+                }
+            }
+
+            int slot = (int) (tick & MASK);
+            Timeout<T> t = heads[0][slot];
+            heads[0][slot] = null;
+            while (t != null) {
+                Timeout<T> next = t.next;
+                t.prev = t.next = null;
+                t.level = -1;
+                size--;
+                expired.accept(t);
+                t = next;
+            }
+        }
+    }
+
+    private void place(Timeout<T> t, long minTick) {
+        long due = Math.max(t.deadlineTick, minTick);
+        long delta = due - currentTick;
+        if (delta >= SPAN) {
+            due = currentTick + SPAN - 1; // re-placed when the top-level slot cascades
+            delta = SPAN - 1;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (BITS * (level + 1)))) level++;
+        int slot = (int) ((due >>> (BITS * level)) & MASK);
+
+        t.level = level;
+        t.slot = slot;
+        t.prev = null;
+        t.next = heads[level][slot];
+        if (t.next != null) t.next.prev = t;
+        heads[level][slot] = t;
+    }
+
+    private void unlink(Timeout<T> t) {
+        if (t.prev != null) t.prev.next = t.next;
+        else heads[t.level][t.slot] = t.next;
+        if (t.next != null) t.next.prev = t.prev;
+        t.prev = t.next = null;
+        t.level = -1;
+    }
+}
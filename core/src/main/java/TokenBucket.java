@@ -0,0 +1,47 @@
+/**
+ * Token bucket rate limiter.
+ *
+ * Permits are only handed out when available ({@link #tryAcquire()}), so the bucket never goes
+ * into debt; {@link #nanosUntilAvailable()} tells a caller how long to wait before asking again
+ * instead of blocking a thread.
+ */
+public class TokenBucket {
+    private final double permitsPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double permitsPerSecond, double burst) {
+        if (permitsPerSecond <= 0 || burst < 1) throw new IllegalArgumentException("rate must be > 0 and burst >= 1");
+        this.permitsPerNano = permitsPerSecond / 1e9;
+        this.capacity = burst;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /** Takes one permit only if it is available right now. */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens < 1) return false;
+        tokens -= 1;
+        return true;
+    }
+
+    /** Nanoseconds until a permit is available (0 = now). */
+    public synchronized long nanosUntilAvailable() {
+        refill();
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / permitsPerNano);
+    }
+
+    /** Whether the bucket has refilled completely, i.e. it has been idle for a while. */
+    public synchronized boolean isFull() {
+        refill();
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,51 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The worker protocol against the real bot.py: text outside ASCII has to survive the trip to the
+ * worker and back, whatever the platform's default encoding is. Skipped when there is no python3.
+ */
+class BotWorkerPoolTest {
+
+    private static final Path BOT = Path.of("..", "bot.py").toAbsolutePath().normalize();
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 5, 4, 9, 0);
+
+    @Test
+    void nonAsciiDescriptionsRoundTrip() throws Exception {
+        assumeTrue(Files.isRegularFile(BOT), "bot.py not found at " + BOT);
+        assumeTrue(hasPython(), "python3 not on PATH");
+
+        // "Á" is C3 81 in UTF-8: 0x81 is one of the bytes cp1252 can't decode at all
+        String a = "Réunion Á 日本 🎉", b = "Ωmega café ü";
+        try (BotWorkerPool pool = new BotWorkerPool(List.of("python3", BOT.toString(), "--worker"),
+                BOT.getParent().toFile(), 1, 10_000)) {
+            pool.reset(List.of(new Task(a, BASE, BASE.plusHours(2))));
+            pool.taskAdded(new Task(b, BASE.plusHours(1), BASE.plusHours(3)));
+
+            String answer = pool.ask("improve my schedule, ça va?").get(20, TimeUnit.SECONDS);
+            assertTrue(answer.contains("\"" + a + "\""), answer);
+            assertTrue(answer.contains("\"" + b + "\""), answer);
+
+            // a bad line would have killed the worker; it keeps answering
+            assertTrue(pool.ask("improve").get(20, TimeUnit.SECONDS).contains(b));
+        }
+    }
+
+    private static boolean hasPython() {
+        try {
+            Process p = new ProcessBuilder("python3", "--version").redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            return p.waitFor(10, TimeUnit.SECONDS) && p.exitValue() == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * What the embedded store reads back after being closed, compacted or cut short: random
+ * operations against a plain list with reopens and compactions in between, a torn record at
+ * the end of the log, a log left over from before the last snapshot, and the recurring-task,
+ * completion and update records.
+ */
+class EmbeddedTaskStoreRecoveryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final Pattern COMPACTIONS = Pattern.compile("compactions=(\\d+)");
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void defaultCompaction() {
+        System.clearProperty("smartreminder.store.compactBytes");
+    }
+
+    @Test
+    void randomOperationsSurviveReopensAndCompactions() throws SQLException {
+        System.setProperty("smartreminder.store.compactBytes", "20000");
+        Random r = new Random(1);
+        List<Task> model = new ArrayList<>();
+        int compactions = 0;
+        EmbeddedTaskStore s = EmbeddedTaskStore.open(dir);
+        for (int step = 0; step < 5000; step++) {
+            int op = r.nextInt(10);
+            if (op < 6) {
+                Task t = r.nextInt(5) == 0 ? new Task("free " + r.nextInt(20), null, null)
+                        : new Task("task " + r.nextInt(30) + " ü", BASE.plusMinutes(r.nextInt(2000) * 15L),
+                        BASE.plusMinutes(r.nextInt(2000) * 15L + 30));
+                s.saveTask(t);
+                model.add(t);
+            } else if (op < 8 && !model.isEmpty()) {
+                Task t = model.get(r.nextInt(model.size()));
+                s.deleteTask(t);
+                model.removeIf(x -> x.getId() == t.getId());
+            } else if (op == 8 && !model.isEmpty()) {
+                Task t = model.get(r.nextInt(model.size()));
+                if (t.hasTime()) s.markReminded(t, BASE);
+            } else {
+                List<Task> batch = new ArrayList<>();
+                for (int i = 0; i < 3; i++) batch.add(new Task("b" + i, BASE.plusHours(i), BASE.plusHours(i + 1)));
+                s.applyBatch(batch, List.of());
+                model.addAll(batch);
+            }
+            if (step % 997 == 0) {
+                compactions += compactions(s);
+                s.close();
+                s = EmbeddedTaskStore.open(dir);
+            }
+            if (step % 500 == 0) assertEquals(keys(model), keys(s.getAllTasks()), "after step " + step);
+        }
+        compactions += compactions(s);
+        assertEquals(keys(model), keys(s.getAllTasks()));
+        s.close();
+        assertTrue(compactions > 0, "the run should have compacted the log");
+
+        s = EmbeddedTaskStore.open(dir);
+        assertEquals(keys(model), keys(s.getAllTasks()), "after the last reopen");
+        s.close();
+    }
+
+    @Test
+    void garbageAfterTheLastRecordIsIgnored() throws Exception {
+        EmbeddedTaskStore s = EmbeddedTaskStore.open(dir);
+        List<Task> model = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Task t = new Task("t" + i, BASE.plusHours(i), BASE.plusHours(i + 1));
+            s.saveTask(t);
+            model.add(t);
+            if (i % 4 == 0) s.markReminded(t, BASE);
+        }
+        int pending = s.getPendingReminders(BASE, BASE.plusYears(1)).size();
+        s.close();
+
+        // a torn write: a record header with a length and a CRC that don't match what follows
+        try (FileChannel ch = FileChannel.open(dir.resolve("tasks.log"), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer log = ch.map(FileChannel.MapMode.READ_WRITE, 0, ch.size());
+            int p = 16;
+            while (log.getInt(p) > 0) p += 8 + log.getInt(p);
+            log.putInt(p, 40);
+            log.putInt(p + 4, 12345);
+            log.put(p + 8, (byte) 1);
+            log.put(p + 20, (byte) 7);
+            log.force();
+        }
+
+        s = EmbeddedTaskStore.open(dir);
+        assertEquals(keys(model), keys(s.getAllTasks()));
+        assertEquals(pending, s.getPendingReminders(BASE, BASE.plusYears(1)).size());
+        Task after = new Task("after", BASE, BASE.plusHours(1));
+        s.saveTask(after);
+        model.add(after);
+        s.close();
+
+        s = EmbeddedTaskStore.open(dir);
+        assertEquals(keys(model), keys(s.getAllTasks()), "a write after the torn tail replaces it");
+        s.close();
+    }
+
+    @Test
+    void logFromBeforeTheSnapshotDoesNotReplay() throws Exception {
+        System.setProperty("smartreminder.store.compactBytes", "4000");
+        EmbeddedTaskStore s = EmbeddedTaskStore.open(dir);
+        for (int i = 0; i < 50; i++) s.saveTask(new Task("t" + i, BASE.plusHours(i), BASE.plusHours(i + 1)));
+        s.close();
+        byte[] oldLog = Files.readAllBytes(dir.resolve("tasks.log"));
+        s = EmbeddedTaskStore.open(dir);
+        for (int i = 50; i < 150; i++) s.saveTask(new Task("t" + i, BASE.plusHours(i), BASE.plusHours(i + 1)));
+        s.close();
+
+        // the snapshot is newer than this log, as if a compaction died before resetting it
+        Files.write(dir.resolve("tasks.log"), oldLog);
+        s = EmbeddedTaskStore.open(dir);
+        List<Task> all = s.getAllTasks();
+        s.close();
+
+        // exactly what the last snapshot held: t0 .. tN, each once
+        Set<String> names = new HashSet<>();
+        for (Task t : all) names.add(t.getDescription());
+        assertEquals(all.size(), names.size(), "no task replayed twice");
+        assertTrue(all.size() >= 50 && all.size() < 150, "snapshot state, got " + all.size());
+        for (int i = 0; i < all.size(); i++) assertTrue(names.contains("t" + i), "missing t" + i);
+    }
+
+    @Test
+    void seriesSkipsAndRemindersSurviveCompaction() throws SQLException {
+        EmbeddedTaskStore s = EmbeddedTaskStore.open(dir, 1 << 16, false);
+        RecurringTask gym = TaskParser.parseRecurring("Gym every mon and thu at 6 PM for 1 hour", LocalDate.of(2026, 10, 18));
+        s.saveSeries(gym);
+        LocalDateTime now = LocalDateTime.of(2026, 10, 19, 7, 0);
+        List<Task> window = s.getTasksInWindow(now, now.plusDays(30));
+        s.deleteTasks(List.of(window.get(1).getId(), window.get(3).getId()));
+        s.markReminded(window.get(0), now);
+        for (int i = 0; i < 3000; i++) s.saveTask(new Task("t" + i, now.plusHours(i), now.plusHours(i).plusMinutes(30)));
+        List<Task> before = s.getTasksInWindow(now, now.plusDays(30));
+        int pending = s.getPendingReminders(now, now.plusDays(30)).size();
+        s.close();
+
+        s = EmbeddedTaskStore.open(dir, 1 << 16, false);
+        assertEquals(before, s.getTasksInWindow(now, now.plusDays(30)));
+        assertEquals(pending, s.getPendingReminders(now, now.plusDays(30)).size());
+        RecurringTask back = s.getSeries().get(0);
+        assertEquals(Set.of(window.get(1).getStartTime(), window.get(3).getStartTime()), back.getSkipped());
+        assertEquals(window.get(0).getStartTime(), back.getRemindedThrough());
+        s.close();
+    }
+
+    @Test
+    void idsCompletionsAndUpdatesReplay() throws SQLException {
+        LocalDateTime b = LocalDateTime.of(2026, 6, 1, 9, 0);
+        EmbeddedTaskStore s = EmbeddedTaskStore.open(dir);
+        Task x1 = new Task("dup", b, b.plusHours(1)), x2 = new Task("dup", b, b.plusHours(1));
+        Task free = new Task("free", null, null);
+        s.saveTask(x1);
+        s.saveTask(x2);
+        s.saveTask(free);
+        assertThrows(SQLException.class, () -> s.saveTask(x1));
+        s.deleteTask(x1);
+        assertEquals(2, s.getAllTasks().size(), "only one of two equal tasks deleted");
+        s.deleteTask(free);
+        assertEquals(1, s.getAllTasks().size());
+
+        List<Long> many = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Task t = new Task("m" + i, b.plusMinutes(i), b.plusMinutes(i + 5));
+            s.saveTask(t);
+            many.add(t.getId());
+        }
+        assertEquals(10, s.completeTasks(many.subList(0, 10), b));
+        assertEquals(91, s.getLiveTasks(b.minusDays(1)).size());
+        assertEquals(91, s.getPendingReminders(b, b.plusDays(1)).size());
+        assertEquals(50, s.deleteTasks(many.subList(50, 100)));
+        s.markReminded(x2, b);
+        s.updateTask(new Task(x2.getId(), "dup moved", b.plusDays(1), b.plusDays(1).plusHours(1), false, true));
+        s.close();
+
+        EmbeddedTaskStore re = EmbeddedTaskStore.open(dir);
+        assertEquals(51, re.getAllTasks().size());
+        assertTrue(re.getAllTasks().stream().anyMatch(t -> t.getId() == x2.getId() && t.getDescription().equals("dup moved")));
+        assertTrue(re.getPendingReminders(b.plusDays(1), b.plusDays(2)).isEmpty(), "reminded kept through the update");
+        assertEquals(41, re.getLiveTasks(b.minusDays(1)).size(), "completions replayed");
+        re.close();
+    }
+
+    private static int compactions(EmbeddedTaskStore s) {
+        Matcher m = COMPACTIONS.matcher(s.stats());
+        return m.find() ? Integer.parseInt(m.group(1)) : 0;
+    }
+
+    private static List<String> keys(List<Task> tasks) {
+        List<String> out = new ArrayList<>();
+        for (Task t : tasks) out.add(t.getId() + t.getDescription() + "|" + t.getStartTime() + "|" + t.getEndTime());
+        Collections.sort(out);
+        return out;
+    }
+}
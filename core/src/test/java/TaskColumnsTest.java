@@ -0,0 +1,136 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * TaskColumns against plain maps and lists: the open-addressing id table, the columns and the
+ * range queries, with rows removed and reused along the way.
+ */
+class TaskColumnsTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 3, 1, 0, 0);
+
+    @Test
+    void idTableMatchesAHashMap() {
+        TaskColumns c = new TaskColumns();
+        Map<Long, Integer> rows = new HashMap<>();
+        List<Long> live = new ArrayList<>();
+        Random r = new Random(5);
+        for (int i = 0; i < 300_000; i++) {
+            if (r.nextInt(3) > 0 || live.isEmpty()) {
+                Task t = new Task(String.valueOf(r.nextInt(1000)), null, null, false, false);
+                rows.put(t.getId(), c.add(t));
+                live.add(t.getId());
+            } else {
+                int k = r.nextInt(live.size());
+                long id = live.get(k);
+                live.set(k, live.get(live.size() - 1));
+                live.remove(live.size() - 1);
+                c.remove(rows.remove(id));
+            }
+            if (i % 10_000 == 0) {
+                for (Map.Entry<Long, Integer> e : rows.entrySet()) assertEquals((int) e.getValue(), c.rowOf(e.getKey()));
+                assertEquals(-1, c.rowOf(12345));
+            }
+        }
+    }
+
+    @Test
+    void columnsMatchTheTasks() {
+        TaskColumns c = new TaskColumns();
+        Map<Integer, Task> model = new HashMap<>();
+        List<Integer> live = new ArrayList<>();
+        Random r = new Random(3);
+        for (int step = 0; step < 200_000; step++) {
+            if (r.nextInt(10) < 6 || model.isEmpty()) {
+                LocalDateTime s = r.nextInt(6) == 0 ? null
+                        : BASE.plusMinutes(r.nextInt(5000)).plusSeconds(r.nextInt(20) == 0 ? r.nextInt(60) : 0);
+                LocalDateTime e = s == null ? null : s.plusMinutes(r.nextInt(90));
+                Task t = new Task("act " + r.nextInt(50), s, e, r.nextBoolean(), s != null && r.nextInt(10) > 0);
+                int row = c.add(t);
+                assertNull(model.put(row, t), "a live row was reused");
+                live.add(row);
+            } else {
+                int k = r.nextInt(live.size());
+                int row = live.get(k);
+                live.set(k, live.get(live.size() - 1));
+                live.remove(live.size() - 1);
+                c.remove(row);
+                model.remove(row);
+            }
+            if (step % 5000 != 0) continue;
+
+            assertEquals(model.size(), c.size());
+            for (Map.Entry<Integer, Task> e : model.entrySet()) assertEquals(e.getValue(), c.get(e.getKey()));
+
+            LocalDateTime from = BASE.plusMinutes(r.nextInt(5000)).plusSeconds(r.nextInt(60));
+            LocalDateTime to = from.plusMinutes(r.nextInt(600));
+            List<Task> expected = new ArrayList<>();
+            for (Task t : model.values()) {
+                if (t.getStartTime() != null && !t.getStartTime().isBefore(from) && t.getStartTime().isBefore(to)) expected.add(t);
+            }
+            List<Task> got = new ArrayList<>();
+            for (int row : c.startingIn(from, to)) got.add(c.get(row));
+            assertEquals(new HashSet<>(expected), new HashSet<>(got));
+            assertEquals(expected.size(), got.size());
+            for (int i = 1; i < got.size(); i++) {
+                assertFalse(got.get(i).getStartTime().isBefore(got.get(i - 1).getStartTime()), "ordered by start");
+            }
+
+            Task any = model.values().iterator().next();
+            long same = model.values().stream().filter(t -> t.getDescription().equals(any.getDescription())
+                    && Objects.equals(t.getStartTime(), any.getStartTime())
+                    && Objects.equals(t.getEndTime(), any.getEndTime())).count();
+            assertEquals(same, c.find(any.getDescription(), any.getStartTime(), any.getEndTime()).length);
+
+            for (Map.Entry<Integer, Task> e : model.entrySet()) {
+                LocalDateTime end = e.getValue().getEndTime();
+                assertEquals(end != null && end.isBefore(from), c.endsBefore(e.getKey(), from));
+            }
+        }
+    }
+
+    @Test
+    void startingBeforeIsTheHeadOfTheFullSort() {
+        Random r = new Random(7);
+        for (int round = 0; round < 2000; round++) {
+            TaskColumns c = new TaskColumns();
+            List<Long> ids = new ArrayList<>();
+            int n = r.nextInt(300);
+            for (int i = 0; i < n; i++) {
+                LocalDateTime s = r.nextInt(10) == 0 ? null
+                        : BASE.plusMinutes(r.nextInt(500)).plusSeconds(r.nextInt(5) == 0 ? r.nextInt(60) : 0);
+                Task t = new Task("t" + r.nextInt(5), s, s == null ? null : s.plusMinutes(30));
+                c.add(t);
+                ids.add(t.getId());
+            }
+            for (int i = 0; i < n / 4; i++) {
+                int row = c.rowOf(ids.get(r.nextInt(ids.size())));
+                if (row >= 0) c.remove(row);
+            }
+            LocalDateTime before = BASE.plusMinutes(r.nextInt(520)).plusSeconds(r.nextInt(60));
+            int limit = r.nextInt(40);
+
+            List<Long> expected = new ArrayList<>();
+            for (int row : c.timedByStart()) {
+                Task t = c.get(row);
+                if (expected.size() >= limit || !t.getStartTime().isBefore(before)) break;
+                expected.add(t.getId());
+            }
+            List<Long> got = new ArrayList<>();
+            for (int row : c.startingBefore(before, limit)) got.add(c.get(row).getId());
+            assertEquals(expected, got, "round " + round);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The scanner in TaskParser against the regex parser it replaced, over a fixed corpus plus a
+ * seeded random one built from the grammar's pieces and awkward characters.
+ *
+ * The reference spells \b out as JDK 17 ran it (word = letter/digit of any script or '_', a
+ * non-spacing mark counts as the letter it sits on), because JDK 19+ changed \b to ASCII
+ * (JDK-8264160) and the scanner keeps the JDK 17 behaviour on every JDK.
+ */
+class TaskParserDifferentialTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 1);
+    private static final int RANDOM_CASES = 100_000;
+
+    // \b as java.util.regex defined it up to JDK 18. Its look-back over marks goes char by char, so
+    // a supplementary mark or base letter ends it; runs of marks are bounded to 8 here
+    private static final String BASE = "[\\p{L}\\p{Nd}&&[\\x{0}-\\x{FFFF}]]";
+    private static final String MARK = "[\\p{Mn}&&[\\x{0}-\\x{FFFF}]]";
+    private static final String WORD_BEFORE = "(?<=[\\p{L}\\p{Nd}_]|" + BASE + MARK + "{1,8})";
+    private static final String NO_WORD_BEFORE = "(?<![\\p{L}\\p{Nd}_]|" + BASE + MARK + "{1,8})";
+    private static final String WORD_AFTER = "(?:(?=[\\p{L}\\p{Nd}_])|(?=\\p{Mn})(?<=" + BASE + MARK + "{0,8}))";
+    static final String PINNED_BOUNDARY =
+            "(?:" + WORD_BEFORE + "(?!" + WORD_AFTER + ")|" + NO_WORD_BEFORE + WORD_AFTER + ")";
+
+    static final String[] FIXED = {
+            "Wake up at 6 AM", "Meeting Jon for coffee at 5 PM for 1 hour", "6 PM to 7 PM games",
+            "Call mom at 3.30 pm for 45 minutes", "sleep at 11 pm", "at 5pm at 5pm bat 5pm", "1234pm to 5pm x",
+            "for 5 min at 3 pm for 2 hrs", "", " at 1:60 pm", "Café at 5 pm", "éat 5 pm", "at 5 pmé",
+            "áat 5 pm", "at 5 pḿ", "_at 5 pm", "at 5 pm_", "lunch at 12 pm for 1 hŕ",
+            "٣at 5 pm", "𝐀at 5 pm", "run at 7 am for 30 minutesx",
+    };
+
+    private static final String[] TOKENS = {"at", "AT", "At", "aT", "for", "FOR", "fOr", "Fo", "to", "TO", "-", "am", "AM",
+            "pm", "PM", "pM", "a", "m", "p", "0", "1", "2", "3", "5", "7", "9", "12", "13", "30", "59", "60", "99", "123",
+            "1234", ":", ".", ":3", "00", " ", " ", "  ", "\t", "\n", "\u000B", "\f", "\r", "\u0001", "min", "mins",
+            "minute", "minutes", "hr", "hrs", "hour", "hours", "Hours", "MIN", "sleep", "SLEEP", "Sleep", "_", "x", "q",
+            "é", "́", "̀", "𝐀", "𝅧", " ", "ſ", "K", "ı", "İ", "٣", "call mom",
+            "games", "s", "minutesx"};
+    private static final String[][] GRAMMAR = {
+            {" at ", "at", "AT ", "\tat", " at́", "_at ", "éat "},
+            {"5", "12", "1", "07", "99", "0", "123"},
+            {":30", ".15", ":7", ":60", ".5", "", ""},
+            {" pm", "am", "PM", "  Am", "pm ", "p m", "pmx", "pm_", "pḿ", "pm ", "pmé"},
+            {" to ", "-", " - ", "to", "TO ", "t0", " -\t"},
+            {" for ", "for", "FOR ", " foŕ", "xfor ", "_for ", "éfor "},
+            {"1", "45", "100", "1000", "9", "059", "2"},
+            {" min", " hours", "hr", "HRS ", " minutes", "minutex", " houŕ", " mins.", " hourß"},
+    };
+
+    private static final List<String> CORPUS = corpus();
+
+    @Test
+    void scannerMatchesTheRegexParser() {
+        Reference pinned = new Reference(PINNED_BOUNDARY);
+        int diffs = 0;
+        StringBuilder report = new StringBuilder();
+        for (String s : CORPUS) {
+            String expected = run(pinned, s), actual = describe(TaskParser::parse, s);
+            if (!expected.equals(actual) && diffs++ < 10) {
+                report.append("\n").append(escape(s)).append("\n  regex:   ").append(expected)
+                        .append("\n  scanner: ").append(actual);
+            }
+        }
+        assertEquals(0, diffs, "differences:" + report);
+    }
+
+    /** On JDKs that still have the old \b, the spelled-out boundary is exactly the built-in one. */
+    @Test
+    void pinnedBoundaryIsTheOldRegexBoundary() {
+        if (Runtime.version().feature() >= 19) return;
+        Reference builtIn = new Reference("\\b"), pinned = new Reference(PINNED_BOUNDARY);
+        for (String s : CORPUS) assertEquals(run(builtIn, s), run(pinned, s), escape(s));
+    }
+
+    @Test
+    void nonAsciiLettersAreWordCharacters() {
+        assertTrue(TaskParser.parse("Café at 5 pm", DAY).hasTime());
+        assertFalse(TaskParser.parse("éat 5 pm", DAY).hasTime());
+        assertFalse(TaskParser.parse("at 5 pmé", DAY).hasTime());
+        assertFalse(TaskParser.parse("at 5 pḿ", DAY).hasTime());   // combining mark on the m
+        assertEquals(LocalDateTime.of(DAY, LocalTime.of(12, 30)),
+                TaskParser.parse("lunch at 12 pm for 1 hŕ", DAY).getEndTime());   // "for" not taken
+    }
+
+    private static List<String> corpus() {
+        List<String> out = new ArrayList<>(List.of(FIXED));
+        Random r = new Random(20240101L);
+        for (int i = 0; i < RANDOM_CASES; i++) {
+            StringBuilder sb = new StringBuilder();
+            int len = r.nextInt(20);
+            int off = r.nextInt(2) == 0 ? 0 : r.nextInt(GRAMMAR.length);
+            if (r.nextBoolean()) {   // start on a range
+                for (int g = 1; g <= 4; g++) sb.append(pick(r, GRAMMAR[g]));
+                off = 1;
+            }
+            for (int j = 0; j < len; j++) {
+                if (r.nextInt(3) == 0) sb.append(pick(r, TOKENS));
+                else sb.append(pick(r, GRAMMAR[r.nextInt(4) == 0 ? r.nextInt(GRAMMAR.length) : (j + off) % GRAMMAR.length]));
+            }
+            out.add(sb.toString());
+        }
+        return out;
+    }
+
+    private static String pick(Random r, String[] from) {
+        return from[r.nextInt(from.length)];
+    }
+
+    private static String run(Reference ref, String s) {
+        return describe(ref::parse, s);
+    }
+
+    private interface Parser {
+        Task parse(String input, LocalDate day);
+    }
+
+    private static String describe(Parser p, String s) {
+        try {
+            Task t = p.parse(s, DAY);
+            return t.getDescription() + "|" + t.getStartTime() + "|" + t.getEndTime();
+        } catch (RuntimeException e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            if (c < 0x20 || c > 0x7E) sb.append(String.format("\\u%04X", (int) c));
+            else sb.append(c);
+        }
+        return sb.append('"').toString();
+    }
+
+    /** The regex TaskParser as it was before the scanner, with \b replaced by {@code boundary}. */
+    static final class Reference {
+        private final Pattern range =
+                Pattern.compile("(?i)(\\d{1,2})([:.](\\d{2}))?\\s*(am|pm)\\s*(to|-)\\s*(\\d{1,2})([:.](\\d{2}))?\\s*(am|pm)");
+        private final Pattern atTime;
+        private final Pattern forDuration;
+
+        Reference(String boundary) {
+            atTime = Pattern.compile("(?i)" + boundary + "at\\s*(\\d{1,2})([:.](\\d{2}))?\\s*(am|pm)" + boundary);
+            forDuration = Pattern.compile("(?i)" + boundary + "for\\s*(\\d{1,3})\\s*(min|mins|minute|minutes|hr|hrs|hour|hours)"
+                    + boundary);
+        }
+
+        Task parse(String input, LocalDate day) {
+            String desc = input.trim();
+
+            Matcher mRange = range.matcher(desc);
+            if (mRange.find()) {
+                LocalTime start = toLocalTime(mRange.group(1), mRange.group(3), mRange.group(4));
+                LocalTime end = toLocalTime(mRange.group(6), mRange.group(8), mRange.group(9));
+                String cleaned = desc.replace(mRange.group(0), "").replaceAll("\\s{2,}", " ").trim();
+                if (cleaned.isEmpty()) cleaned = "Task";
+                return new Task(cleaned, LocalDateTime.of(day, start), LocalDateTime.of(day, end));
+            }
+
+            Matcher mAt = atTime.matcher(desc);
+            if (mAt.find()) {
+                LocalDateTime sdt = LocalDateTime.of(day, toLocalTime(mAt.group(1), mAt.group(3), mAt.group(4)));
+                long minutes = 30;
+                Matcher mDur = forDuration.matcher(desc);
+                if (mDur.find()) {
+                    int qty = Integer.parseInt(mDur.group(1));
+                    minutes = mDur.group(2).toLowerCase().startsWith("min") ? qty : qty * 60L;
+                } else if (desc.toLowerCase().contains("sleep")) {
+                    minutes = 7 * 60;
+                }
+                String cleaned = desc.replace(mAt.group(0), "")
+                        .replaceAll(forDuration.pattern(), "")
+                        .replaceAll("\\s{2,}", " ")
+                        .trim();
+                if (cleaned.isEmpty()) cleaned = "Task";
+                return new Task(cleaned, sdt, sdt.plusMinutes(minutes));
+            }
+
+            return new Task(desc, null, null);
+        }
+
+        private static LocalTime toLocalTime(String hh, String mm, String ampm) {
+            int h = Integer.parseInt(hh);
+            int m = (mm != null && !mm.isEmpty()) ? Integer.parseInt(mm) : 0;
+            if (ampm.equalsIgnoreCase("am")) {
+                if (h == 12) h = 0;
+            } else if (h != 12) {
+                h += 12;
+            }
+            return LocalTime.of(h % 24, m);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Load test for {@link ReminderServer} against a local stub of the Telegram API.
+ *
+ * Starts the stub and a server on a temporary data directory, then runs one virtual thread
+ * per user doing a mix of adds (free text and explicit times), day queries and deletes, plus
+ * one task starting twenty seconds out. Reports request throughput and latency percentiles,
+ * then waits until every user got exactly that one reminder in their own chat.
+ *
+ *   java -cp server/target/reminder-server.jar LoadTest [users] [requestsPerUser]
+ *
+ * Exits with 1 if a request failed or the reminders don't match.
+ */
+public class LoadTest {
+
+    private static final Pattern CHAT = Pattern.compile("chat_id=([^&]*)");
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+    private static final String[] PHRASES = {
+            "Gym at 6 PM for 1 hour", "Meeting from 10 AM to 11:30 AM", "Call mom at 8 PM",
+            "Lunch at 1 PM for 45 minutes", "Study from 3 PM to 5 PM", "Buy groceries"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int perUser = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        // every user keeps a connection open; past this the JDK server closes ones the client reuses
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(users * 2));
+
+        Map<String, LongAdder> delivered = new ConcurrentHashMap<>();
+        HttpServer stub = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        stub.createContext("/", ex -> {
+            String form;
+            try (InputStream in = ex.getRequestBody()) {
+                form = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            Matcher m = CHAT.matcher(form);
+            if (m.find()) delivered.computeIfAbsent(m.group(1), k -> new LongAdder()).increment();
+            byte[] ok = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+            ex.sendResponseHeaders(200, ok.length);
+            try (ex) {
+                ex.getResponseBody().write(ok);
+            }
+        });
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stub.start();
+
+        Path dir = Files.createTempDirectory("smartreminder-load");
+        TelegramNotifier notifier = new TelegramNotifier("http://127.0.0.1:" + stub.getAddress().getPort(),
+                "stub", null, users * 2, 1_000_000, 1_000);
+        ReminderServer server = new ReminderServer(dir, 0, notifier, Duration.ZERO, Duration.ofHours(24),
+                Integer.getInteger("smartreminder.server.openTenants", 512));
+        server.start();
+        String base = "http://127.0.0.1:" + server.port() + "/users/";
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+
+        System.out.printf("🔥 %d users × %d requests, cores=%d%n", users, perUser + 1,
+                Runtime.getRuntime().availableProcessors());
+        long t0 = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int u = 0; u < users; u++) {
+                String chat = String.valueOf(100_000 + u);
+                clients.execute(() -> runUser(client, base + chat + "/tasks", perUser, latency, errors));
+            }
+        }
+        double seconds = (System.nanoTime() - t0) / 1e9;
+        LatencyHistogram.Snapshot s = latency.snapshot();
+        System.out.printf("📊 %d requests in %.2fs = %.0f req/s, errors=%d, p50=%.2fms p99=%.2fms max=%.2fms%n",
+                s.count, seconds, s.count / seconds, errors.sum(),
+                s.percentile(0.5) / 1e6, s.percentile(0.99) / 1e6, s.maxNanos / 1e6);
+
+        // every user should get exactly one reminder, in their own chat
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (total(delivered) < users && System.currentTimeMillis() < deadline) Thread.sleep(200);
+        Thread.sleep(2000);   // catch duplicates
+        long total = total(delivered);
+        long wrong = delivered.values().stream().filter(c -> c.sum() != 1).count();
+        System.out.printf("⏰ reminders delivered=%d of %d, users with != 1 reminder=%d%n", total, users,
+                wrong + (users - delivered.size()));
+        System.out.println("📊 " + server.stats());
+        LatencyHistogram.Snapshot late = Metrics.histogram("server_reminder_lateness").snapshot();
+        System.out.printf("📊 reminder lateness p50=%.0fms p99=%.0fms%n",
+                late.percentile(0.5) / 1e6, late.percentile(0.99) / 1e6);
+
+        server.close();
+        stub.stop(0);
+        deleteRecursively(dir);
+        boolean ok = errors.sum() == 0 && total == users && wrong == 0 && delivered.size() == users;
+        System.out.println(ok ? "✅ OK" : "❌ FAILED");
+        System.exit(ok ? 0 : 1);
+    }
+
+    // adds for tomorrow (free text or explicit times), day queries and deletes, then a task twenty
+    // seconds out whose reminder the stub should see
+    private static void runUser(HttpClient client, String url, int requests,
+                                LatencyHistogram latency, LongAdder errors) {
+        List<String> ids = new ArrayList<>();
+        LocalDate day = LocalDate.now().plusDays(1);
+        for (int i = 0; i < requests; i++) {
+            HttpRequest.Builder req;
+            int expect;
+            if (i % 3 == 2 && !ids.isEmpty()) {
+                req = HttpRequest.newBuilder(URI.create(url + "/" + ids.remove(ids.size() - 1))).DELETE();
+                expect = 204;
+            } else if (i % 2 == 1) {
+                req = HttpRequest.newBuilder(URI.create(url + "?date=" + day)).GET();
+                expect = 200;
+            } else {
+                String body = i % 4 == 0
+                        ? "{\"text\":" + Json.quote(PHRASES[i / 4 % PHRASES.length]) + ",\"date\":\"" + day + "\"}"
+                        : "{\"description\":\"Block " + i + "\",\"start\":\"" + day.atTime(9, 0).plusMinutes(i * 20L)
+                                + "\",\"end\":\"" + day.atTime(9, 15).plusMinutes(i * 20L) + "\"}";
+                req = HttpRequest.newBuilder(URI.create(url)).POST(HttpRequest.BodyPublishers.ofString(body));
+                expect = 201;
+            }
+            String resp = call(client, req, expect, latency, errors);
+            if (expect == 201 && resp != null) {
+                Matcher m = ID.matcher(resp);
+                if (m.find()) ids.add(m.group(1));
+            }
+        }
+        LocalDateTime remindAt = LocalDateTime.now().plusSeconds(20).truncatedTo(ChronoUnit.SECONDS);
+        call(client, HttpRequest.newBuilder(URI.create(url)).POST(HttpRequest.BodyPublishers.ofString(
+                "{\"description\":\"Load test reminder\",\"start\":\"" + remindAt + "\",\"end\":\""
+                        + remindAt.plusMinutes(30) + "\"}")), 201, latency, errors);
+    }
+
+    private static String call(HttpClient client, HttpRequest.Builder req, int expect,
+                               LatencyHistogram latency, LongAdder errors) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> r = client.send(req.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            latency.record(System.nanoTime() - start);
+            if (r.statusCode() != expect) {
+                errors.increment();
+                System.out.println("⚠ " + req.build().method() + " " + req.build().uri() + " → HTTP "
+                        + r.statusCode() + " " + r.body());
+                return null;
+            }
+            return r.body();
+        } catch (IOException | InterruptedException e) {
+            errors.increment();
+            System.out.println("⚠ " + e);
+            return null;
+        }
+    }
+
+    private static long total(Map<String, LongAdder> delivered) {
+        return delivered.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+}
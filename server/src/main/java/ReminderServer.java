@@ -0,0 +1,372 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless, multi-user SmartReminder: the reminder engine without JavaFX, for many chats at once.
+ *
+ * Local HTTP API (JSON), one virtual thread per request:
+ * <pre>
+ *   POST   /users/{chatId}/tasks       {"text": "Gym at 6 PM for 1 hour", "date": "2026-10-18"}
+ *                                      or {"description": "...", "start": ISO, "end": ISO}
+ *                                      → 201 {"task": {...}, "conflicts": n}
+ *                                      a recurring text ("Gym every mon and thu at 6 PM") is stored as
+ *                                      a series → 201 {"series": {...}, "task": next occurrence, "conflicts": n}
+ *   GET    /users/{chatId}/tasks       live tasks (with each series' next occurrence);
+ *                                      ?date=YYYY-MM-DD for that day's tasks
+ *   DELETE /users/{chatId}/tasks/{id}  → 204, or 404 if there is no such task; an occurrence id
+ *                                      (negative) removes just that occurrence
+ *   GET    /users/{chatId}/series      recurring tasks
+ *   DELETE /users/{chatId}/series/{id} → 204, the whole series
+ *   GET    /users/{chatId}/health?from=YYYY-MM-DD&to=YYYY-MM-DD
+ *                                      conflicts and repeated activities (up to a year, {@link ScheduleHealthReport})
+ *   GET    /metrics                    Prometheus text (see MetricsExporter)
+ *   GET    /health
+ * </pre>
+ * Each user's tasks live in their own embedded store ({@link Tenants}); reminders for all
+ * users share one timer wheel ({@link TenantReminders}) and go to the user's chat through
+ * {@link TelegramNotifier}.
+ *
+ * Configuration: smartreminder.server.port (8085), smartreminder.server.dir
+ * (~/.smartreminder/server), smartreminder.server.openTenants (512),
+ * smartreminder.telegram.token / baseUrl / globalPerSecond (30) / perChatPerSecond (1),
+ * smartreminder.reminder.leadMinutes (10) / horizonHours (24).
+ */
+public class ReminderServer implements AutoCloseable {
+
+    private static final Metrics.Timer ADD = Metrics.timer("server_add_task");
+    private static final Metrics.Timer QUERY = Metrics.timer("server_query_tasks");
+    private static final Metrics.Timer DELETE = Metrics.timer("server_delete_task");
+    private static final Metrics.Timer ADD_SERIES = Metrics.timer("server_add_series");
+    private static final int MAX_REPORT_DAYS = 366;
+
+    private final Tenants tenants;
+    private final TelegramNotifier notifier;
+    private final TenantReminders reminders;
+    private final HttpServer http;
+
+    public ReminderServer(Path dataDir, int port, TelegramNotifier notifier, Duration lead, Duration horizon,
+                          int openTenants) throws IOException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        this.tenants = new Tenants(dataDir, cores * 4, openTenants);
+        this.notifier = notifier;
+        this.reminders = new TenantReminders(tenants, notifier, lead, horizon);
+        this.http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        http.createContext("/users/", this::handleUsers);
+        http.createContext("/metrics", ex -> send(ex, 200, "text/plain; version=0.0.4", MetricsExporter.prometheus()));
+        http.createContext("/health", ex -> send(ex, 200, "text/plain", "ok"));
+        http.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        Metrics.gauge("server_open_tenants", tenants::openCount);
+    }
+
+    /** Server configured from system properties. */
+    public static ReminderServer fromProperties() throws IOException {
+        Path dir = Paths.get(System.getProperty("smartreminder.server.dir",
+                Paths.get(System.getProperty("user.home"), ".smartreminder", "server").toString()));
+        TelegramNotifier notifier = new TelegramNotifier(
+                System.getProperty("smartreminder.telegram.baseUrl", "https://api.telegram.org"),
+                System.getProperty("smartreminder.telegram.token", ""), null, 10_000,
+                Double.parseDouble(System.getProperty("smartreminder.telegram.globalPerSecond", "30")),
+                Double.parseDouble(System.getProperty("smartreminder.telegram.perChatPerSecond", "1")));
+        return new ReminderServer(dir, Integer.getInteger("smartreminder.server.port", 8085), notifier,
+                Duration.ofMinutes(Long.getLong("smartreminder.reminder.leadMinutes", 10L)),
+                Duration.ofHours(Long.getLong("smartreminder.reminder.horizonHours", 24L)),
+                Integer.getInteger("smartreminder.server.openTenants", 512));
+    }
+
+    public void start() {
+        reminders.start();
+        http.start();
+    }
+
+    public int port() {
+        return http.getAddress().getPort();
+    }
+
+    public String stats() {
+        return String.format("server[openTenants=%d armed=%d fired=%d] %s",
+                tenants.openCount(), reminders.armedCount(), reminders.fired(), notifier.stats());
+    }
+
+    @Override
+    public void close() {
+        http.stop(0);
+        reminders.close();
+        notifier.close();
+        tenants.close();
+    }
+
+    public static void main(String[] args) throws Exception {
+        ReminderServer server = fromProperties();
+        server.start();
+        System.out.println("🚀 SmartReminder server on http://127.0.0.1:" + server.port());
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("📊 " + server.stats());
+            server.close();
+            stopped.countDown();
+        }));
+        stopped.await();
+    }
+
+    // ---------------- requests ----------------
+
+    // /users/{chatId}/tasks[/{id}], /series[/{id}], /health
+    private void handleUsers(HttpExchange ex) throws IOException {
+        try {
+            String[] parts = ex.getRequestURI().getPath().split("/");
+            if (parts.length < 4 || !("tasks".equals(parts[3]) || "series".equals(parts[3])
+                    || "health".equals(parts[3]) && parts.length == 4)
+                    || parts.length > 5 || !Tenants.isValidChatId(parts[2])) {
+                send(ex, 404, "application/json", "{\"error\":\"not found\"}");
+                return;
+            }
+            String chatId = parts[2];
+            String method = ex.getRequestMethod();
+            if (parts[3].equals("health")) {
+                if (method.equals("GET")) healthReport(ex, chatId);
+                else send(ex, 405, "application/json", "{\"error\":\"method not allowed\"}");
+            } else if (parts[3].equals("series")) {
+                if (parts.length == 4 && method.equals("GET")) listSeries(ex, chatId);
+                else if (parts.length == 5 && method.equals("DELETE")) deleteSeries(ex, chatId, Long.parseLong(parts[4]));
+                else send(ex, 405, "application/json", "{\"error\":\"method not allowed\"}");
+            } else if (parts.length == 4 && method.equals("POST")) {
+                addTask(ex, chatId);
+            } else if (parts.length == 4 && method.equals("GET")) {
+                queryTasks(ex, chatId);
+            } else if (parts.length == 5 && method.equals("DELETE")) {
+                deleteTask(ex, chatId, Long.parseLong(parts[4]));
+            } else {
+                send(ex, 405, "application/json", "{\"error\":\"method not allowed\"}");
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {   // includes NumberFormatException
+            send(ex, 400, "application/json", "{\"error\":" + Json.quote(e.getMessage()) + "}");
+        } catch (SQLException e) {
+            e.printStackTrace();
+            send(ex, 500, "application/json", "{\"error\":\"storage failure\"}");
+        }
+    }
+
+    private void addTask(HttpExchange ex, String chatId) throws IOException, SQLException {
+        Map<String, Object> body = Json.parseObject(readBody(ex));
+        Task task;
+        if (body.get("text") instanceof String text) {
+            LocalDate day = body.get("date") instanceof String d ? LocalDate.parse(d) : LocalDate.now();
+            RecurringTask series = TaskParser.parseRecurring(text, day);
+            if (series != null) {
+                addSeries(ex, chatId, series);
+                return;
+            }
+            task = TaskParser.parse(text, day);
+        } else if (body.get("description") instanceof String description) {
+            LocalDateTime start = body.get("start") instanceof String s ? LocalDateTime.parse(s) : null;
+            LocalDateTime end = body.get("end") instanceof String e ? LocalDateTime.parse(e) : null;
+            if ((start == null) != (end == null) || (start != null && end.isBefore(start))) {
+                throw new IllegalArgumentException("start and end go together, end not before start");
+            }
+            task = new Task(description, start, end);
+        } else {
+            throw new IllegalArgumentException("expected \"text\" or \"description\"");
+        }
+        if (task.getDescription().isBlank()) throw new IllegalArgumentException("empty task");
+
+        Metrics.Sample sample = ADD.start();
+        int conflicts;
+        try {
+            conflicts = tenants.withStore(chatId, s -> {
+                int n = task.hasTime() ? conflicts(s, task) : 0;
+                s.saveTask(task);
+                return n;
+            });
+            sample.stop();
+        } catch (SQLException | RuntimeException e) {
+            sample.fail();
+            throw e;
+        }
+        reminders.taskAdded(chatId, task);
+        send(ex, 201, "application/json", "{\"task\":" + toJson(task) + ",\"conflicts\":" + conflicts + "}");
+    }
+
+    private void addSeries(HttpExchange ex, String chatId, RecurringTask series) throws IOException, SQLException {
+        Task next = series.next(LocalDateTime.now());
+        Metrics.Sample sample = ADD_SERIES.start();
+        int conflicts;
+        try {
+            conflicts = tenants.withStore(chatId, s -> {
+                int n = next == null ? 0 : conflicts(s, next);
+                s.saveSeries(series);
+                return n;
+            });
+            sample.stop();
+        } catch (SQLException | RuntimeException e) {
+            sample.fail();
+            throw e;
+        }
+        reminders.seriesAdded(chatId, series);
+        send(ex, 201, "application/json", "{\"series\":" + toJson(series) + ",\"task\":"
+                + (next == null ? "null" : toJson(next)) + ",\"conflicts\":" + conflicts + "}");
+    }
+
+    // stored tasks overlapping this one; anything overlapping started at most a day before (tasks are day-sized)
+    private static int conflicts(TaskStore s, Task task) throws SQLException {
+        int n = 0;
+        for (Task other : s.getTasksInWindow(task.getStartTime().minusDays(1), task.getEndTime())) {
+            if (task.overlapsWith(other)) n++;
+        }
+        return n;
+    }
+
+    private void listSeries(HttpExchange ex, String chatId) throws IOException, SQLException {
+        List<RecurringTask> all = tenants.withStore(chatId, TaskStore::getSeries);
+        StringBuilder sb = new StringBuilder(64 + 128 * all.size()).append("{\"series\":[");
+        for (int i = 0; i < all.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(toJson(all.get(i)));
+        }
+        send(ex, 200, "application/json", sb.append("]}").toString());
+    }
+
+    private void deleteSeries(HttpExchange ex, String chatId, long id) throws IOException, SQLException {
+        boolean found = tenants.withStore(chatId, s -> {
+            boolean known = s.getSeries().stream().anyMatch(r -> r.getId() == id);
+            if (known) s.deleteSeries(id);
+            return known;
+        });
+        reminders.seriesDeleted(chatId, id);
+        if (!found) send(ex, 404, "application/json", "{\"error\":\"no such series\"}");
+        else send(ex, 204, null, null);
+    }
+
+    private void queryTasks(HttpExchange ex, String chatId) throws IOException, SQLException {
+        String date = queryParam(ex.getRequestURI(), "date");
+        Metrics.Sample sample = QUERY.start();
+        List<Task> tasks;
+        try {
+            tasks = date != null
+                    ? tenants.withStore(chatId, s -> s.getTasksByDate(LocalDate.parse(date)))
+                    : tenants.withStore(chatId, s -> s.getLiveTasks(LocalDateTime.now()));
+            sample.stop();
+        } catch (SQLException | RuntimeException e) {
+            sample.fail();
+            throw e;
+        }
+        StringBuilder sb = new StringBuilder(64 + 96 * tasks.size()).append("{\"tasks\":[");
+        for (int i = 0; i < tasks.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(toJson(tasks.get(i)));
+        }
+        send(ex, 200, "application/json", sb.append("]}").toString());
+    }
+
+    private void deleteTask(HttpExchange ex, String chatId, long id) throws IOException, SQLException {
+        Metrics.Sample sample = DELETE.start();
+        int deleted;
+        try {
+            deleted = tenants.withStore(chatId, s -> s.deleteTasks(List.of(id)));
+            sample.stop();
+        } catch (SQLException | RuntimeException e) {
+            sample.fail();
+            throw e;
+        }
+        reminders.taskDeleted(chatId, id);
+        if (deleted == 0) send(ex, 404, "application/json", "{\"error\":\"no such task\"}");
+        else send(ex, 204, null, null);
+    }
+
+    private void healthReport(HttpExchange ex, String chatId) throws IOException, SQLException {
+        String from = queryParam(ex.getRequestURI(), "from");
+        String to = queryParam(ex.getRequestURI(), "to");
+        LocalDate first = from != null ? LocalDate.parse(from) : LocalDate.now();
+        LocalDate last = to != null ? LocalDate.parse(to) : first.plusDays(6);
+        if (last.isBefore(first) || first.plusDays(MAX_REPORT_DAYS).isBefore(last)) {
+            throw new IllegalArgumentException("range is 1 to " + MAX_REPORT_DAYS + " days");
+        }
+        // only the load holds the tenant's lock; the days are checked outside it
+        List<Task> tasks = tenants.withStore(chatId, s -> s.getTasksInWindow(
+                first.minusDays(1).atStartOfDay(), last.plusDays(1).atStartOfDay()));
+        ScheduleHealthReport report = ScheduleHealthReport.of(tasks, first, last);
+        StringBuilder sb = new StringBuilder(256).append("{\"tasks\":").append(report.tasks).append(",\"conflicts\":[");
+        for (int i = 0; i < report.conflicts.size(); i++) {
+            ScheduleHealthReport.Conflict c = report.conflicts.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"earlier\":").append(toJson(c.earlier)).append(",\"later\":").append(toJson(c.later)).append('}');
+        }
+        sb.append("],\"duplicates\":[");
+        for (int i = 0; i < report.duplicates.size(); i++) {
+            ScheduleHealthReport.Duplicate d = report.duplicates.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"day\":\"").append(d.day).append("\",\"tasks\":[");
+            for (int j = 0; j < d.tasks.size(); j++) {
+                if (j > 0) sb.append(',');
+                sb.append(toJson(d.tasks.get(j)));
+            }
+            sb.append("]}");
+        }
+        send(ex, 200, "application/json", sb.append("]}").toString());
+    }
+
+    static String toJson(Task t) {
+        return "{\"id\":" + t.getId()
+                + ",\"description\":" + Json.quote(t.getDescription())
+                + ",\"start\":" + Json.quote(t.getStartTime() == null ? null : t.getStartTime().toString())
+                + ",\"end\":" + Json.quote(t.getEndTime() == null ? null : t.getEndTime().toString()) + "}";
+    }
+
+    static String toJson(RecurringTask s) {
+        return "{\"id\":" + s.getId()
+                + ",\"description\":" + Json.quote(s.getDescription())
+                + ",\"start\":" + Json.quote(s.getStart().toString())
+                + ",\"minutes\":" + s.getLength().toMinutes()
+                + ",\"rule\":" + Json.quote(s.getRule().toString())
+                + ",\"text\":" + Json.quote(s.getDisplayText()) + "}";
+    }
+
+    private static String readBody(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String queryParam(URI uri, String name) {
+        String q = uri.getQuery();
+        if (q == null) return null;
+        for (String pair : q.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) return pair.substring(eq + 1);
+        }
+        return null;
+    }
+
+    private static void send(HttpExchange ex, int status, String contentType, String body) throws IOException {
+        try (ex) {
+            if (body == null) {
+                ex.sendResponseHeaders(status, -1);
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+            ex.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
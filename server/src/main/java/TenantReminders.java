@@ -0,0 +1,200 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reminders for every user on one {@link TimerWheel}, the multi-user counterpart of
+ * {@link ReminderScheduler}.
+ *
+ * Only reminders due within the horizon are armed. For the rest, the earliest pending start
+ * per user is remembered ({@code later}), so a refill opens just the users that have something
+ * coming up instead of every store. Fired reminders go out through {@link TelegramNotifier}
+ * to the user's chat, each on its own virtual thread, and are marked in the user's store.
+ */
+final class TenantReminders implements AutoCloseable {
+
+    private static final LatencyHistogram LATENESS = Metrics.histogram("server_reminder_lateness");
+
+    private static final class Due {
+        final String chatId;
+        final Task task;
+
+        Due(String chatId, Task task) {
+            this.chatId = chatId;
+            this.task = task;
+        }
+    }
+
+    private final Tenants tenants;
+    private final TelegramNotifier notifier;
+    private final Duration defaultLead;
+    private final Duration horizon;
+
+    private final TimerWheel<Due> wheel = new TimerWheel<>(1000, System.currentTimeMillis());
+    private final Map<String, TimerWheel.Timeout<Due>> armed = new HashMap<>();   // chat/id, guarded by this
+    private final Map<String, LocalDateTime> later = new ConcurrentHashMap<>();   // chat → earliest start past the window
+    private volatile LocalDateTime loadedUntil = LocalDateTime.now();
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "server-reminder-wheel");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ExecutorService firing = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final LongAdder fired = new LongAdder();
+
+    TenantReminders(Tenants tenants, TelegramNotifier notifier, Duration defaultLead, Duration horizon) {
+        this.tenants = tenants;
+        this.notifier = notifier;
+        this.defaultLead = defaultLead;
+        this.horizon = horizon;
+        Metrics.gauge("server_reminders_armed", this::armedCount);
+    }
+
+    /** Loads every known user's pending reminders (in parallel), then starts ticking. */
+    void start() {
+        loadedUntil = LocalDateTime.now().plus(horizon);
+        try (ExecutorService loaders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String chatId : tenants.knownChatIds()) loaders.execute(() -> load(chatId, LocalDateTime.now()));
+        }
+        long toNextSecond = 1000 - System.currentTimeMillis() % 1000;
+        ticker.scheduleAtFixedRate(this::tick, toNextSecond, 1000, TimeUnit.MILLISECONDS);
+        long refillMinutes = Math.max(1, horizon.toMinutes() / 2);
+        ticker.scheduleAtFixedRate(this::refill, refillMinutes, refillMinutes, TimeUnit.MINUTES);
+    }
+
+    /** A task was just added; it gets the default lead and does not fire if that is already past. */
+    void taskAdded(String chatId, Task task) {
+        arm(chatId, task, defaultLead, false);
+    }
+
+    /**
+     * A series was just added: its occurrences inside the window are armed like added tasks, and
+     * the first one after it is remembered so a later refill loads the rest.
+     */
+    void seriesAdded(String chatId, RecurringTask series) {
+        LocalDateTime until = loadedUntil;
+        series.forEachOccurrence(LocalDateTime.now(), until, o -> arm(chatId, o, defaultLead, false));
+        LocalDateTime next = series.firstPendingStart(until);
+        if (next != null) later.merge(chatId, next, (x, y) -> x.isBefore(y) ? x : y);
+    }
+
+    synchronized void taskDeleted(String chatId, long taskId) {
+        TimerWheel.Timeout<Due> t = armed.remove(chatId + "/" + taskId);
+        if (t != null) wheel.cancel(t);
+    }
+
+    /** Cancels the armed occurrences of a deleted series (at most a horizon's worth). */
+    synchronized void seriesDeleted(String chatId, long seriesId) {
+        armed.values().removeIf(t -> {
+            boolean gone = t.payload().chatId.equals(chatId) && t.payload().task instanceof RecurringTask.Occurrence o
+                    && o.getSeriesId() == seriesId;
+            if (gone) wheel.cancel(t);
+            return gone;
+        });
+    }
+
+    private void arm(String chatId, Task task, Duration lead, boolean fireIfLate) {
+        if (!task.hasTime()) return;
+        LocalDateTime now = LocalDateTime.now();
+        if (!task.getStartTime().isAfter(now)) return;
+        if (!task.getStartTime().isBefore(loadedUntil)) {
+            later.merge(chatId, task.getStartTime(), (a, b) -> a.isBefore(b) ? a : b);
+            return;
+        }
+        LocalDateTime fireAt = task.getStartTime().minus(lead);
+        if (!fireIfLate && !fireAt.isAfter(now)) return;
+        synchronized (this) {
+            TimerWheel.Timeout<Due> previous = armed.remove(chatId + "/" + task.getId());
+            if (previous != null) wheel.cancel(previous);
+            long at = fireAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            armed.put(chatId + "/" + task.getId(), wheel.schedule(new Due(chatId, task), at));
+        }
+    }
+
+    // arms the user's reminders up to loadedUntil and remembers the first one after it; only the
+    // window is read (recurring tasks would otherwise expand to the end of time)
+    private void load(String chatId, LocalDateTime now) {
+        try {
+            LocalDateTime until = loadedUntil;
+            List<TaskStore.PendingReminder> pending = tenants.withStore(chatId, s -> s.getPendingReminders(now, until));
+            for (TaskStore.PendingReminder r : pending) {
+                Duration lead = r.leadMinutes != null ? Duration.ofMinutes(r.leadMinutes) : defaultLead;
+                arm(chatId, r.task, lead, true);
+            }
+            LocalDateTime next = tenants.withStore(chatId, s -> s.firstPendingStart(until));
+            if (next != null) later.merge(chatId, next, (a, b) -> a.isBefore(b) ? a : b);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void refill() {
+        LocalDateTime now = LocalDateTime.now();
+        loadedUntil = now.plus(horizon);
+        List<String> due = new ArrayList<>();
+        later.forEach((chatId, start) -> {
+            if (start.isBefore(loadedUntil)) due.add(chatId);
+        });
+        try (ExecutorService loaders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String chatId : due) {
+                later.remove(chatId);
+                loaders.execute(() -> load(chatId, now));
+            }
+        }
+    }
+
+    private void tick() {
+        List<TimerWheel.Timeout<Due>> expired = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            wheel.advanceTo(now, expired::add);
+            for (TimerWheel.Timeout<Due> t : expired) {
+                armed.remove(t.payload().chatId + "/" + t.payload().task.getId(), t);
+            }
+        }
+        for (TimerWheel.Timeout<Due> t : expired) {
+            LATENESS.record(Math.max(0, now - t.deadlineMillis()) * 1_000_000);
+            fired.increment();
+            firing.execute(() -> fire(t.payload()));
+        }
+    }
+
+    private void fire(Due d) {
+        try {
+            notifier.sendMessage(d.chatId, "⏰ Reminder: " + d.task.getDescription() + " starts at "
+                    + d.task.getStartTime().toLocalTime());
+            tenants.withStore(d.chatId, s -> {
+                s.markReminded(d.task, LocalDateTime.now());
+                return null;
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    synchronized int armedCount() {
+        return wheel.size();
+    }
+
+    long fired() {
+        return fired.sum();
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+        firing.shutdown();
+    }
+}
@@ -0,0 +1,168 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Per-user task stores for the server: one {@link EmbeddedTaskStore} per chat id, in its own
+ * directory under the data root.
+ *
+ * Users are spread over shards by chat id, each with its own lock and LRU of open stores, so
+ * requests for different users never contend on a shared lock and throughput grows with
+ * cores. Calls for one user are serialized on that user's lock. Idle stores are closed once a
+ * shard holds more than its share of smartreminder.server.openTenants (default 512), which
+ * keeps file handles and mappings bounded however many users there are.
+ */
+final class Tenants implements AutoCloseable {
+
+    // Telegram chat ids are numbers; letters could collide as directory names on case-insensitive disks
+    private static final Pattern CHAT_ID = Pattern.compile("-?[0-9]{1,20}");
+    private static final int LOG_CAPACITY = 64 << 10;   // per user; grows when needed
+
+    interface StoreCall<T> {
+        T apply(TaskStore store) throws SQLException;
+    }
+
+    private static final class Tenant {
+        final String chatId;
+        final ReentrantLock lock = new ReentrantLock();
+        TaskStore store;     // guarded by lock; null until first use
+        boolean evicted;     // guarded by lock; a fresh Tenant takes over
+
+        Tenant(String chatId) {
+            this.chatId = chatId;
+        }
+    }
+
+    private static final class Shard {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<String, Tenant> open = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    private final Path root;
+    private final Shard[] shards;
+    private final int perShard;
+
+    Tenants(Path root, int shards, int openTenants) {
+        this.root = root;
+        this.shards = new Shard[Math.max(1, shards)];
+        for (int i = 0; i < this.shards.length; i++) this.shards[i] = new Shard();
+        this.perShard = Math.max(1, openTenants / this.shards.length);
+        try {
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create data directory " + root, e);
+        }
+    }
+
+    static boolean isValidChatId(String chatId) {
+        return chatId != null && CHAT_ID.matcher(chatId).matches();
+    }
+
+    /** Runs {@code call} on the user's store, opening it if needed; calls for one user never overlap. */
+    <T> T withStore(String chatId, StoreCall<T> call) throws SQLException {
+        if (!isValidChatId(chatId)) throw new IllegalArgumentException("Bad chat id: " + chatId);
+        while (true) {
+            Tenant t = lookup(chatId);
+            t.lock.lock();
+            try {
+                if (t.evicted) continue;   // closed while we waited; the map has a new one
+                if (t.store == null) t.store = EmbeddedTaskStore.open(root.resolve(chatId), LOG_CAPACITY, false);
+                return call.apply(t.store);
+            } finally {
+                t.lock.unlock();
+            }
+        }
+    }
+
+    /** Chat ids that have a directory under the root (every user seen so far). */
+    List<String> knownChatIds() {
+        List<String> ids = new ArrayList<>();
+        try (Stream<Path> dirs = Files.list(root)) {
+            dirs.filter(Files::isDirectory).map(p -> p.getFileName().toString())
+                    .filter(Tenants::isValidChatId).forEach(ids::add);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return ids;
+    }
+
+    int openCount() {
+        int n = 0;
+        for (Shard s : shards) {
+            s.lock.lock();
+            try {
+                n += s.open.size();
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        return n;
+    }
+
+    private Tenant lookup(String chatId) {
+        Shard s = shards[Math.floorMod(chatId.hashCode(), shards.length)];
+        s.lock.lock();
+        try {
+            Tenant t = s.open.get(chatId);
+            if (t == null) {
+                t = new Tenant(chatId);
+                s.open.put(chatId, t);
+                evictIdle(s);
+            }
+            return t;
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    // with the shard lock held; users in the middle of a call are skipped, not waited for
+    private void evictIdle(Shard s) {
+        Iterator<Tenant> it = s.open.values().iterator();
+        while (s.open.size() > perShard && it.hasNext()) {
+            Tenant t = it.next();
+            if (!t.lock.tryLock()) continue;
+            try {
+                if (t.store == null) continue;   // the one just added
+                t.store.close();
+                t.store = null;
+                t.evicted = true;
+                it.remove();
+            } finally {
+                t.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Shard s : shards) {
+            s.lock.lock();
+            try {
+                for (Map.Entry<String, Tenant> e : s.open.entrySet()) {
+                    Tenant t = e.getValue();
+                    t.lock.lock();
+                    try {
+                        if (t.store != null) t.store.close();
+                        t.store = null;
+                        t.evicted = true;
+                    } finally {
+                        t.lock.unlock();
+                    }
+                }
+                s.open.clear();
+            } finally {
+                s.lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.text.Font;
+import javafx.stage.Stage;
+
+public class SmartReminder extends Application {
+
+    private TaskApp app;
+
+    @Override
+    public void start(Stage primaryStage) {
+        long launched = System.nanoTime();
+        // Pass the primary stage to TaskApp; it shows the window before any task is loaded
+        app = new TaskApp(primaryStage, launched);
+
+        // fonts are not needed for the first frame: load them off the FX thread, then restyle
+        Thread fonts = new Thread(() -> {
+            Font f1 = Font.loadFont(getClass().getResourceAsStream("/fonts/Philosopher-Regular.ttf"), 14);
+            System.out.println("Regular: " + (f1 != null ? f1.getName() : "FAILED"));
+
+            Font f2 = Font.loadFont(getClass().getResourceAsStream("/fonts/Philosopher-Bold.ttf"), 14);
+            System.out.println("Bold: " + (f2 != null ? f2.getName() : "FAILED"));
+            if (f1 != null || f2 != null) Platform.runLater(app::refreshStyles);
+        }, "font-loader");
+        fonts.setDaemon(true);
+        fonts.start();
+    }
+
+    @Override
+    public void stop() {
+        if (app != null) app.shutdown();
+    }
+
+
+    public static void main(String[] args) {
+        launch(args); // Launch JavaFX
+    }
+}
+
@@ -0,0 +1,821 @@
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+
+public class TaskApp {
+
+    private final ObservableList<Task> tasks = FXCollections.observableArrayList();
+    private final Label statusLabel = new Label("Welcome! Add your first task.");
+    private final Label suggestionLabel = new Label("💡 Suggestions will appear here…");
+    private final Label agendaLabel = new Label("📅 Loading agenda…");
+    private final DateTimeFormatter fmt = DateTimeFormatter.ofPattern("MMM dd, yyyy | hh:mm a");
+    private ListView<Task> taskListView;
+    private final TextField input = new TextField();
+
+    private final ScheduleIndex schedule = new ScheduleIndex();
+    private final ScheduleQueryEngine engine = new ScheduleQueryEngine(schedule);
+    private final AutoScheduler planner = new AutoScheduler(schedule);   // slots for timeless tasks
+    private final DescriptionIndex descriptions = new DescriptionIndex();
+    private final ActivityModel activityModel = new ActivityModel(); // whole history, not just the list
+    private final Map<Long, RecurringTask> seriesById = new HashMap<>(); // FX thread only; the list shows next occurrences
+
+    // live suggestions are computed off the FX thread, only for the last edit in a burst
+    private static final long SUGGEST_DEBOUNCE_MS = 120;
+    private final ScheduledExecutorService suggestionWorker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "live-suggestions");
+        t.setDaemon(true);
+        return t;
+    });
+    private ScheduledFuture<?> pendingSuggestion; // FX thread only
+    private long suggestionSeq;                   // FX thread only
+
+    private TelegramNotifier notifier; // created with the first message
+
+    private volatile ReminderScheduler reminders;
+    private BotWorkerPool botPool;   // started on the first "Ask"
+
+    // set by the loader thread; the Add button stays disabled until they exist
+    private volatile TaskStore store;
+    private volatile TaskWriteQueue writeQueue;
+    private final Button addBtn = new Button("Add Task");
+    private final Button importBtn = new Button("Import…");
+    private final Button exportBtn = new Button("Export…");
+
+    // agenda of the picked day, read through the per-day cache
+    private static final int AGENDA_PREVIEW = 5;
+    private static final int HEALTH_LINES = 20;
+    private static final DateTimeFormatter AGENDA_DAY_FMT = DateTimeFormatter.ofPattern("EEE, MMM dd");
+    private static final DateTimeFormatter AGENDA_TIME_FMT = DateTimeFormatter.ofPattern("hh:mm a");
+    private static final DateTimeFormatter SLOT_DAY = DateTimeFormatter.ofPattern("EEE hh:mm a");
+    private static final DateTimeFormatter SLOT_TIME = DateTimeFormatter.ofPattern("hh:mm a");
+    private volatile AgendaCache agenda;
+    private volatile RetentionJob retention;
+    private volatile MetricsExporter metrics;
+    private LocalDate agendaDay = LocalDate.now(); // FX thread only
+
+    // staged start-up: tasks arrive page by page after the window is up
+    private static final int LOAD_PAGE_SIZE = 500;
+    private final long launchNanos;
+    private boolean firstPaintLogged; // FX thread only
+    private Runnable firstPaintProbe;
+
+    // While the history scan feeds the suggestion model, adds and removes still go to the store
+    // right away, but their model updates are held here (in order) and the scan skips the tasks
+    // they are about, so nothing is counted twice; guarded by scanLock
+    private final Object scanLock = new Object();
+    private List<Runnable> heldModelUpdates = new ArrayList<>(); // null once the scan is done
+    private final Set<Long> touchedDuringScan = new HashSet<>();
+    private final Set<Long> liveCountedByScan = new HashSet<>();  // live tasks the scan added
+
+    private long shownPlan; // planner.planVersion() the list was last drawn with, FX thread only
+
+    private double xOffset = 0;
+    private double yOffset = 0;
+
+    public TaskApp(Stage stage, long launchNanos) {
+        this.launchNanos = launchNanos;
+
+        // keep the interval index in sync with whatever ends up in the list
+        tasks.addListener((ListChangeListener<Task>) c -> {
+            while (c.next()) {
+                for (Task t : c.getRemoved()) {
+                    schedule.remove(t);
+                    engine.taskRemoved(t);
+                    planner.taskRemoved(t);
+                    descriptions.remove(t.getDescription());
+                    if (botPool != null) botPool.taskRemoved(t);
+                }
+                for (Task t : c.getAddedSubList()) {
+                    schedule.insert(t);
+                    engine.taskAdded(t);
+                    planner.taskAdded(t);
+                    descriptions.add(t.getDescription());
+                    if (botPool != null) botPool.taskAdded(t);
+                }
+            }
+            // redraw the other rows only if planned slots of timeless tasks moved
+            long plan = planner.planVersion(LocalDateTime.now());
+            if (plan != shownPlan && taskListView != null) taskListView.refresh();
+            shownPlan = plan;
+        });
+
+        Label title = new Label("Smart Reminder System");
+        title.getStyleClass().add("title");
+
+        input.setPromptText("e.g., Meeting Jon for coffee at 5 PM for 1 hour");
+        input.getStyleClass().add("input");
+
+        DatePicker datePicker = new DatePicker(LocalDate.now());
+        datePicker.getStyleClass().add("date-picker");
+        datePicker.valueProperty().addListener((obs, oldDay, day) -> showAgenda(day));
+
+        addBtn.getStyleClass().add("btn-primary");
+        addBtn.setDisable(true);
+        statusLabel.setText("⏳ Loading your tasks…");
+
+        // bulk transfer: whole calendars go straight between the file and the store
+        importBtn.setDisable(true);
+        exportBtn.setDisable(true);
+        importBtn.setOnAction(e -> importTasks(stage, datePicker.getValue()));
+        exportBtn.setOnAction(e -> exportTasks(stage));
+
+        HBox inputBar = new HBox(10, datePicker, input, addBtn, importBtn, exportBtn);
+        inputBar.setPadding(new Insets(10));
+        HBox.setHgrow(input, Priority.ALWAYS);
+
+        suggestionLabel.getStyleClass().add("suggestion");
+        agendaLabel.getStyleClass().add("agenda-label");
+
+        taskListView = new ListView<>();
+        taskListView.setItems(tasks);
+        taskListView.setCellFactory(lv -> new TaskCell(this::completeTask, this::removeTask, this::plannedSlot));
+        // select several tasks and press Delete to remove them in one statement
+        taskListView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        taskListView.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.DELETE || e.getCode() == KeyCode.BACK_SPACE) {
+                removeTasks(new ArrayList<>(taskListView.getSelectionModel().getSelectedItems()));
+            }
+        });
+
+        input.textProperty().addListener((obs, oldV, newV) -> updateLiveSuggestions(newV));
+
+        // ✅ FIXED: Add button now only saves task (no bot.py call)
+        addBtn.setOnAction(e -> {
+            String raw = input.getText().trim();
+            LocalDate chosenDate = datePicker.getValue();
+
+            if (raw.isEmpty()) {
+                statusLabel.setText("⚠ Please type a task.");
+                return;
+            }
+
+            // "every day at 6 AM" and the like are stored once, as a series
+            RecurringTask series = TaskParser.parseRecurring(raw, chosenDate);
+            if (series != null) {
+                addSeries(series);
+                input.clear();
+                return;
+            }
+
+            Task parsed = TaskParser.parse(raw, chosenDate);
+            if (parsed == null) {
+                statusLabel.setText("❌ Could not understand the task.");
+                return;
+            }
+
+            // check overlaps / duplicates before the new task joins the index
+            String conflict = parsed.hasTime() ? engine.conflictMessage(parsed) : null;
+            String duplicate = engine.duplicateActivityMessage(parsed);
+
+            tasks.add(parsed);
+            modelAdd(parsed); // before the insert, so a running history scan skips it
+            saveTaskToDB(parsed);
+
+            String msg = "✅ Added: " + parsed.getDisplayText();
+
+            StringBuilder status = new StringBuilder(msg);
+            if (conflict != null) status.append('\n').append(conflict);
+            if (duplicate != null) status.append('\n').append(duplicate);
+            if (!parsed.hasTime()) status.append('\n').append(plannedSlot(parsed));
+            statusLabel.setText(status.toString());
+            suggestionLabel.setText("✅ Task added. Start typing a new one…");
+            input.clear();
+
+            notifier().sendMessage("📌 New Task Added:\n" + msg);
+
+            reminders.arm(parsed);
+        });
+
+        // ================== ASK AI SECTION ==================
+        Label askAILabel = new Label("Ask AI:");
+        TextField askAIField = new TextField();
+        askAIField.setPromptText("e.g., Am I free at 4 PM? or Improve my schedule");
+        Button askAIButton = new Button("Ask");
+        TextArea aiOutput = new TextArea();
+        aiOutput.setEditable(false);
+        aiOutput.setPrefHeight(80);
+
+        HBox askAIBar = new HBox(10, askAILabel, askAIField, askAIButton);
+        askAIBar.setPadding(new Insets(10));
+        HBox.setHgrow(askAIField, Priority.ALWAYS);
+
+        askAIButton.setOnAction(e -> {
+            String question = askAIField.getText().toLowerCase().trim();
+            if (question.isEmpty()) {
+                aiOutput.setText("⚠ Please type a question.");
+                return;
+            }
+
+            // known intents are answered in-process; anything else goes to the Python bot
+            String local = engine.answer(question, LocalDateTime.now());
+            if (local != null) {
+                aiOutput.setText("🤖 " + local);
+                return;
+            }
+
+            aiOutput.setText("🤖 Thinking...");
+
+            bot().ask(question).whenComplete((answer, ex) -> {
+                String toShow;
+                if (ex != null) {
+                    ex.printStackTrace();
+                    toShow = "⚠ Failed to run AI bot: " + ex.getMessage();
+                } else if (answer == null || answer.isBlank()) {
+                    toShow = "⚠ Python bot returned no response.";
+                } else {
+                    toShow = "🤖 " + answer.trim();
+                }
+                Platform.runLater(() -> aiOutput.setText(toShow));
+            });
+        });
+        // ================== /ASK AI SECTION ==================
+
+        // schedule health: every conflict and repeated activity from the chosen day on
+        ChoiceBox<String> healthRange = new ChoiceBox<>(FXCollections.observableArrayList(
+                "Next 7 days", "Next 30 days", "Next 365 days"));
+        healthRange.getSelectionModel().select(1);
+        Button healthBtn = new Button("Check schedule");
+        TextArea healthOutput = new TextArea();
+        healthOutput.setEditable(false);
+        healthOutput.setPrefHeight(80);
+        HBox healthBar = new HBox(10, new Label("Schedule health:"), healthRange, healthBtn);
+        healthBar.setPadding(new Insets(10));
+        healthBtn.setOnAction(e -> {
+            TaskStore current = store;
+            if (current == null) {
+                healthOutput.setText("⚠ Tasks are not loaded yet.");
+                return;
+            }
+            LocalDate from = datePicker.getValue();
+            int days = new int[]{7, 30, 365}[healthRange.getSelectionModel().getSelectedIndex()];
+            healthBtn.setDisable(true);
+            healthOutput.setText("🩺 Checking…");
+            Thread checker = new Thread(() -> {
+                String text;
+                try {
+                    text = "🩺 " + ScheduleHealthReport.of(current, from, from.plusDays(days - 1)).summary(HEALTH_LINES);
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    text = "⚠ Schedule check failed: " + ex.getMessage();
+                }
+                String shown = text;
+                Platform.runLater(() -> {
+                    healthOutput.setText(shown);
+                    healthBtn.setDisable(false);
+                });
+            }, "schedule-health");
+            checker.setDaemon(true);
+            checker.start();
+        });
+
+        Button closeBtn = new Button("✖");
+        Button minBtn = new Button("—");
+        Button maxBtn = new Button("⬜");
+
+        closeBtn.getStyleClass().addAll("window-button", "close");
+        minBtn.getStyleClass().addAll("window-button", "min");
+        maxBtn.getStyleClass().addAll("window-button", "max");
+
+        closeBtn.setOnAction(e -> stage.close());
+        minBtn.setOnAction(e -> stage.setIconified(true));
+        maxBtn.setOnAction(e -> stage.setMaximized(!stage.isMaximized()));
+
+        HBox windowControls = new HBox(8, minBtn, maxBtn, closeBtn);
+        windowControls.getStyleClass().add("window-controls");
+        windowControls.setPadding(new Insets(5));
+
+        VBox content = new VBox(12, title, inputBar, suggestionLabel, agendaLabel, taskListView, statusLabel, askAIBar, aiOutput, healthBar, healthOutput);
+        content.setPadding(new Insets(16));
+        content.getStyleClass().add("root-wrap");
+
+        BorderPane root = new BorderPane();
+        root.setTop(windowControls);
+        root.setCenter(content);
+
+        Scene scene = new Scene(root, 1000, 700);
+        scene.getStylesheets().add("style.css");
+
+        stage.setTitle("Smart Reminder");
+        stage.initStyle(StageStyle.UNDECORATED);
+        stage.setScene(scene);
+        stage.setFullScreen(true);
+        stage.setFullScreenExitHint("");
+        stage.setFullScreenExitKeyCombination(javafx.scene.input.KeyCombination.NO_MATCH);
+
+        windowControls.setOnMousePressed(e -> {
+            xOffset = e.getSceneX();
+            yOffset = e.getSceneY();
+        });
+        windowControls.setOnMouseDragged(e -> {
+            stage.setX(e.getScreenX() - xOffset);
+            stage.setY(e.getScreenY() - yOffset);
+        });
+
+        // first layout pulse after show() = first frame on screen
+        firstPaintProbe = () -> {
+            if (firstPaintLogged) return;
+            firstPaintLogged = true;
+            System.out.println("🖼 First paint after " + millisSince(launchNanos) + " ms");
+            Platform.runLater(() -> scene.removePostLayoutPulseListener(firstPaintProbe));
+        };
+        scene.addPostLayoutPulseListener(firstPaintProbe);
+
+        stage.show();
+        startLoading();
+    }
+
+    /** Re-resolves the stylesheet, e.g. once fonts loaded in the background are registered. */
+    public void refreshStyles() {
+        Scene scene = taskListView.getScene();
+        if (scene == null) return;
+        List<String> sheets = new ArrayList<>(scene.getStylesheets());
+        scene.getStylesheets().clear();
+        scene.getStylesheets().addAll(sheets);
+    }
+
+    // Runs on the "task-loader" thread: connect, stream live tasks into the list page by page,
+    // then the non-critical parts (history scan for the suggestion model)
+    private void startLoading() {
+        Thread loader = new Thread(() -> {
+            try {
+                connectDB();
+                List<RecurringTask> series = store.getSeries();
+                Platform.runLater(() -> {
+                    for (RecurringTask s : series) seriesById.put(s.getId(), s);
+                    addBtn.setDisable(false);
+                    importBtn.setDisable(false);
+                    exportBtn.setDisable(false);
+                    showAgenda(agendaDay);
+                });
+
+                LocalDateTime liveFrom = LocalDateTime.now();
+                int loaded = store.streamLiveTasks(liveFrom, LOAD_PAGE_SIZE,
+                        page -> Platform.runLater(() -> tasks.addAll(page)));
+                Platform.runLater(() -> {
+                    statusLabel.setText(loaded == 0 ? "Welcome! Add your first task." : "✅ Loaded " + loaded + " task(s).");
+                    System.out.println("📦 Fully loaded " + loaded + " task(s) after " + millisSince(launchNanos) + " ms");
+                });
+
+                activityModel.seed(store.getArchiveSummary()); // links of days already archived
+                store.forEachTimedTask(t -> scanned(t, liveFrom));
+                System.out.println("🧠 " + activityModel.stats() + " after " + millisSince(launchNanos) + " ms");
+
+                // started after the history scan so no day is archived while it is being read
+                RetentionJob job = new RetentionJob(store);
+                if (job.start()) retention = job;
+            } catch (Exception e) {
+                e.printStackTrace();
+                Platform.runLater(() -> statusLabel.setText("⚠ Could not load tasks: " + e.getMessage()));
+            } finally {
+                historyScanned();
+            }
+        }, "task-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    // loader thread, one task of the history scan
+    private void scanned(Task t, LocalDateTime liveFrom) {
+        synchronized (scanLock) {
+            if (touchedDuringScan.contains(t.getId())) return; // its held update counts it
+            if (t.getEndTime() == null || !t.getEndTime().isBefore(liveFrom)) liveCountedByScan.add(t.getId());
+        }
+        activityModel.add(t);
+    }
+
+    private void modelAdd(Task t) {
+        synchronized (scanLock) {
+            if (heldModelUpdates != null) {
+                touchedDuringScan.add(t.getId());
+                heldModelUpdates.add(() -> {
+                    activityModel.add(t);
+                    liveCountedByScan.add(t.getId());
+                });
+                return;
+            }
+        }
+        activityModel.add(t);
+    }
+
+    // only what the model actually counted comes out again: a task deleted before the scan
+    // reached it was never added
+    private void modelRemove(Task t) {
+        synchronized (scanLock) {
+            if (heldModelUpdates != null) {
+                touchedDuringScan.add(t.getId());
+                heldModelUpdates.add(() -> {
+                    if (liveCountedByScan.remove(t.getId())) activityModel.remove(t);
+                });
+                return;
+            }
+        }
+        activityModel.remove(t);
+    }
+
+    // imports and other work that has to wait for the scan run here, after the held updates
+    private void afterHistoryScan(Runnable r) {
+        synchronized (scanLock) {
+            if (heldModelUpdates != null) {
+                heldModelUpdates.add(r);
+                return;
+            }
+        }
+        r.run();
+    }
+
+    private void historyScanned() {
+        synchronized (scanLock) {
+            for (Runnable r : heldModelUpdates) r.run();
+            heldModelUpdates = null;
+            touchedDuringScan.clear();
+            liveCountedByScan.clear();
+        }
+    }
+
+    private static long millisSince(long nanos) {
+        return (System.nanoTime() - nanos) / 1_000_000;
+    }
+
+    // where the auto-scheduler would put a timeless task (null for timed ones)
+    private String plannedSlot(Task task) {
+        if (task.hasTime()) return null;
+        AutoScheduler.Slot slot = planner.slotFor(task, LocalDateTime.now());
+        if (slot == null) return "🗓 No free slot in the coming days";
+        return "🗓 Planned: " + slot.start.format(SLOT_DAY) + " – " + slot.end.format(SLOT_TIME);
+    }
+
+    // delete button of a TaskCell; for an occurrence, ask whether the whole series goes
+    private void removeTask(Task item) {
+        if (item instanceof RecurringTask.Occurrence o) {
+            ButtonType one = new ButtonType("Only this one");
+            ButtonType all = new ButtonType("Whole series");
+            Alert ask = new Alert(Alert.AlertType.CONFIRMATION,
+                    "\"" + o.getDescription() + "\" repeats. Delete only this occurrence or the whole series?",
+                    one, all, ButtonType.CANCEL);
+            ask.setHeaderText(null);
+            ButtonType choice = ask.showAndWait().orElse(ButtonType.CANCEL);
+            if (choice == all) deleteSeries(o);
+            if (choice != one) return;
+        }
+        removeTasks(List.of(item));
+    }
+
+    // Add button, recurring text: stored in the background, then its next occurrence joins the list
+    private void addSeries(RecurringTask series) {
+        Task next = series.next(LocalDateTime.now());
+        String conflict = next != null ? engine.conflictMessage(next) : null;
+        seriesById.put(series.getId(), series);
+
+        StringBuilder status = new StringBuilder("🔁 Added: ").append(series.getDisplayText()).append('\n')
+                .append(next != null ? "Next: " + next.getStartTime().format(fmt) : "No occurrences left");
+        if (conflict != null) status.append('\n').append(conflict);
+        statusLabel.setText(status.toString());
+        suggestionLabel.setText("✅ Task added. Start typing a new one…");
+        notifier().sendMessage("📌 New Recurring Task Added:\n" + series.getDisplayText());
+
+        inBackground("series-save", () -> {
+            store.saveSeries(series);
+            agenda.invalidateAll();
+            Platform.runLater(() -> {
+                if (next != null) {
+                    tasks.add(next);
+                    reminders.arm(next);
+                }
+                showAgenda(agendaDay);
+            });
+        }, "⚠ Could not save: " + series.getDescription());
+    }
+
+    // "Whole series" in the delete dialog
+    private void deleteSeries(RecurringTask.Occurrence item) {
+        long id = item.getSeriesId();
+        seriesById.remove(id);
+        tasks.removeIf(t -> t instanceof RecurringTask.Occurrence o && o.getSeriesId() == id);
+        int cancelled = reminders.cancelSeries(id);
+        if (cancelled > 0) System.out.println("🛑 " + cancelled + " reminder(s) cancelled for: " + item.getDescription());
+        statusLabel.setText("🗑 Removed all of: " + item.getDescription());
+        inBackground("series-delete", () -> {
+            store.deleteSeries(id);
+            agenda.invalidateAll();
+            Platform.runLater(() -> showAgenda(agendaDay));
+        }, "⚠ Could not delete: " + item.getDescription());
+    }
+
+    // an occurrence left the list (deleted or done): the series' next one takes its place
+    private void showNextOccurrence(RecurringTask.Occurrence item) {
+        RecurringTask s = seriesById.computeIfPresent(item.getSeriesId(), (k, v) -> v.withSkipped(item.getStartTime()));
+        if (s == null) return;
+        Task next = s.next(LocalDateTime.now());
+        if (next == null || tasks.stream().anyMatch(t -> t.getId() == next.getId())) return;
+        tasks.add(next);
+        reminders.arm(next);
+    }
+
+    private interface StoreWork {
+        void run() throws Exception;
+    }
+
+    // store calls that don't go through the write queue; failures end up in the status line
+    private void inBackground(String name, StoreWork work, String failure) {
+        Thread worker = new Thread(() -> {
+            try {
+                work.run();
+            } catch (Exception e) {
+                e.printStackTrace();
+                Platform.runLater(() -> statusLabel.setText(failure));
+            }
+        }, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // ✔ button of a TaskCell: the task stays in the store (and the history), but leaves the list
+    private void completeTask(Task item) {
+        forget(List.of(item));
+        writeQueue.submitComplete(item).whenComplete((v, ex) -> {
+            if (ex != null) {
+                ex.printStackTrace();
+                Platform.runLater(() -> statusLabel.setText("⚠ Could not complete: " + item.getDescription()));
+            }
+        });
+        statusLabel.setText("✔ Done: " + item.getDescription());
+    }
+
+    // the delete queue sends all of them as one DELETE ... WHERE id IN (...)
+    private void removeTasks(List<Task> items) {
+        if (items.isEmpty()) return;
+        forget(items);
+        for (Task item : items) {
+            // occurrences were never part of the history
+            if (!(item instanceof RecurringTask.Occurrence)) modelRemove(item);
+            deleteTaskFromDB(item);
+        }
+        statusLabel.setText(items.size() == 1
+                ? "🗑 Removed: " + items.get(0).getDescription()
+                : "🗑 Removed " + items.size() + " tasks");
+    }
+
+    // takes the tasks (by id, so identical duplicates stay) out of the list and the reminders;
+    // an occurrence makes room for the next one of its series
+    private void forget(List<Task> items) {
+        Set<Long> ids = new HashSet<>();
+        for (Task item : items) ids.add(item.getId());
+        tasks.removeIf(t -> ids.contains(t.getId()));
+        updateLiveSuggestions(input.getText());
+
+        for (Task item : items) {
+            if (reminders.cancel(item)) {
+                System.out.println("🛑 Reminder cancelled for: " + item.getDescription());
+            }
+            if (item instanceof RecurringTask.Occurrence o) showNextOccurrence(o);
+        }
+    }
+
+    private void connectDB() {
+        metrics = MetricsExporter.start(); // JMX always, HTTP with -Dsmartreminder.metrics.port
+        store = TaskStore.getDefault();
+        writeQueue = new TaskWriteQueue(store);
+        reminders = new ReminderScheduler(store, this::sendReminder);
+        reminders.start();
+        agenda = AgendaCache.getDefault();
+        System.out.println("✅ Using task store " + store.stats());
+    }
+
+    // Writes go through the write-behind queue so the FX thread never waits on MySQL
+    private void saveTaskToDB(Task task) {
+        writeQueue.submitInsert(task).whenComplete((v, ex) -> {
+            if (ex != null) {
+                ex.printStackTrace();
+                Platform.runLater(() -> statusLabel.setText("⚠ Could not save: " + task.getDescription()));
+            } else {
+                agendaChanged(task);
+            }
+        });
+    }
+
+    private void deleteTaskFromDB(Task task) {
+        writeQueue.submitDelete(task).whenComplete((v, ex) -> {
+            if (ex != null) {
+                ex.printStackTrace();
+                Platform.runLater(() -> statusLabel.setText("⚠ Could not delete: " + task.getDescription()));
+            } else {
+                agendaChanged(task);
+            }
+        });
+    }
+
+    // Import… button: the file is streamed into the store in batches (see TaskImporter); started
+    // after the history scan, which could otherwise count a stored batch before imported() does
+    private void importTasks(Stage stage, LocalDate day) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import tasks");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Tasks (CSV, iCalendar, text)", "*.csv", "*.ics", "*.ical", "*.txt"),
+                new FileChooser.ExtensionFilter("All files", "*.*"));
+        File file = chooser.showOpenDialog(stage);
+        if (file == null) return;
+        importBtn.setDisable(true);
+        statusLabel.setText("📥 Importing " + file.getName() + "…");
+        afterHistoryScan(() -> {
+            Thread importer = new Thread(() -> {
+                try {
+                    Path path = file.toPath();
+                    TaskImporter.Progress p = new TaskImporter(store)
+                            .importFile(path, TaskImporter.Format.of(path), day, this::imported);
+                    System.out.println("📥 Imported " + path + ": " + p);
+                    Platform.runLater(() -> {
+                        statusLabel.setText("📥 " + file.getName() + ": " + p);
+                        showAgenda(agendaDay);
+                    });
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    Platform.runLater(() -> statusLabel.setText("⚠ Import failed: " + e.getMessage()));
+                } finally {
+                    Platform.runLater(() -> importBtn.setDisable(false));
+                }
+            }, "task-import");
+            importer.setDaemon(true);
+            importer.start();
+        });
+    }
+
+    // import writer thread, after each stored batch: what the Add button does, for a whole batch
+    private void imported(List<Task> batch, TaskImporter.Progress progress) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Task> live = new ArrayList<>();
+        for (Task t : batch) {
+            activityModel.add(t);
+            agenda.invalidate(t);
+            reminders.arm(t);
+            if (t.getEndTime() == null || t.getEndTime().isAfter(now)) live.add(t);
+        }
+        Platform.runLater(() -> {
+            tasks.addAll(live);
+            statusLabel.setText("📥 Importing… " + progress);
+        });
+    }
+
+    // Export… button: streamed from the store, not from the list (which only has live tasks)
+    private void exportTasks(Stage stage) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export tasks");
+        chooser.setInitialFileName("tasks.ics");
+        FileChooser.ExtensionFilter csv = new FileChooser.ExtensionFilter("CSV", "*.csv");
+        chooser.getExtensionFilters().addAll(new FileChooser.ExtensionFilter("iCalendar", "*.ics"), csv);
+        File file = chooser.showSaveDialog(stage);
+        if (file == null) return;
+        Path path = file.toPath();
+        TaskImporter.Format format = TaskImporter.Format.of(path);
+        if (format == TaskImporter.Format.TEXT) {
+            format = chooser.getSelectedExtensionFilter() == csv ? TaskImporter.Format.CSV : TaskImporter.Format.ICS;
+        }
+        TaskImporter.Format chosen = format;
+        exportBtn.setDisable(true);
+        Thread exporter = new Thread(() -> {
+            try {
+                long n = TaskExporter.export(store, path, chosen,
+                        count -> Platform.runLater(() -> statusLabel.setText("📤 Exporting… " + count + " task(s)")));
+                Platform.runLater(() -> statusLabel.setText("📤 Exported " + n + " task(s) to " + file.getName()));
+            } catch (Exception e) {
+                e.printStackTrace();
+                Platform.runLater(() -> statusLabel.setText("⚠ Export failed: " + e.getMessage()));
+            } finally {
+                Platform.runLater(() -> exportBtn.setDisable(false));
+            }
+        }, "task-export");
+        exporter.setDaemon(true);
+        exporter.start();
+    }
+
+    // FX thread; the label is only updated if that day is still the one picked
+    private void showAgenda(LocalDate day) {
+        if (day == null) return;
+        agendaDay = day;
+        if (agenda == null) return; // shown once the store is connected
+        agenda.getAsync(day).whenComplete((list, ex) -> Platform.runLater(() -> {
+            if (!day.equals(agendaDay)) return;
+            agendaLabel.setText(ex != null
+                    ? "⚠ Could not load the agenda for " + day.format(AGENDA_DAY_FMT)
+                    : formatAgenda(day, list));
+        }));
+    }
+
+    // write-behind thread, after the store has the change
+    private void agendaChanged(Task task) {
+        agenda.invalidate(task);
+        Platform.runLater(() -> {
+            if (AgendaCache.touches(task, agendaDay)) showAgenda(agendaDay);
+        });
+    }
+
+    private static String formatAgenda(LocalDate day, List<Task> list) {
+        if (list.isEmpty()) return "📅 " + day.format(AGENDA_DAY_FMT) + ": nothing planned";
+        StringBuilder sb = new StringBuilder("📅 ").append(day.format(AGENDA_DAY_FMT))
+                .append(" (").append(list.size()).append("): ");
+        for (int i = 0; i < Math.min(AGENDA_PREVIEW, list.size()); i++) {
+            Task t = list.get(i);
+            if (i > 0) sb.append(" · ");
+            if (t.getStartTime().toLocalDate().equals(day)) sb.append(t.getStartTime().format(AGENDA_TIME_FMT));
+            else sb.append("until ").append(t.getEndTime().format(AGENDA_TIME_FMT)); // from the day before
+            sb.append(' ').append(t.getDescription());
+        }
+        if (list.size() > AGENDA_PREVIEW) sb.append(" · +").append(list.size() - AGENDA_PREVIEW).append(" more");
+        return sb.toString();
+    }
+
+    // FX thread only: the first call seeds the worker snapshot, the list listener keeps it current
+    private BotWorkerPool bot() {
+        if (botPool == null) {
+            botPool = BotWorkerPool.getDefault();
+            botPool.reset(new ArrayList<>(tasks));
+        }
+        return botPool;
+    }
+
+    // reminder thread and FX thread both send
+    private synchronized TelegramNotifier notifier() {
+        if (notifier == null) notifier = new TelegramNotifier();
+        return notifier;
+    }
+
+    private void sendReminder(Task task) {
+        notifier().sendMessage("⏰ Reminder: Your task \"" +
+                task.getDescription() + "\" starts at " +
+                task.getStartTime().format(fmt));
+    }
+
+    /** Called from SmartReminder.stop(): flush pending writes and stop background threads. */
+    public void shutdown() {
+        if (reminders != null) {
+            System.out.println("⏰ " + reminders.stats());
+            reminders.close();
+        }
+        if (retention != null) {
+            System.out.println("🗄 " + retention.stats());
+            retention.close();
+        }
+        if (writeQueue != null) writeQueue.close();
+        if (agenda != null) {
+            System.out.println("📅 " + agenda.stats());
+            agenda.close();
+        }
+        if (botPool != null) botPool.close();
+        if (metrics != null) metrics.close();
+        suggestionWorker.shutdownNow();
+        synchronized (this) {
+            if (notifier != null) {
+                System.out.println("📨 " + notifier.stats());
+                notifier.close();
+            }
+        }
+    }
+
+    // Called on every edit: cancels the pending computation and schedules a new one; a result
+    // only reaches the label if no newer edit happened meanwhile
+    private void updateLiveSuggestions(String rawText) {
+        if (pendingSuggestion != null) pendingSuggestion.cancel(false);
+        long seq = ++suggestionSeq;
+        if (rawText == null || rawText.trim().isEmpty()) {
+            suggestionLabel.setText("💡 Suggestions will appear here…");
+            return;
+        }
+
+        pendingSuggestion = suggestionWorker.schedule(() -> {
+            String text = SuggestionEngine.liveHint(rawText, descriptions, activityModel);
+            Platform.runLater(() -> {
+                if (seq == suggestionSeq) suggestionLabel.setText(text);
+            });
+        }, SUGGEST_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+    }
+
+
+}
@@ -0,0 +1,51 @@
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.layout.HBox;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Row of the task list. The ListView only creates as many cells as fit on screen and reuses
+ * them while scrolling, so the label/button/row are built once here and updateItem just swaps
+ * in the task's cached display text. The buttons act on the cell's own task instance, so of two
+ * identical tasks only the clicked one (by id) is completed or removed. {@code note} may add a
+ * line after the text (the planned slot of a timeless task), or return null.
+ */
+public final class TaskCell extends ListCell<Task> {
+
+    private final Label label = new Label();
+    private final Button done = new Button("✔");
+    private final Button delete = new Button("❌");
+    private final HBox row = new HBox(12, label, done, delete);
+    private final Function<Task, String> note;
+
+    public TaskCell(Consumer<Task> onComplete, Consumer<Task> onDelete, Function<Task, String> note) {
+        this.note = note;
+        done.getStyleClass().add("btn-done");
+        delete.getStyleClass().add("btn-delete");
+        row.getStyleClass().add("task-row");
+        done.setOnAction(e -> {
+            Task item = getItem();
+            if (item != null) onComplete.accept(item);
+        });
+        delete.setOnAction(e -> {
+            Task item = getItem();
+            if (item != null) onDelete.accept(item);
+        });
+    }
+
+    @Override
+    protected void updateItem(Task item, boolean empty) {
+        super.updateItem(item, empty);
+        if (empty || item == null) {
+            setText(null);
+            setGraphic(null);
+        } else {
+            String extra = note.apply(item);
+            label.setText(extra == null ? item.getDisplayText() : item.getDisplayText() + "\n" + extra);
+            setGraphic(row);
+        }
+    }
+}